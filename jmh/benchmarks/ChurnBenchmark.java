@@ -0,0 +1,57 @@
+package benchmarks;
+
+import functions.FunctionPoint;
+import functions.InappropriateFunctionPointException;
+import functions.TabulatedFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вставка точки в случайное место и удаление случайной точки: размер функции не меняется.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChurnBenchmark {
+    @Param({"array", "linked", "unrolled"})
+    public String kind;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private TabulatedFunction function;
+    private Random random;
+
+    @Setup
+    public void setup() {
+        function = Scenarios.create(kind, size);
+        random = new Random(size);
+    }
+
+    @Benchmark
+    public int addDelete() {
+        double x = Scenarios.LEFT + random.nextDouble() * (Scenarios.RIGHT - Scenarios.LEFT);
+        try {
+            function.addPoint(new FunctionPoint(x, 1));
+        } catch (InappropriateFunctionPointException e) {
+            return 0;
+        }
+        function.deletePoint(1 + random.nextInt(function.getPointsCount() - 2));
+        return function.getPointsCount();
+    }
+}
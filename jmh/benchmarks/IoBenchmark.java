@@ -0,0 +1,73 @@
+package benchmarks;
+
+import functions.TabulatedFunction;
+import functions.TabulatedFunctions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Двоичные и текстовые запись и чтение через TabulatedFunctions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IoBenchmark {
+    @Param({"10000"})
+    public int size;
+
+    private TabulatedFunction function;
+    private byte[] binary;
+    private String text;
+
+    @Setup
+    public void setup() throws IOException {
+        function = Scenarios.create("array", size);
+        binary = Scenarios.binary(function);
+        StringWriter out = new StringWriter();
+        TabulatedFunctions.writeTabulatedFunction(function, out);
+        text = out.toString();
+    }
+
+    @Benchmark
+    public int binaryWrite() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size * 16 + 16);
+        TabulatedFunctions.outputTabulatedFunction(function, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int binaryRead() throws IOException {
+        return TabulatedFunctions.inputTabulatedFunction(new ByteArrayInputStream(binary)).getPointsCount();
+    }
+
+    @Benchmark
+    public int textWrite() throws IOException {
+        StringWriter out = new StringWriter(size * 40);
+        TabulatedFunctions.writeTabulatedFunction(function, out);
+        return out.getBuffer().length();
+    }
+
+    @Benchmark
+    public int textRead() throws IOException {
+        return TabulatedFunctions.readTabulatedFunction(new StringReader(text)).getPointsCount();
+    }
+}
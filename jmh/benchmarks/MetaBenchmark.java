@@ -0,0 +1,51 @@
+package benchmarks;
+
+import functions.Function;
+import functions.Functions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Глубокое дерево functions.meta: как есть, после Functions.optimize и после Functions.compile.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetaBenchmark {
+    @Param({"4", "16"})
+    public int depth;
+
+    @Param({"interpreted", "optimized", "compiled"})
+    public String mode;
+
+    private Function function;
+    private double[] xs;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Function tree = Scenarios.metaTree(depth);
+        function = mode.equals("optimized") ? Functions.optimize(tree)
+                : mode.equals("compiled") ? Functions.compile(tree) : tree;
+        xs = Scenarios.queries(false, depth);
+    }
+
+    @Benchmark
+    public double value() {
+        return function.getFunctionValue(xs[next++ & (Scenarios.QUERIES - 1)] / Scenarios.RIGHT);
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import functions.ArrayTabulatedFunction;
+import functions.Function;
+import functions.Functions;
+import functions.LinkedListTabulatedFunction;
+import functions.TabulatedFunction;
+import functions.TabulatedFunctions;
+import functions.UnrolledLinkedListTabulatedFunction;
+import functions.basic.Cos;
+import functions.basic.Exp;
+import functions.basic.Sin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Общие исходные данные JMH-сценариев пакета {@code functions}.
+ */
+final class Scenarios {
+    static final int QUERIES = 4096;
+    static final double LEFT = 0;
+    static final double RIGHT = 100;
+
+    private Scenarios() {
+    }
+
+    static TabulatedFunction create(String kind, int size) {
+        TabulatedFunction f;
+        switch (kind) {
+            case "array": f = new ArrayTabulatedFunction(LEFT, RIGHT, size); break;
+            case "linked": f = new LinkedListTabulatedFunction(LEFT, RIGHT, size); break;
+            case "unrolled": f = new UnrolledLinkedListTabulatedFunction(LEFT, RIGHT, size); break;
+            default: throw new IllegalArgumentException(kind);
+        }
+        for (int i = 0; i < size; i++) {
+            f.setPointY(i, Math.sin(f.getPointX(i)));
+        }
+        return f;
+    }
+
+    static double[] queries(boolean sorted, long seed) {
+        Random random = new Random(seed);
+        double[] xs = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            xs[i] = LEFT + random.nextDouble() * (RIGHT - LEFT);
+        }
+        if (sorted) {
+            Arrays.sort(xs);
+        }
+        return xs;
+    }
+
+    static byte[] binary(TabulatedFunction f) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            TabulatedFunctions.outputTabulatedFunction(f, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // Глубокое дерево functions.meta: чередование Sum(Shift, Power) и Mult(Scale, Composition).
+    static Function metaTree(int depth) {
+        Function f = new Sin();
+        for (int i = 0; i < depth; i++) {
+            if (i % 2 == 0) {
+                f = Functions.sum(Functions.shift(f, 0.01, 0.5), Functions.power(new Cos(), 2));
+            } else {
+                f = Functions.mult(Functions.scale(f, 1.01, 0.99), Functions.composition(new Exp(), new Sin()));
+            }
+        }
+        return f;
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import functions.Interpolation;
+import functions.TabulatedFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getFunctionValue по случайным аргументам и setPointY при сплайновой интерполяции.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplineBenchmark {
+    @Param({"array", "linked"})
+    public String kind;
+
+    @Param({"NATURAL_CUBIC", "MONOTONE_CUBIC"})
+    public Interpolation interpolation;
+
+    @Param({"10000"})
+    public int size;
+
+    private TabulatedFunction function;
+    private double[] xs;
+    private Random random;
+    private int next;
+
+    @Setup
+    public void setup() {
+        function = Scenarios.create(kind, size);
+        function.setInterpolation(interpolation);
+        xs = Scenarios.queries(false, size);
+        random = new Random(size);
+    }
+
+    @Benchmark
+    public double value() {
+        return function.getFunctionValue(xs[next++ & (Scenarios.QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public int setY() {
+        int i = random.nextInt(function.getPointsCount());
+        function.setPointY(i, random.nextDouble());
+        return i;
+    }
+}
@@ -0,0 +1,36 @@
+package benchmarks;
+
+import functions.Function;
+import functions.TabulatedFunctions;
+import functions.basic.Sin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TabulateBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final Function sin = new Sin();
+
+    @Benchmark
+    public double tabulate() {
+        return TabulatedFunctions.tabulate(sin, Scenarios.LEFT, Scenarios.RIGHT, size)
+                .getPointY(size / 2);
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import functions.TabulatedFunction;
+import functions.TabulatedFunctionCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getFunctionValue по упорядоченным (sequential) и случайным (random) аргументам и тот же
+ * упорядоченный проход через курсор.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TabulatedValueBenchmark {
+    @Param({"array", "linked", "unrolled"})
+    public String kind;
+
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    @Param({"sequential", "random"})
+    public String pattern;
+
+    private TabulatedFunction function;
+    private TabulatedFunctionCursor cursor;
+    private double[] xs;
+    private int next;
+
+    @Setup
+    public void setup() {
+        function = Scenarios.create(kind, size);
+        cursor = function.cursor();
+        xs = Scenarios.queries(pattern.equals("sequential"), size);
+    }
+
+    @Benchmark
+    public double value() {
+        return function.getFunctionValue(xs[next++ & (Scenarios.QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public double cursor() {
+        return cursor.getFunctionValue(xs[next++ & (Scenarios.QUERIES - 1)]);
+    }
+}
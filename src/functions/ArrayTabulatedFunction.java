@@ -4,11 +4,18 @@ import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
-import java.util.Arrays;
 
 public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable {
-    private FunctionPoint[] points;
+    // Куски массивов разделяются со снимками и копируются по одному перед первой записью в них.
+    private ChunkedDoubleArray xs;
+    private ChunkedDoubleArray ys;
     private int pointsCount;
+    private Interpolation interpolation = Interpolation.LINEAR;
+    // наклоны сплайна в точках, ёмкость не меньше, чем у xs; null при линейной интерполяции
+    private ChunkedDoubleArray slopes;
+    // Рабочий массив прогонки естественного сплайна, переиспользуется между изменениями.
+    private transient double[] splineScratch;
+    private final transient ThreadLocal<int[]> segmentHint = ThreadLocal.withInitial(() -> new int[1]);
 
     public ArrayTabulatedFunction(double leftX, double rightX, int pointsCount) {
         if (leftX >= rightX) {
@@ -19,12 +26,12 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
         }
 
         this.pointsCount = pointsCount;
-        this.points = new FunctionPoint[pointsCount + 5];
+        this.xs = new ChunkedDoubleArray(pointsCount + 5);
+        this.ys = new ChunkedDoubleArray(pointsCount + 5);
 
         double step = (rightX - leftX) / (pointsCount - 1);
         for (int i = 0; i < pointsCount; i++) {
-            double x = leftX + i * step;
-            points[i] = new FunctionPoint(x, 0);
+            xs.set(i, leftX + i * step);
         }
     }
 
@@ -37,13 +44,14 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
         }
 
         this.pointsCount = values.length;
-        this.points = new FunctionPoint[pointsCount + 5];
+        this.xs = new ChunkedDoubleArray(pointsCount + 5);
+        this.ys = new ChunkedDoubleArray(pointsCount + 5);
 
         double step = (rightX - leftX) / (pointsCount - 1);
         for (int i = 0; i < pointsCount; i++) {
-            double x = leftX + i * step;
-            points[i] = new FunctionPoint(x, values[i]);
+            xs.set(i, leftX + i * step);
         }
+        ys.copyFrom(values, 0, 0, pointsCount);
     }
 
     public ArrayTabulatedFunction(FunctionPoint[] points) {
@@ -61,22 +69,52 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
         }
 
         this.pointsCount = points.length;
-        this.points = new FunctionPoint[pointsCount + 5];
+        this.xs = new ChunkedDoubleArray(pointsCount + 5);
+        this.ys = new ChunkedDoubleArray(pointsCount + 5);
 
         for (int i = 0; i < pointsCount; i++) {
-            this.points[i] = new FunctionPoint(points[i]);
+            xs.set(i, points[i].getX());
+            ys.set(i, points[i].getY());
         }
-        if (this.pointsCount < this.points.length) {
-            Arrays.fill(this.points, this.pointsCount, this.points.length, null);
+    }
+
+    // Принимает массивы без копирования и проверки порядка: вызывающий код гарантирует корректность точек.
+    ArrayTabulatedFunction(double[] xs, double[] ys, int pointsCount) {
+        this(ChunkedDoubleArray.of(xs), ChunkedDoubleArray.of(ys), pointsCount);
+    }
+
+    ArrayTabulatedFunction(ChunkedDoubleArray xs, ChunkedDoubleArray ys, int pointsCount) {
+        this.xs = xs;
+        this.ys = ys;
+        this.pointsCount = pointsCount;
+    }
+
+    // Как конструктор из массива точек: проверяет количество и порядок, но принимает массивы без копирования.
+    static ArrayTabulatedFunction ofChecked(double[] xs, double[] ys, int pointsCount) {
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2: " + pointsCount);
+        }
+        for (int i = 0; i < pointsCount - 1; i++) {
+            if (!MathUtil.less(xs[i], xs[i + 1])) {
+                throw new IllegalArgumentException("Точки не упорядочены по X или содержат дубликаты");
+            }
         }
+        return new ArrayTabulatedFunction(xs, ys, pointsCount);
+    }
+
+    @Override
+    public void exportPoints(int from, int to, double[] x, double[] y) {
+        TabulatedFunctions.checkRange(from, to, pointsCount);
+        xs.copyTo(from, x, 0, to - from);
+        ys.copyTo(from, y, 0, to - from);
     }
 
     public double getLeftDomainBorder() {
-        return points[0].getX();
+        return xs.get(0);
     }
 
     public double getRightDomainBorder() {
-        return points[pointsCount - 1].getX();
+        return xs.get(pointsCount - 1);
     }
 
     public double getFunctionValue(double x) {
@@ -84,24 +122,93 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
             return Double.NaN;
         }
 
-        for (int i = 0; i < pointsCount; i++) {
-            if (MathUtil.equals(x, points[i].getX())) {
-                return points[i].getY();
+        int[] hint = segmentHint.get();
+        int i = locateSegment(xs, pointsCount, x, hint[0]);
+        hint[0] = i;
+        return slopes == null ? interpolate(xs, ys, i, x) : CubicSplines.interpolate(xs, ys, slopes, i, x);
+    }
+
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+        int segment = 0;
+        for (int k = from; k < to; k++) {
+            double x = xs[k];
+            if (MathUtil.less(x, left) || MathUtil.greater(x, right)) {
+                out[k] = Double.NaN;
+            } else {
+                segment = locateSegment(this.xs, pointsCount, x, segment);
+                out[k] = slopes == null
+                        ? interpolate(this.xs, ys, segment, x)
+                        : CubicSplines.interpolate(this.xs, ys, slopes, segment, x);
             }
         }
+    }
 
-        for (int i = 0; i < pointsCount - 1; i++) {
-            double x1 = points[i].getX();
-            double x2 = points[i + 1].getX();
+    // Индекс i левого конца отрезка [x_i, x_{i+1}] среди первых pointsCount точек, содержащего x.
+    // Сначала проверяются отрезок hint и соседний с ним справа, затем выполняется бинарный поиск.
+    static int locateSegment(double[] xs, int pointsCount, double x, int hint) {
+        if (hint < pointsCount - 1 && xs[hint] <= x) {
+            if (x <= xs[hint + 1]) {
+                return hint;
+            }
+            if (hint + 2 < pointsCount && x <= xs[hint + 2]) {
+                return hint + 1;
+            }
+        }
 
-            if (MathUtil.greaterOrEquals(x, x1) && MathUtil.lessOrEquals(x, x2)) {
-                double y1 = points[i].getY();
-                double y2 = points[i + 1].getY();
-                return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+        int lo = 0;
+        int hi = pointsCount - 1;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (xs[mid] <= x) {
+                lo = mid;
+            } else {
+                hi = mid;
             }
         }
+        return lo;
+    }
+
+    // То же для массива из кусков.
+    static int locateSegment(ChunkedDoubleArray xs, int pointsCount, double x, int hint) {
+        if (hint < pointsCount - 1 && xs.get(hint) <= x) {
+            if (x <= xs.get(hint + 1)) {
+                return hint;
+            }
+            if (hint + 2 < pointsCount && x <= xs.get(hint + 2)) {
+                return hint + 1;
+            }
+        }
+
+        int lo = 0;
+        int hi = pointsCount - 1;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (xs.get(mid) <= x) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    static double interpolate(ChunkedDoubleArray xs, ChunkedDoubleArray ys, int i, double x) {
+        double x1 = xs.get(i);
+        double x2 = xs.get(i + 1);
+
+        if (MathUtil.equals(x, x1)) {
+            return ys.get(i);
+        }
+        if (MathUtil.equals(x, x2)) {
+            return ys.get(i + 1);
+        }
 
-        return Double.NaN;
+        double y1 = ys.get(i);
+        double y2 = ys.get(i + 1);
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
     }
 
     public int getPointsCount() {
@@ -112,7 +219,7 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
         if (index < 0 || index >= pointsCount) {
             throw new FunctionPointIndexOutOfBoundsException("Индекс " + index + " вне диапазона [0, " + (pointsCount - 1) + "]");
         }
-        return new FunctionPoint(points[index]);
+        return new FunctionPoint(xs.get(index), ys.get(index));
     }
 
     public void setPoint(int index, FunctionPoint point) {
@@ -120,53 +227,57 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
             throw new FunctionPointIndexOutOfBoundsException(index, pointsCount);
         }
 
-    if (index > 0 && !MathUtil.greater(point.getX(), points[index - 1].getX())) {
+    if (index > 0 && !MathUtil.greater(point.getX(), xs.get(index - 1))) {
             throw new InappropriateFunctionPointException(
-                    "X координата " + point.getX() + " должна быть больше предыдущей " + points[index - 1].getX());
+                    "X координата " + point.getX() + " должна быть больше предыдущей " + xs.get(index - 1));
         }
-    if (index < pointsCount - 1 && !MathUtil.less(point.getX(), points[index + 1].getX())) {
+    if (index < pointsCount - 1 && !MathUtil.less(point.getX(), xs.get(index + 1))) {
             throw new InappropriateFunctionPointException(
-                    "X координата " + point.getX() + " должна быть меньше следующей " + points[index + 1].getX());
+                    "X координата " + point.getX() + " должна быть меньше следующей " + xs.get(index + 1));
         }
 
-        points[index] = new FunctionPoint(point);
+        xs.set(index, point.getX());
+        ys.set(index, point.getY());
+        updateSlopes(index);
     }
 
     public double getPointX(int index) {
         if (index < 0 || index >= pointsCount) {
             throw new FunctionPointIndexOutOfBoundsException("Индекс " + index + " вне диапазона [0, " + (pointsCount - 1) + "]");
         }
-        return points[index].getX();
+        return xs.get(index);
     }
 
     public void setPointX(int index, double x) {
         if (index < 0 || index >= pointsCount) {
             throw new FunctionPointIndexOutOfBoundsException(index, pointsCount);
         }
-    if (index > 0 && !MathUtil.greater(x, points[index - 1].getX())) {
+    if (index > 0 && !MathUtil.greater(x, xs.get(index - 1))) {
             throw new InappropriateFunctionPointException(
-                    "X координата " + x + " должна быть больше предыдущей " + points[index - 1].getX());
+                    "X координата " + x + " должна быть больше предыдущей " + xs.get(index - 1));
         }
-    if (index < pointsCount - 1 && !MathUtil.less(x, points[index + 1].getX())) {
+    if (index < pointsCount - 1 && !MathUtil.less(x, xs.get(index + 1))) {
             throw new InappropriateFunctionPointException(
-                    "X координата " + x + " должна быть меньше следующей " + points[index + 1].getX());
+                    "X координата " + x + " должна быть меньше следующей " + xs.get(index + 1));
         }
 
-        points[index].setX(x);
+        xs.set(index, x);
+        updateSlopes(index);
     }
 
     public double getPointY(int index) {
         if (index < 0 || index >= pointsCount) {
             throw new FunctionPointIndexOutOfBoundsException("Индекс " + index + " вне диапазона [0, " + (pointsCount - 1) + "]");
         }
-        return points[index].getY();
+        return ys.get(index);
     }
 
     public void setPointY(int index, double y) {
         if (index < 0 || index >= pointsCount) {
             throw new FunctionPointIndexOutOfBoundsException("Индекс " + index + " вне диапазона [0, " + (pointsCount - 1) + "]");
         }
-        points[index].setY(y);
+        ys.set(index, y);
+        updateSlopes(index);
     }
 
     public void deletePoint(int index) {
@@ -178,61 +289,231 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
             throw new FunctionPointIndexOutOfBoundsException("Индекс " + index + " вне диапазона [0, " + (pointsCount - 1) + "]");
         }
 
-        System.arraycopy(points, index + 1, points, index, pointsCount - index - 1);
+        xs.move(index + 1, index, pointsCount - index - 1);
+        ys.move(index + 1, index, pointsCount - index - 1);
+        if (slopes != null) {
+            slopes.move(index + 1, index, pointsCount - index - 1);
+        }
         pointsCount--;
-        points[pointsCount] = null;
+        updateSlopes(index);
     }
 
     public void addPoint(FunctionPoint point) {
-        int insertIndex = 0;
-        while (insertIndex < pointsCount && MathUtil.less(points[insertIndex].getX(), point.getX())) {
-            insertIndex++;
+        double x = point.getX();
+        int lo = 0;
+        int hi = pointsCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (MathUtil.less(xs.get(mid), x)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
         }
+        int insertIndex = lo;
 
-        if (insertIndex < pointsCount && MathUtil.equals(points[insertIndex].getX(), point.getX())) {
-            throw new InappropriateFunctionPointException("Точка с X=" + point.getX() + " уже существует");
+        if (insertIndex < pointsCount && MathUtil.equals(xs.get(insertIndex), x)) {
+            throw new InappropriateFunctionPointException("Точка с X=" + x + " уже существует");
         }
 
-        if (pointsCount == points.length) {
-            int newCapacity = points.length * 3 / 2 + 1;
-            FunctionPoint[] newPoints = new FunctionPoint[newCapacity];
-            System.arraycopy(points, 0, newPoints, 0, pointsCount);
-            points = newPoints;
+        xs.ensureCapacity(pointsCount + 1);
+        ys.ensureCapacity(pointsCount + 1);
+        xs.move(insertIndex, insertIndex + 1, pointsCount - insertIndex);
+        ys.move(insertIndex, insertIndex + 1, pointsCount - insertIndex);
+        if (slopes != null) {
+            slopes.ensureCapacity(pointsCount + 1);
+            slopes.move(insertIndex, insertIndex + 1, pointsCount - insertIndex);
         }
 
-        if (insertIndex < pointsCount) {
-            System.arraycopy(points, insertIndex, points, insertIndex + 1, pointsCount - insertIndex);
+        xs.set(insertIndex, x);
+        ys.set(insertIndex, point.getY());
+        pointsCount++;
+        updateSlopes(insertIndex);
+    }
+
+    @Override
+    public void forEachPoint(PointConsumer action) {
+        for (int i = 0; i < pointsCount; i++) {
+            action.accept(xs.get(i), ys.get(i));
         }
+    }
 
-        points[insertIndex] = new FunctionPoint(point);
-        pointsCount++;
+    @Override
+    public double[] copyXs(double[] dest) {
+        double[] result = dest != null && dest.length >= pointsCount ? dest : new double[pointsCount];
+        xs.copyTo(0, result, 0, pointsCount);
+        return result;
     }
 
-    public ArrayTabulatedFunction() {
+    @Override
+    public double[] copyYs(double[] dest) {
+        double[] result = dest != null && dest.length >= pointsCount ? dest : new double[pointsCount];
+        ys.copyTo(0, result, 0, pointsCount);
+        return result;
     }
 
+    // Набор сортируется и сливается с имеющимися точками в новые массивы за один проход,
+    // поэтому при совпадении абсцисс функция остаётся прежней.
     @Override
-    public void writeExternal(ObjectOutput out) throws IOException {
-        out.writeInt(pointsCount);
+    public void addPoints(FunctionPoint[] points) {
+        FunctionPoint[] sorted = TabulatedFunctions.sortPoints(points);
+        int count = pointsCount + sorted.length;
+        ChunkedDoubleArray newXs = new ChunkedDoubleArray(count + 5);
+        ChunkedDoubleArray newYs = new ChunkedDoubleArray(count + 5);
+
+        int i = 0;
+        int j = 0;
+        double previous = Double.NaN;
+        for (int k = 0; k < count; k++) {
+            double x;
+            if (j == sorted.length || (i < pointsCount && xs.get(i) < sorted[j].getX())) {
+                x = xs.get(i);
+                newYs.set(k, ys.get(i));
+                i++;
+            } else {
+                x = sorted[j].getX();
+                newYs.set(k, sorted[j].getY());
+                j++;
+            }
+            if (k > 0 && !MathUtil.less(previous, x)) {
+                throw new InappropriateFunctionPointException("Точка с X=" + x + " уже существует");
+            }
+            newXs.set(k, x);
+            previous = x;
+        }
+
+        xs = newXs;
+        ys = newYs;
+        pointsCount = count;
+        updateAllSlopes();
+    }
+
+    @Override
+    public void deleteRange(int from, int to) {
+        TabulatedFunctions.checkDeleteRange(from, to, pointsCount);
+        xs.move(to, from, pointsCount - to);
+        ys.move(to, from, pointsCount - to);
+        pointsCount -= to - from;
+        updateAllSlopes();
+    }
+
+    @Override
+    public boolean removeIf(PointPredicate predicate) {
+        boolean[] removed = new boolean[pointsCount];
+        int count = 0;
         for (int i = 0; i < pointsCount; i++) {
-            out.writeDouble(points[i].getX());
-            out.writeDouble(points[i].getY());
+            if (predicate.test(xs.get(i), ys.get(i))) {
+                removed[i] = true;
+                count++;
+            }
+        }
+        TabulatedFunctions.checkRemaining(pointsCount, count);
+        if (count == 0) {
+            return false;
+        }
+        removeMarked(removed);
+        return true;
+    }
+
+    // Удаляет отмеченные точки одним проходом; проверка оставшегося количества — на вызывающем.
+    // Точки до первой удалённой не переписываются, поэтому их куски остаются разделёнными со снимком.
+    void removeMarked(boolean[] removed) {
+        int k = 0;
+        for (int i = 0; i < pointsCount; i++) {
+            if (!removed[i]) {
+                if (k != i) {
+                    xs.set(k, xs.get(i));
+                    ys.set(k, ys.get(i));
+                }
+                k++;
+            }
+        }
+        pointsCount = k;
+        updateAllSlopes();
+    }
+
+    public ArrayTabulatedFunction() {
+    }
+
+    @Override
+    public Interpolation getInterpolation() {
+        return interpolation;
+    }
+
+    @Override
+    public void setInterpolation(Interpolation interpolation) {
+        this.interpolation = interpolation;
+        updateAllSlopes();
+    }
+
+    // Наклоны пересчитываются сразу при изменении точек, а не при чтении: чтение не должно
+    // ничего записывать, иначе его нельзя выполнять параллельно (см. ConcurrentArrayTabulatedFunction).
+    private void updateSlopes(int index) {
+        if (slopes != null) {
+            CubicSplines.updateAfterChange(interpolation, xs, ys, pointsCount, slopes, index, splineScratch());
         }
     }
 
+    // Массив наклонов пересоздаётся, только если он мал для новой ёмкости.
+    private void updateAllSlopes() {
+        if (interpolation == Interpolation.LINEAR) {
+            slopes = null;
+            splineScratch = null;
+            return;
+        }
+        if (slopes == null || slopes.capacity() < xs.capacity()) {
+            slopes = new ChunkedDoubleArray(xs.capacity());
+        }
+        CubicSplines.update(interpolation, xs, ys, pointsCount, slopes, splineScratch());
+    }
+
+    private double[] splineScratch() {
+        if (interpolation != Interpolation.NATURAL_CUBIC) {
+            return null;
+        }
+        if (splineScratch == null || splineScratch.length < pointsCount) {
+            splineScratch = new double[xs.capacity()];
+        }
+        return splineScratch;
+    }
+
+    /**
+     * Снимок за O(1): массивы хранятся кусками по 1024 точки, и куски отдаются снимку без копирования.
+     * Изменение функции после снимка копирует только те куски, в которые пишет, и один раз — массив
+     * ссылок на куски, поэтому изменение одной точки стоит O(n / 1024), а не O(n).
+     */
+    @Override
+    public TabulatedFunction snapshot() {
+        return new TabulatedFunctionSnapshot(xs.share(), ys.share(), slopes == null ? null : slopes.share(),
+                pointsCount, interpolation);
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        CompactExternalForm.write(out, copyXs(null), copyYs(null), pointsCount, interpolation);
+    }
+
     @Override
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
         int n = in.readInt();
+        if (n < 0) {
+            CompactExternalForm form = CompactExternalForm.read(in, n, 5);
+            this.pointsCount = form.pointsCount;
+            this.xs = ChunkedDoubleArray.of(form.xs);
+            this.ys = ChunkedDoubleArray.of(form.ys);
+            this.interpolation = form.interpolation;
+            updateAllSlopes();
+            return;
+        }
         this.pointsCount = n;
-        this.points = new FunctionPoint[n + 5];
+        this.interpolation = Interpolation.LINEAR;
+        this.xs = new ChunkedDoubleArray(n + 5);
+        this.ys = new ChunkedDoubleArray(n + 5);
         for (int i = 0; i < n; i++) {
-            double x = in.readDouble();
-            double y = in.readDouble();
-            this.points[i] = new FunctionPoint(x, y);
-        }
-        if (this.pointsCount < this.points.length) {
-            Arrays.fill(this.points, this.pointsCount, this.points.length, null);
+            xs.set(i, in.readDouble());
+            ys.set(i, in.readDouble());
         }
+        updateAllSlopes();
     }
 
     @Override
@@ -241,7 +522,7 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
         sb.append("{");
         for (int i = 0; i < pointsCount; i++) {
             if (i > 0) sb.append(", ");
-            sb.append(points[i].toString());
+            sb.append("(").append(xs.get(i)).append("; ").append(ys.get(i)).append(")");
         }
         sb.append("}");
         return sb.toString();
@@ -253,37 +534,43 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
         if (!(o instanceof TabulatedFunction)) return false;
         TabulatedFunction tf = (TabulatedFunction) o;
         if (this.getPointsCount() != tf.getPointsCount()) return false;
+        if (interpolation != tf.getInterpolation()) return false;
 
         if (o instanceof ArrayTabulatedFunction) {
             ArrayTabulatedFunction other = (ArrayTabulatedFunction) o;
             for (int i = 0; i < pointsCount; i++) {
-                if (!MathUtil.equals(this.points[i].getX(), other.points[i].getX())) return false;
-                if (!MathUtil.equals(this.points[i].getY(), other.points[i].getY())) return false;
+                if (!MathUtil.equals(this.xs.get(i), other.xs.get(i))) return false;
+                if (!MathUtil.equals(this.ys.get(i), other.ys.get(i))) return false;
             }
             return true;
         }
 
         for (int i = 0; i < this.getPointsCount(); i++) {
-            if (!this.points[i].equals(tf.getPoint(i))) return false;
+            if (!MathUtil.equals(xs.get(i), tf.getPointX(i))) return false;
+            if (!MathUtil.equals(ys.get(i), tf.getPointY(i))) return false;
         }
         return true;
     }
 
     @Override
     public int hashCode() {
-        int h = pointsCount;
+        int h = pointsCount + 31 * interpolation.ordinal();
         for (int i = 0; i < pointsCount; i++) {
-            h ^= points[i].hashCode();
+            long lx = Double.doubleToLongBits(xs.get(i));
+            long ly = Double.doubleToLongBits(ys.get(i));
+            h ^= (int) (lx ^ (lx >>> 32)) ^ (int) (ly ^ (ly >>> 32));
         }
         return h;
     }
 
     @Override
     public Object clone() {
-        FunctionPoint[] pts = new FunctionPoint[pointsCount];
-        for (int i = 0; i < pointsCount; i++) {
-            pts[i] = (FunctionPoint) points[i].clone();
-        }
-        return new ArrayTabulatedFunction(pts);
+        ArrayTabulatedFunction copy = new ArrayTabulatedFunction();
+        copy.pointsCount = pointsCount;
+        copy.xs = xs.copy(pointsCount, pointsCount + 5);
+        copy.ys = ys.copy(pointsCount, pointsCount + 5);
+        copy.interpolation = interpolation;
+        copy.updateAllSlopes();
+        return copy;
     }
 }
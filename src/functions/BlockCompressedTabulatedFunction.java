@@ -0,0 +1,543 @@
+package functions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Табулированная функция только для чтения из файла, сжатого блоками.
+ * <p>
+ * Формат файла (little-endian): заголовок из {@value #HEADER_SIZE} байт — сигнатура {@code TABZ},
+ * версия, число точек в блоке и зарезервированный ноль; затем блоки; затем оглавление и хвост из
+ * {@value #TRAILER_SIZE} байт — смещение оглавления, количество блоков, количество точек, CRC32
+ * оглавления и снова сигнатура. Блок — сжатые {@link Deflater} абсциссы и ординаты его точек,
+ * байты которых перед сжатием сгруппированы по номеру байта в числе: у соседних значений старшие
+ * байты обычно совпадают и хорошо сжимаются. Запись оглавления о блоке хранит его смещение, длину,
+ * количество точек, CRC32 несжатых данных, крайние абсциссы и ординаты.
+ * <p>
+ * При открытии читается только оглавление. Значение функции вычисляется распаковкой одного блока,
+ * а на отрезке между блоками — вовсе без распаковки. Последние {@value #CACHED_BLOCKS} распакованных
+ * блоков запоминаются; распаковщик и буфер для распаковки у каждого потока свои и переиспользуются.
+ */
+public class BlockCompressedTabulatedFunction implements TabulatedFunction, Closeable {
+    public static final int MAGIC = 0x5A424154;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int TRAILER_SIZE = 24;
+    public static final int DEFAULT_BLOCK_POINTS = 4096;
+
+    private static final int INDEX_ENTRY_SIZE = 52;
+    // Распакованный блок (16 байт на точку) и оглавление должны помещаться в массив.
+    private static final int MAX_BLOCK_POINTS = Integer.MAX_VALUE / 16;
+    private static final int MAX_BLOCK_COUNT = Integer.MAX_VALUE / INDEX_ENTRY_SIZE;
+    private static final int CACHED_BLOCKS = 8;
+
+    private static final ThreadLocal<Decoder> DECODER = ThreadLocal.withInitial(Decoder::new);
+
+    private static final class Decoder {
+        final Inflater inflater = new Inflater();
+        final CRC32 crc = new CRC32();
+        byte[] raw = new byte[0];
+    }
+
+    private static final class Block {
+        final int index;
+        final double[] xs;
+        final double[] ys;
+
+        Block(int index, double[] xs, double[] ys) {
+            this.index = index;
+            this.xs = xs;
+            this.ys = ys;
+        }
+    }
+
+    private final FileChannel channel;
+    private final int pointsCount;
+    private final int blockPoints;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final int[] counts;
+    private final int[] crcs;
+    private final double[] minXs;
+    private final double[] maxXs;
+    private final double[] firstYs;
+    private final double[] lastYs;
+    // Распакованные блоки от недавно использованного к давнему; доступ под блокировкой на самом массиве.
+    private final Block[] cachedBlocks = new Block[CACHED_BLOCKS];
+    // Последний использованный блок читается без блокировки.
+    private volatile Block lastBlock;
+
+    private BlockCompressedTabulatedFunction(FileChannel channel, int pointsCount, int blockPoints, int blockCount) {
+        this.channel = channel;
+        this.pointsCount = pointsCount;
+        this.blockPoints = blockPoints;
+        this.offsets = new long[blockCount];
+        this.lengths = new int[blockCount];
+        this.counts = new int[blockCount];
+        this.crcs = new int[blockCount];
+        this.minXs = new double[blockCount];
+        this.maxXs = new double[blockCount];
+        this.firstYs = new double[blockCount];
+        this.lastYs = new double[blockCount];
+    }
+
+    public static void write(TabulatedFunction function, Path path) throws IOException {
+        write(function, path, DEFAULT_BLOCK_POINTS);
+    }
+
+    public static void write(TabulatedFunction function, Path path, int blockPoints) throws IOException {
+        if (blockPoints < 1 || blockPoints > MAX_BLOCK_POINTS) {
+            throw new IllegalArgumentException(
+                    "Размер блока должен быть от 1 до " + MAX_BLOCK_POINTS + ": " + blockPoints);
+        }
+        int n = function.getPointsCount();
+        int blockCount = blockCount(n, blockPoints);
+        if (blockCount > MAX_BLOCK_COUNT) {
+            throw new IllegalArgumentException("Слишком много блоков: " + blockCount + ", увеличьте размер блока");
+        }
+        // Буферы не больше самой таблицы: размер блока может намного превышать число точек.
+        int bufferPoints = Math.min(blockPoints, n);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(blockPoints).putInt(0).flip();
+            writeFully(channel, header);
+
+            ByteBuffer index = ByteBuffer.allocate(blockCount * INDEX_ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            double[] xs = new double[bufferPoints];
+            double[] ys = new double[bufferPoints];
+            byte[] raw = new byte[16 * bufferPoints];
+            byte[] compressed = new byte[16 * bufferPoints + 64];
+            Deflater deflater = new Deflater();
+            CRC32 crc = new CRC32();
+            long offset = HEADER_SIZE;
+            try {
+                for (int b = 0; b < blockCount; b++) {
+                    int from = b * blockPoints;
+                    int count = Math.min(blockPoints, n - from);
+                    function.exportPoints(from, from + count, xs, ys);
+                    shuffle(xs, count, raw, 0);
+                    shuffle(ys, count, raw, 8 * count);
+                    crc.reset();
+                    crc.update(raw, 0, 16 * count);
+
+                    deflater.reset();
+                    deflater.setInput(raw, 0, 16 * count);
+                    deflater.finish();
+                    int length = 0;
+                    while (!deflater.finished()) {
+                        if (length == compressed.length) {
+                            compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                        }
+                        length += deflater.deflate(compressed, length, compressed.length - length);
+                    }
+                    writeFully(channel, ByteBuffer.wrap(compressed, 0, length));
+
+                    index.putLong(offset).putInt(length).putInt(count).putInt((int) crc.getValue())
+                            .putDouble(xs[0]).putDouble(xs[count - 1]).putDouble(ys[0]).putDouble(ys[count - 1]);
+                    offset += length;
+                }
+            } finally {
+                deflater.end();
+            }
+
+            index.flip();
+            crc.reset();
+            crc.update(index.duplicate());
+            writeFully(channel, index);
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            trailer.putLong(offset).putInt(blockCount).putInt(n).putInt((int) crc.getValue()).putInt(MAGIC).flip();
+            writeFully(channel, trailer);
+        }
+    }
+
+    public static BlockCompressedTabulatedFunction open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException("Неверный формат: файл короче заголовка");
+            }
+            ByteBuffer header = readAt(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Неверный формат: нет сигнатуры TABZ");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия формата: " + version);
+            }
+            int blockPoints = header.getInt();
+
+            ByteBuffer trailer = readAt(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+            long indexOffset = trailer.getLong();
+            int blockCount = trailer.getInt();
+            int n = trailer.getInt();
+            int indexCrc = trailer.getInt();
+            if (trailer.getInt() != MAGIC) {
+                throw new IOException("Неверный формат: файл обрезан или повреждён");
+            }
+            if (n < 2 || blockPoints < 1 || blockPoints > MAX_BLOCK_POINTS || blockCount > MAX_BLOCK_COUNT
+                    || blockCount != blockCount(n, blockPoints)
+                    || indexOffset + (long) blockCount * INDEX_ENTRY_SIZE + TRAILER_SIZE != size) {
+                throw new IOException("Неверный формат: несогласованное оглавление");
+            }
+
+            ByteBuffer index = readAt(channel, indexOffset, blockCount * INDEX_ENTRY_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(index.duplicate());
+            if ((int) crc.getValue() != indexCrc) {
+                throw new IOException("Неверная контрольная сумма оглавления");
+            }
+
+            BlockCompressedTabulatedFunction function = new BlockCompressedTabulatedFunction(channel, n, blockPoints, blockCount);
+            for (int b = 0; b < blockCount; b++) {
+                function.offsets[b] = index.getLong();
+                function.lengths[b] = index.getInt();
+                function.counts[b] = index.getInt();
+                function.crcs[b] = index.getInt();
+                function.minXs[b] = index.getDouble();
+                function.maxXs[b] = index.getDouble();
+                function.firstYs[b] = index.getDouble();
+                function.lastYs[b] = index.getDouble();
+                if (function.counts[b] != Math.min(blockPoints, n - b * blockPoints)) {
+                    throw new IOException("Неверный формат: несогласованное оглавление");
+                }
+            }
+            return function;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Без переполнения при blockPoints, близком к Integer.MAX_VALUE.
+    private static int blockCount(int n, int blockPoints) {
+        return n / blockPoints + (n % blockPoints == 0 ? 0 : 1);
+    }
+
+    // Байт k каждого из count чисел попадает в k-ю группу из count байт.
+    private static void shuffle(double[] values, int count, byte[] out, int offset) {
+        for (int i = 0; i < count; i++) {
+            long bits = Double.doubleToRawLongBits(values[i]);
+            for (int k = 0; k < 8; k++) {
+                out[offset + k * count + i] = (byte) (bits >>> (8 * k));
+            }
+        }
+    }
+
+    private static void unshuffle(byte[] in, int offset, int count, double[] values) {
+        for (int i = 0; i < count; i++) {
+            long bits = 0;
+            for (int k = 0; k < 8; k++) {
+                bits |= (in[offset + k * count + i] & 0xFFL) << (8 * k);
+            }
+            values[i] = Double.longBitsToDouble(bits);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Неверный формат: неожиданный конец файла");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private Block block(int b) {
+        Block block = lastBlock;
+        if (block != null && block.index == b) {
+            return block;
+        }
+        synchronized (cachedBlocks) {
+            for (int i = 0; i < CACHED_BLOCKS && cachedBlocks[i] != null; i++) {
+                if (cachedBlocks[i].index == b) {
+                    block = cachedBlocks[i];
+                    System.arraycopy(cachedBlocks, 0, cachedBlocks, 1, i);
+                    cachedBlocks[0] = block;
+                    lastBlock = block;
+                    return block;
+                }
+            }
+        }
+        // Распаковка идёт без блокировки; два потока могут распаковать один блок, в кэш попадёт одна копия.
+        block = decode(b);
+        synchronized (cachedBlocks) {
+            int i = 0;
+            while (i < CACHED_BLOCKS - 1 && cachedBlocks[i] != null && cachedBlocks[i].index != b) {
+                i++;
+            }
+            System.arraycopy(cachedBlocks, 0, cachedBlocks, 1, i);
+            cachedBlocks[0] = block;
+            lastBlock = block;
+        }
+        return block;
+    }
+
+    private Block decode(int b) {
+        try {
+            byte[] compressed = readAt(channel, offsets[b], lengths[b]).array();
+            int count = counts[b];
+            Decoder decoder = DECODER.get();
+            if (decoder.raw.length < 16 * count) {
+                decoder.raw = new byte[16 * count];
+            }
+            byte[] raw = decoder.raw;
+            Inflater inflater = decoder.inflater;
+            inflater.reset();
+            try {
+                inflater.setInput(compressed);
+                if (inflater.inflate(raw, 0, 16 * count) != 16 * count || !inflater.finished()) {
+                    throw new IOException("Повреждён блок " + b + ": неверная длина данных");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Повреждён блок " + b, e);
+            }
+            CRC32 crc = decoder.crc;
+            crc.reset();
+            crc.update(raw, 0, 16 * count);
+            if ((int) crc.getValue() != crcs[b]) {
+                throw new IOException("Неверная контрольная сумма блока " + b);
+            }
+
+            double[] xs = new double[count];
+            double[] ys = new double[count];
+            unshuffle(raw, 0, count, xs);
+            unshuffle(raw, 8 * count, count, ys);
+            return new Block(b, xs, ys);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Крайние точки блоков берутся из оглавления, остальные — из распакованного блока.
+    private double pointX(int index) {
+        int b = index / blockPoints;
+        int i = index - b * blockPoints;
+        if (i == 0) return minXs[b];
+        if (i == counts[b] - 1) return maxXs[b];
+        return block(b).xs[i];
+    }
+
+    private double pointY(int index) {
+        int b = index / blockPoints;
+        int i = index - b * blockPoints;
+        if (i == 0) return firstYs[b];
+        if (i == counts[b] - 1) return lastYs[b];
+        return block(b).ys[i];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(index, pointsCount);
+        }
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Функция из сжатого файла доступна только для чтения");
+    }
+
+    public int getBlockCount() {
+        return counts.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (cachedBlocks) {
+            Arrays.fill(cachedBlocks, null);
+            lastBlock = null;
+        }
+        channel.close();
+    }
+
+    public double getLeftDomainBorder() {
+        return minXs[0];
+    }
+
+    public double getRightDomainBorder() {
+        return maxXs[counts.length - 1];
+    }
+
+    public double getFunctionValue(double x) {
+        if (MathUtil.less(x, getLeftDomainBorder()) || MathUtil.greater(x, getRightDomainBorder())) {
+            return Double.NaN;
+        }
+
+        int lo = 0;
+        int hi = counts.length;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (minXs[mid] <= x) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        int segment;
+        if (x >= maxXs[lo] || counts[lo] == 1) {
+            segment = lo * blockPoints + counts[lo] - 1;
+        } else {
+            Block block = block(lo);
+            segment = lo * blockPoints + ArrayTabulatedFunction.locateSegment(block.xs, counts[lo], x, 0);
+        }
+        segment = Math.min(segment, pointsCount - 2);
+
+        double x1 = pointX(segment);
+        double x2 = pointX(segment + 1);
+        if (MathUtil.equals(x, x1)) {
+            return pointY(segment);
+        }
+        if (MathUtil.equals(x, x2)) {
+            return pointY(segment + 1);
+        }
+        double y1 = pointY(segment);
+        double y2 = pointY(segment + 1);
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(pointX(index), pointY(index));
+    }
+
+    public void setPoint(int index, FunctionPoint point) {
+        throw readOnly();
+    }
+
+    public double getPointX(int index) {
+        checkIndex(index);
+        return pointX(index);
+    }
+
+    public void setPointX(int index, double x) {
+        throw readOnly();
+    }
+
+    public double getPointY(int index) {
+        checkIndex(index);
+        return pointY(index);
+    }
+
+    public void setPointY(int index, double y) {
+        throw readOnly();
+    }
+
+    public void deletePoint(int index) {
+        throw readOnly();
+    }
+
+    public void addPoint(FunctionPoint point) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addPoints(FunctionPoint[] points) {
+        throw readOnly();
+    }
+
+    @Override
+    public void deleteRange(int from, int to) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeIf(PointPredicate predicate) {
+        throw readOnly();
+    }
+
+    @Override
+    public void forEachPoint(PointConsumer action) {
+        for (int b = 0; b < counts.length; b++) {
+            Block block = block(b);
+            for (int i = 0; i < counts[b]; i++) {
+                action.accept(block.xs[i], block.ys[i]);
+            }
+        }
+    }
+
+    @Override
+    public void exportPoints(int from, int to, double[] xs, double[] ys) {
+        TabulatedFunctions.checkRange(from, to, pointsCount);
+        for (int index = from; index < to; ) {
+            int b = index / blockPoints;
+            int i = index - b * blockPoints;
+            int length = Math.min(counts[b] - i, to - index);
+            Block block = block(b);
+            System.arraycopy(block.xs, i, xs, index - from, length);
+            System.arraycopy(block.ys, i, ys, index - from, length);
+            index += length;
+        }
+    }
+
+    @Override
+    public TabulatedFunction snapshot() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        forEachPoint((x, y) -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append("(").append(x).append("; ").append(y).append(")");
+        });
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+        TabulatedFunction tf = (TabulatedFunction) o;
+        if (pointsCount != tf.getPointsCount()) return false;
+        if (tf.getInterpolation() != Interpolation.LINEAR) return false;
+
+        for (int i = 0; i < pointsCount; i++) {
+            if (!MathUtil.equals(pointX(i), tf.getPointX(i))) return false;
+            if (!MathUtil.equals(pointY(i), tf.getPointY(i))) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int[] h = {pointsCount};
+        forEachPoint((x, y) -> {
+            long lx = Double.doubleToLongBits(x);
+            long ly = Double.doubleToLongBits(y);
+            h[0] ^= (int) (lx ^ (lx >>> 32)) ^ (int) (ly ^ (ly >>> 32));
+        });
+        return h[0];
+    }
+
+    // Данные неизменяемы, поэтому копией служит сам объект; он разделяет с оригиналом открытый файл.
+    @Override
+    public Object clone() {
+        return this;
+    }
+}
@@ -0,0 +1,210 @@
+package functions;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Функция-обёртка, запоминающая вычисленные значения. Ключ — {@code Double.doubleToLongBits(x)},
+ * значения хранятся в примитивных массивах без упаковки.
+ * <p>
+ * Кэш множественно-ассоциативный: ключ попадает в одно множество из {@value #WAYS} ячеек, вытеснение
+ * идёт внутри множества по выбранной политике. Множества разбиты на полосы со своим {@link StampedLock};
+ * чтение выполняется без блокировки (оптимистичная метка), блокируется только запись нового значения.
+ * Попадание только выставляет бит обращения своей ячейки, и лишь если он ещё сброшен, поэтому частые
+ * попадания в одни и те же значения ничего не пишут в общую память.
+ * Обёртку можно использовать из любого числа потоков, если исходная функция это допускает.
+ */
+public class CachedFunction implements Function {
+    public enum Policy {
+        /**
+         * Вытесняется ячейка, к которой дольше всего не обращались. Время обращения обновляется не при
+         * каждом попадании, а при вытеснении по биту обращения, поэтому порядок приближённый.
+         */
+        LRU,
+        /** Алгоритм «часы»: вытесняется первая ячейка без бита обращения, начиная со стрелки множества. */
+        CLOCK
+    }
+
+    private static final int WAYS = 8;
+    private static final int MAX_STRIPES = 64;
+
+    private final Function function;
+    private final Policy policy;
+    private final int ways;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int stripeBits;
+    private final int setMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachedFunction(Function function, int capacity, Policy policy) {
+        if (function == null || policy == null) {
+            throw new IllegalArgumentException("Функция и политика вытеснения не могут быть null");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Ёмкость кэша должна быть положительной: " + capacity);
+        }
+        this.function = function;
+        this.policy = policy;
+        this.ways = Math.min(WAYS, capacity);
+
+        int sets = Integer.highestOneBit((capacity + ways - 1) / ways);
+        if (sets * ways < capacity) {
+            sets <<= 1;
+        }
+        int stripeCount = Math.min(sets, MAX_STRIPES);
+        this.stripeMask = stripeCount - 1;
+        this.stripeBits = Integer.numberOfTrailingZeros(stripeCount);
+        this.setMask = sets / stripeCount - 1;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(sets / stripeCount, ways, policy);
+        }
+    }
+
+    private static final class Stripe {
+        final StampedLock lock = new StampedLock();
+        final long[] keys;
+        final double[] values;
+        final boolean[] used;
+        // Бит обращения: выставляется попаданием, сбрасывается при поиске вытесняемой ячейки.
+        final boolean[] referenced;
+        // LRU: момент последнего известного обращения, меняется только под блокировкой записи; CLOCK: стрелки множеств.
+        final long[] marks;
+        final int[] hands;
+        long tick;
+
+        Stripe(int sets, int ways, Policy policy) {
+            keys = new long[sets * ways];
+            values = new double[sets * ways];
+            used = new boolean[sets * ways];
+            referenced = new boolean[sets * ways];
+            marks = policy == Policy.LRU ? new long[sets * ways] : null;
+            hands = policy == Policy.CLOCK ? new int[sets] : null;
+        }
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getLeftDomainBorder() {
+        return function.getLeftDomainBorder();
+    }
+
+    @Override
+    public double getRightDomainBorder() {
+        return function.getRightDomainBorder();
+    }
+
+    @Override
+    public double getFunctionValue(double x) {
+        long key = Double.doubleToLongBits(x);
+        int hash = mix(key);
+        Stripe stripe = stripes[hash & stripeMask];
+        int set = (hash >>> stripeBits) & setMask;
+        int first = set * ways;
+
+        long stamp = stripe.lock.tryOptimisticRead();
+        int slot = find(stripe, first, key);
+        double value = slot >= 0 ? stripe.values[slot] : 0.0;
+        if (!stripe.lock.validate(stamp)) {
+            stamp = stripe.lock.readLock();
+            try {
+                slot = find(stripe, first, key);
+                value = slot >= 0 ? stripe.values[slot] : 0.0;
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        if (slot >= 0) {
+            hits.increment();
+            // Бит пишется без блокировки: гонка влияет только на выбор вытесняемой ячейки.
+            if (!stripe.referenced[slot]) {
+                stripe.referenced[slot] = true;
+            }
+            return value;
+        }
+
+        misses.increment();
+        value = function.getFunctionValue(x);
+        stamp = stripe.lock.writeLock();
+        try {
+            if (find(stripe, first, key) < 0) {
+                slot = victim(stripe, set, first);
+                stripe.keys[slot] = key;
+                stripe.values[slot] = value;
+                stripe.used[slot] = true;
+                stripe.referenced[slot] = false;
+                if (policy == Policy.LRU) {
+                    stripe.marks[slot] = ++stripe.tick;
+                }
+            }
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+        return value;
+    }
+
+    private int find(Stripe stripe, int first, long key) {
+        for (int slot = first; slot < first + ways; slot++) {
+            if (stripe.used[slot] && stripe.keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int victim(Stripe stripe, int set, int first) {
+        for (int slot = first; slot < first + ways; slot++) {
+            if (!stripe.used[slot]) {
+                return slot;
+            }
+        }
+        if (policy == Policy.LRU) {
+            // Ячейки, к которым обращались после прошлого вытеснения, получают свежие отметки.
+            int oldest = -1;
+            for (int slot = first; slot < first + ways; slot++) {
+                if (stripe.referenced[slot]) {
+                    stripe.referenced[slot] = false;
+                    stripe.marks[slot] = ++stripe.tick;
+                }
+                if (oldest < 0 || stripe.marks[slot] < stripe.marks[oldest]) {
+                    oldest = slot;
+                }
+            }
+            return oldest;
+        }
+        // Читатели могут снова выставлять биты без блокировки, поэтому обход ограничен двумя кругами.
+        int hand = stripe.hands[set];
+        for (int step = 0; step < 2 * ways && stripe.referenced[first + hand]; step++) {
+            stripe.referenced[first + hand] = false;
+            hand = (hand + 1) % ways;
+        }
+        stripe.hands[set] = (hand + 1) % ways;
+        return first + hand;
+    }
+
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
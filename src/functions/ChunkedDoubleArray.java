@@ -0,0 +1,170 @@
+package functions;
+
+import java.util.Arrays;
+
+// Массив double из кусков по CHUNK_SIZE элементов (последний может быть короче) с копированием при записи
+// по кускам: снимок разделяет куски с массивом, а запись копирует только тот кусок, в который пишет.
+final class ChunkedDoubleArray {
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private double[][] chunks;
+    // shared[c] — кусок c разделён со снимком или копией и копируется перед первой записью в него
+    private boolean[] shared;
+    // разделён и сам массив кусков: перед заменой куска он копируется, а все куски считаются разделёнными
+    private boolean chunksShared;
+
+    private ChunkedDoubleArray(double[][] chunks, boolean[] shared, boolean chunksShared) {
+        this.chunks = chunks;
+        this.shared = shared;
+        this.chunksShared = chunksShared;
+    }
+
+    ChunkedDoubleArray(int capacity) {
+        this.chunks = new double[chunkCount(capacity)][];
+        this.shared = new boolean[chunks.length];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = new double[chunkLength(capacity, c)];
+        }
+    }
+
+    // Массив той же ёмкости, что values; если values помещается в один кусок, он берётся без копирования.
+    static ChunkedDoubleArray of(double[] values) {
+        if (values.length <= CHUNK_SIZE) {
+            return new ChunkedDoubleArray(new double[][] {values}, new boolean[1], false);
+        }
+        ChunkedDoubleArray array = new ChunkedDoubleArray(values.length);
+        for (int c = 0; c < array.chunks.length; c++) {
+            System.arraycopy(values, c << CHUNK_SHIFT, array.chunks[c], 0, array.chunks[c].length);
+        }
+        return array;
+    }
+
+    private static int chunkCount(int capacity) {
+        return (capacity + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+    }
+
+    private static int chunkLength(int capacity, int chunk) {
+        return Math.min(CHUNK_SIZE, capacity - (chunk << CHUNK_SHIFT));
+    }
+
+    int capacity() {
+        int count = chunks.length;
+        return count == 0 ? 0 : ((count - 1) << CHUNK_SHIFT) + chunks[count - 1].length;
+    }
+
+    double get(int index) {
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    void set(int index, double value) {
+        writable(index >>> CHUNK_SHIFT)[index & CHUNK_MASK] = value;
+    }
+
+    private double[] writable(int chunk) {
+        if (chunksShared) {
+            chunks = chunks.clone();
+            shared = new boolean[chunks.length];
+            Arrays.fill(shared, true);
+            chunksShared = false;
+        }
+        if (shared[chunk]) {
+            chunks[chunk] = chunks[chunk].clone();
+            shared[chunk] = false;
+        }
+        return chunks[chunk];
+    }
+
+    // Копия за O(1), разделяющая с этим массивом все куски. Ни одна из сторон не пишет в разделённый
+    // кусок: перед первой записью сторона копирует себе только его, а не весь массив.
+    ChunkedDoubleArray share() {
+        chunksShared = true;
+        return new ChunkedDoubleArray(chunks, null, true);
+    }
+
+    // Независимая копия первых count элементов с ёмкостью capacity.
+    ChunkedDoubleArray copy(int count, int capacity) {
+        ChunkedDoubleArray copy = new ChunkedDoubleArray(capacity);
+        for (int c = 0; c << CHUNK_SHIFT < count; c++) {
+            System.arraycopy(chunks[c], 0, copy.chunks[c], 0, Math.min(CHUNK_SIZE, count - (c << CHUNK_SHIFT)));
+        }
+        return copy;
+    }
+
+    // Ёмкость становится не меньше capacity: неполный последний кусок и число кусков растут в полтора раза.
+    void ensureCapacity(int capacity) {
+        int current = capacity();
+        if (capacity <= current) {
+            return;
+        }
+        int target = Math.max(capacity, current * 3 / 2 + 1);
+        int count = chunkCount(target);
+        double[][] grown = Arrays.copyOf(chunks, count);
+        boolean[] grownShared = new boolean[count];
+        if (chunksShared) {
+            Arrays.fill(grownShared, 0, chunks.length, true);
+        } else {
+            System.arraycopy(shared, 0, grownShared, 0, chunks.length);
+        }
+        int last = chunks.length - 1;
+        if (last >= 0 && chunks[last].length < CHUNK_SIZE) {
+            grown[last] = Arrays.copyOf(chunks[last], chunkLength(target, last));
+            grownShared[last] = false;
+        }
+        for (int c = chunks.length; c < count; c++) {
+            grown[c] = new double[chunkLength(target, c)];
+        }
+        chunks = grown;
+        shared = grownShared;
+        chunksShared = false;
+    }
+
+    // Копирует count элементов из from в to; диапазоны могут перекрываться. Копируются только куски,
+    // в которые идёт запись.
+    void move(int from, int to, int count) {
+        if (to < from) {
+            for (int done = 0; done < count; ) {
+                int src = from + done;
+                int dst = to + done;
+                int length = Math.min(count - done,
+                        Math.min(CHUNK_SIZE - (src & CHUNK_MASK), CHUNK_SIZE - (dst & CHUNK_MASK)));
+                double[] target = writable(dst >>> CHUNK_SHIFT);
+                System.arraycopy(chunks[src >>> CHUNK_SHIFT], src & CHUNK_MASK, target, dst & CHUNK_MASK, length);
+                done += length;
+            }
+        } else if (to > from) {
+            for (int left = count; left > 0; ) {
+                int src = from + left - 1;
+                int dst = to + left - 1;
+                int length = Math.min(left, Math.min((src & CHUNK_MASK) + 1, (dst & CHUNK_MASK) + 1));
+                double[] target = writable(dst >>> CHUNK_SHIFT);
+                System.arraycopy(chunks[src >>> CHUNK_SHIFT], (src & CHUNK_MASK) - length + 1,
+                        target, (dst & CHUNK_MASK) - length + 1, length);
+                left -= length;
+            }
+        }
+    }
+
+    // Копирует count элементов, начиная с from, в dest, начиная с offset.
+    void copyTo(int from, double[] dest, int offset, int count) {
+        while (count > 0) {
+            int length = Math.min(count, CHUNK_SIZE - (from & CHUNK_MASK));
+            System.arraycopy(chunks[from >>> CHUNK_SHIFT], from & CHUNK_MASK, dest, offset, length);
+            from += length;
+            offset += length;
+            count -= length;
+        }
+    }
+
+    // Записывает count элементов src, начиная с offset, в этот массив, начиная с index.
+    void copyFrom(double[] src, int offset, int index, int count) {
+        while (count > 0) {
+            int length = Math.min(count, CHUNK_SIZE - (index & CHUNK_MASK));
+            System.arraycopy(src, offset, writable(index >>> CHUNK_SHIFT), index & CHUNK_MASK, length);
+            index += length;
+            offset += length;
+            count -= length;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package functions;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+// Массив double с индексом типа long поверх набора DoubleBuffer одинаковой длины (кроме последнего).
+final class ChunkedDoubleBuffer {
+    static final int CHUNK_SHIFT = 27;
+    static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final DoubleBuffer[] chunks;
+    private final long length;
+
+    ChunkedDoubleBuffer(DoubleBuffer[] chunks, long length) {
+        this.chunks = chunks;
+        this.length = length;
+    }
+
+    // Память вне кучи: сборщик мусора видит только сами объекты буферов.
+    static ChunkedDoubleBuffer allocateDirect(long length) {
+        DoubleBuffer[] chunks = new DoubleBuffer[chunkCount(length)];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = allocateChunk(chunkLength(length, c));
+        }
+        return new ChunkedDoubleBuffer(chunks, length);
+    }
+
+    private static DoubleBuffer allocateChunk(long length) {
+        return ByteBuffer.allocateDirect((int) (8 * length)).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+    }
+
+    // Буфер длины newLength с тем же началом; полные куски не копируются, а разделяются с этим буфером.
+    ChunkedDoubleBuffer grow(long newLength) {
+        DoubleBuffer[] grown = new DoubleBuffer[chunkCount(newLength)];
+        int full = (int) (length >>> CHUNK_SHIFT);
+        System.arraycopy(chunks, 0, grown, 0, full);
+        for (int c = full; c < grown.length; c++) {
+            grown[c] = allocateChunk(chunkLength(newLength, c));
+        }
+        if (full < chunks.length) {
+            grown[full].put(0, chunks[full], 0, chunks[full].capacity());
+        }
+        return new ChunkedDoubleBuffer(grown, newLength);
+    }
+
+    // Независимая копия первых count элементов; куски копируются целиком.
+    ChunkedDoubleBuffer copy(long count) {
+        ChunkedDoubleBuffer copy = allocateDirect(count);
+        for (int c = 0; c < copy.chunks.length; c++) {
+            copy.chunks[c].put(0, chunks[c], 0, copy.chunks[c].capacity());
+        }
+        return copy;
+    }
+
+    static int chunkCount(long length) {
+        return (int) ((length + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+    }
+
+    static long chunkLength(long length, int chunk) {
+        return Math.min(CHUNK_SIZE, length - ((long) chunk << CHUNK_SHIFT));
+    }
+
+    long length() {
+        return length;
+    }
+
+    double get(long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+    }
+
+    void put(long index, double value) {
+        chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), value);
+    }
+
+    // Копирует count элементов из from в to; диапазоны могут перекрываться.
+    void move(long from, long to, long count) {
+        if (to < from) {
+            for (long i = 0; i < count; i++) {
+                put(to + i, get(from + i));
+            }
+        } else {
+            for (long i = count - 1; i >= 0; i--) {
+                put(to + i, get(from + i));
+            }
+        }
+    }
+
+    // Копирует count элементов начиная с from в начало dest со смещением offset.
+    void get(long from, double[] dest, int offset, int count) {
+        while (count > 0) {
+            int chunk = (int) (from >>> CHUNK_SHIFT);
+            int index = (int) (from & CHUNK_MASK);
+            int length = Math.min(count, chunks[chunk].capacity() - index);
+            chunks[chunk].get(index, dest, offset, length);
+            from += length;
+            offset += length;
+            count -= length;
+        }
+    }
+
+    void put(long to, double[] src, int offset, int count) {
+        while (count > 0) {
+            int chunk = (int) (to >>> CHUNK_SHIFT);
+            int index = (int) (to & CHUNK_MASK);
+            int length = Math.min(count, chunks[chunk].capacity() - index);
+            chunks[chunk].put(index, src, offset, length);
+            to += length;
+            offset += length;
+            count -= length;
+        }
+    }
+
+    // Индекс i левого конца отрезка [a_i, a_{i+1}] среди первых count элементов, содержащего x.
+    long locateSegment(double x, long count, long hint) {
+        if (hint < count - 1 && get(hint) <= x) {
+            if (x <= get(hint + 1)) {
+                return hint;
+            }
+            if (hint + 2 < count && x <= get(hint + 2)) {
+                return hint + 1;
+            }
+        }
+
+        long lo = 0;
+        long hi = count - 1;
+        while (hi - lo > 1) {
+            long mid = (lo + hi) >>> 1;
+            if (get(mid) <= x) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
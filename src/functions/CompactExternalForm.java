@@ -0,0 +1,261 @@
+package functions;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Сжатая внешняя форма табулированной функции.
+ * <p>
+ * Старая форма начинается с количества точек, поэтому новая начинается с отрицательного маркера
+ * {@link #MARKER}, в котором закодирована версия. Далее идут количество точек и флаги: бит 0 —
+ * равномерная сетка, биты 1–2 — порядковый номер {@link Interpolation}. Абсциссы
+ * равномерной сетки, которые в точности равны {@code leftX + i * step}, хранятся как {@code leftX}
+ * и {@code step}. Остальные последовательности кодируются как в Gorilla: XOR с предыдущим значением,
+ * ноль — одним битом, иначе значащие биты XOR внутри окна из ведущих и хвостовых нулей, которое
+ * по возможности берётся от предыдущего значения. Биты пишутся и читаются словами по 64 бита.
+ */
+final class CompactExternalForm {
+    static final int VERSION = 1;
+    static final int MARKER = ~VERSION;
+
+    private static final int UNIFORM = 1;
+    private static final int INTERPOLATION_SHIFT = 1;
+    private static final int INTERPOLATION_MASK = 3;
+
+    int pointsCount;
+    boolean uniform;
+    Interpolation interpolation;
+    double leftX;
+    double step;
+    // Абсциссы заполняются и для равномерной сетки; ёмкость массивов — pointsCount + slack.
+    double[] xs;
+    double[] ys;
+
+    private CompactExternalForm() {
+    }
+
+    static void write(ObjectOutput out, double[] xs, double[] ys, int pointsCount) throws IOException {
+        write(out, xs, ys, pointsCount, Interpolation.LINEAR);
+    }
+
+    static void write(ObjectOutput out, double[] xs, double[] ys, int pointsCount, Interpolation interpolation)
+            throws IOException {
+        double leftX = pointsCount > 0 ? xs[0] : 0;
+        double step = gridStep(xs, pointsCount);
+        int flags = interpolation.ordinal() << INTERPOLATION_SHIFT;
+        if (Double.isNaN(step)) {
+            writeHeader(out, pointsCount, flags);
+            writeSeries(out, xs, pointsCount);
+        } else {
+            writeHeader(out, pointsCount, flags | UNIFORM);
+            out.writeDouble(leftX);
+            out.writeDouble(step);
+        }
+        writeSeries(out, ys, pointsCount);
+    }
+
+    static void writeUniform(ObjectOutput out, double leftX, double step, double[] ys, int pointsCount)
+            throws IOException {
+        writeHeader(out, pointsCount, UNIFORM);
+        out.writeDouble(leftX);
+        out.writeDouble(step);
+        writeSeries(out, ys, pointsCount);
+    }
+
+    private static void writeHeader(ObjectOutput out, int pointsCount, int flags) throws IOException {
+        out.writeInt(MARKER);
+        out.writeInt(pointsCount);
+        out.writeByte(flags);
+    }
+
+    /**
+     * Шаг, с которым абсциссы в точности равны {@code xs[0] + i * step}, или NaN, если такого шага нет.
+     */
+    static double gridStep(double[] xs, int pointsCount) {
+        if (pointsCount < 2) {
+            return Double.NaN;
+        }
+        double leftX = xs[0];
+        double step = (xs[pointsCount - 1] - leftX) / (pointsCount - 1);
+        if (isGrid(xs, pointsCount, leftX, step)) {
+            return step;
+        }
+        step = xs[1] - leftX;
+        return isGrid(xs, pointsCount, leftX, step) ? step : Double.NaN;
+    }
+
+    // Сравнение побитовое: при чтении абсциссы восстанавливаются формулой и должны совпасть точно.
+    private static boolean isGrid(double[] xs, int pointsCount, double leftX, double step) {
+        for (int i = 0; i < pointsCount; i++) {
+            if (Double.doubleToRawLongBits(xs[i]) != Double.doubleToRawLongBits(leftX + i * step)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Читает форму, первое число которой (маркер) уже прочитано.
+     */
+    static CompactExternalForm read(ObjectInput in, int marker, int slack) throws IOException {
+        if (marker != MARKER) {
+            throw new InvalidObjectException("Неподдерживаемая версия внешней формы: " + ~marker);
+        }
+        CompactExternalForm form = new CompactExternalForm();
+        int n = in.readInt();
+        if (n < 0) {
+            throw new InvalidObjectException("Отрицательное количество точек: " + n);
+        }
+        int flags = in.readUnsignedByte();
+        int interpolation = flags >>> INTERPOLATION_SHIFT & INTERPOLATION_MASK;
+        if (interpolation >= Interpolation.values().length || flags >>> INTERPOLATION_SHIFT > INTERPOLATION_MASK) {
+            throw new InvalidObjectException("Неизвестные флаги внешней формы: " + flags);
+        }
+        form.pointsCount = n;
+        form.uniform = (flags & UNIFORM) != 0;
+        form.interpolation = Interpolation.values()[interpolation];
+        form.xs = new double[n + slack];
+        form.ys = new double[n + slack];
+        if (form.uniform) {
+            form.leftX = in.readDouble();
+            form.step = in.readDouble();
+            for (int i = 0; i < n; i++) {
+                form.xs[i] = form.leftX + i * form.step;
+            }
+        } else {
+            readSeries(in, form.xs, n);
+        }
+        readSeries(in, form.ys, n);
+        return form;
+    }
+
+    private static void writeSeries(ObjectOutput out, double[] values, int count) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        BitWriter bits = new BitWriter(out);
+        long previous = Double.doubleToRawLongBits(values[0]);
+        bits.write(previous, 64);
+        int leading = -1;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            long current = Double.doubleToRawLongBits(values[i]);
+            long xor = current ^ previous;
+            previous = current;
+            if (xor == 0) {
+                bits.write(0, 1);
+                continue;
+            }
+            int lz = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int tz = Long.numberOfTrailingZeros(xor);
+            if (leading >= 0 && lz >= leading && tz >= trailing) {
+                bits.write(0b10, 2);
+                bits.write(xor >>> trailing, 64 - leading - trailing);
+            } else {
+                leading = lz;
+                trailing = tz;
+                int length = 64 - lz - tz;
+                bits.write(0b11, 2);
+                bits.write(lz, 5);
+                bits.write(length & 63, 6);
+                bits.write(xor >>> tz, length);
+            }
+        }
+        bits.flush();
+    }
+
+    private static void readSeries(ObjectInput in, double[] values, int count) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        BitReader bits = new BitReader(in);
+        long previous = bits.read(64);
+        values[0] = Double.longBitsToDouble(previous);
+        int leading = -1;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            if (bits.read(1) != 0) {
+                if (bits.read(1) != 0) {
+                    leading = (int) bits.read(5);
+                    int length = (int) bits.read(6);
+                    if (length == 0) {
+                        length = 64;
+                    }
+                    trailing = 64 - leading - length;
+                    if (trailing < 0) {
+                        throw new InvalidObjectException("Повреждённая сжатая последовательность");
+                    }
+                } else if (leading < 0) {
+                    throw new InvalidObjectException("Повреждённая сжатая последовательность");
+                }
+                previous ^= bits.read(64 - leading - trailing) << trailing;
+            }
+            values[i] = Double.longBitsToDouble(previous);
+        }
+    }
+
+    private static final class BitWriter {
+        private final ObjectOutput out;
+        private long word;
+        private int used;
+
+        BitWriter(ObjectOutput out) {
+            this.out = out;
+        }
+
+        // Записывает младшие count битов value, старшим вперёд; 1 <= count <= 64.
+        void write(long value, int count) throws IOException {
+            if (count < 64) {
+                value &= (1L << count) - 1;
+            }
+            int free = 64 - used;
+            if (count < free) {
+                word |= value << (free - count);
+                used += count;
+            } else {
+                int rest = count - free;
+                word |= value >>> rest;
+                out.writeLong(word);
+                word = rest == 0 ? 0 : value << (64 - rest);
+                used = rest;
+            }
+        }
+
+        void flush() throws IOException {
+            if (used > 0) {
+                out.writeLong(word);
+                word = 0;
+                used = 0;
+            }
+        }
+    }
+
+    // Читает слова только по мере надобности, поэтому забирает из потока ровно столько слов, сколько записал BitWriter.
+    private static final class BitReader {
+        private final ObjectInput in;
+        private long word;
+        private int available;
+
+        BitReader(ObjectInput in) {
+            this.in = in;
+        }
+
+        long read(int count) throws IOException {
+            if (count <= available) {
+                long result = count == 64 ? word : word >>> (64 - count);
+                word = count == 64 ? 0 : word << count;
+                available -= count;
+                return result;
+            }
+            int rest = count - available;
+            long high = available == 0 ? 0 : word >>> (64 - available);
+            word = in.readLong();
+            long low = word >>> (64 - rest);
+            word = rest == 64 ? 0 : word << rest;
+            available = 64 - rest;
+            return rest == 64 ? low : (high << rest) | low;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package functions;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+// Шаблон скомпилированной функции. Напрямую не используется: FunctionCompiler определяет по байткоду
+// этого класса скрытые классы, у каждого из которых в VALUE лежит свой MethodHandle всего дерева.
+// Поле static final, поэтому JIT считает дескриптор константой и встраивает дерево целиком.
+final class CompiledFunctionTemplate implements Function {
+    private static final MethodHandle VALUE = classData();
+
+    private final Function source;
+
+    CompiledFunctionTemplate(Function source) {
+        this.source = source;
+    }
+
+    private static MethodHandle classData() {
+        try {
+            return MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public double getLeftDomainBorder() {
+        return source.getLeftDomainBorder();
+    }
+
+    @Override
+    public double getRightDomainBorder() {
+        return source.getRightDomainBorder();
+    }
+
+    @Override
+    public double getFunctionValue(double x) {
+        try {
+            return (double) VALUE.invokeExact(x);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        try {
+            for (int i = from; i < to; i++) {
+                out[i] = (double) VALUE.invokeExact(xs[i]);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "compiled " + source;
+    }
+}
@@ -0,0 +1,348 @@
+package functions;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Потокобезопасная табулированная функция на основе {@link ArrayTabulatedFunction}.
+ * <p>
+ * Изменения выполняются под блокировкой записи {@link StampedLock}. Чтение сначала идёт без блокировки
+ * по оптимистичной метке; если за это время была запись, чтение повторяется под блокировкой чтения.
+ * Во время оптимистичного чтения массивы могут быть в промежуточном состоянии, поэтому исключения,
+ * возникшие до проверки метки, учитываются только если метка осталась действительной.
+ */
+public class ConcurrentArrayTabulatedFunction implements TabulatedFunction, Externalizable {
+    private static final long serialVersionUID = 1L;
+    private static final int OPTIMISTIC_BATCH = 1024;
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[OPTIMISTIC_BATCH]);
+
+    private final StampedLock lock = new StampedLock();
+    private ArrayTabulatedFunction function;
+
+    public ConcurrentArrayTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        this.function = new ArrayTabulatedFunction(leftX, rightX, pointsCount);
+    }
+
+    public ConcurrentArrayTabulatedFunction(double leftX, double rightX, double[] values) {
+        this.function = new ArrayTabulatedFunction(leftX, rightX, values);
+    }
+
+    public ConcurrentArrayTabulatedFunction(FunctionPoint[] points) {
+        this.function = new ArrayTabulatedFunction(points);
+    }
+
+    private ConcurrentArrayTabulatedFunction(ArrayTabulatedFunction function) {
+        this.function = function;
+    }
+
+    public ConcurrentArrayTabulatedFunction() {
+        this.function = new ArrayTabulatedFunction();
+    }
+
+    private double read(ToDoubleFunction<ArrayTabulatedFunction> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                double result = reader.applyAsDouble(function);
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.applyAsDouble(function);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private <T> T readLocked(java.util.function.Function<ArrayTabulatedFunction, T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.apply(function);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public double getLeftDomainBorder() {
+        return read(ArrayTabulatedFunction::getLeftDomainBorder);
+    }
+
+    public double getRightDomainBorder() {
+        return read(ArrayTabulatedFunction::getRightDomainBorder);
+    }
+
+    public double getFunctionValue(double x) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                double result = function.getFunctionValue(x);
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return function.getFunctionValue(x);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // out может совпадать с xs, поэтому оптимистичный проход вычисляет значения в буфере потока и
+    // переносит их в out только после успешной проверки метки: иначе повторная попытка получила бы
+    // уже перезаписанные аргументы. Большие наборы сразу вычисляются под блокировкой чтения.
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        int count = to - from;
+        long stamp = count <= OPTIMISTIC_BATCH ? lock.tryOptimisticRead() : 0;
+        if (stamp != 0) {
+            double[] scratch = SCRATCH.get();
+            System.arraycopy(xs, from, scratch, 0, count);
+            try {
+                function.evaluate(scratch, scratch, 0, count);
+                if (lock.validate(stamp)) {
+                    System.arraycopy(scratch, 0, out, from, count);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            function.evaluate(xs, out, from, to);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int getPointsCount() {
+        return (int) read(ArrayTabulatedFunction::getPointsCount);
+    }
+
+    public FunctionPoint getPoint(int index) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                FunctionPoint result = function.getPoint(index);
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        return readLocked(f -> f.getPoint(index));
+    }
+
+    public double getPointX(int index) {
+        return read(f -> f.getPointX(index));
+    }
+
+    public double getPointY(int index) {
+        return read(f -> f.getPointY(index));
+    }
+
+    public void setPoint(int index, FunctionPoint point) {
+        long stamp = lock.writeLock();
+        try {
+            function.setPoint(index, point);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void setPointX(int index, double x) {
+        long stamp = lock.writeLock();
+        try {
+            function.setPointX(index, x);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void setPointY(int index, double y) {
+        long stamp = lock.writeLock();
+        try {
+            function.setPointY(index, y);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void deletePoint(int index) {
+        long stamp = lock.writeLock();
+        try {
+            function.deletePoint(index);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void addPoint(FunctionPoint point) {
+        long stamp = lock.writeLock();
+        try {
+            function.addPoint(point);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Interpolation getInterpolation() {
+        return readLocked(ArrayTabulatedFunction::getInterpolation);
+    }
+
+    @Override
+    public void setInterpolation(Interpolation interpolation) {
+        long stamp = lock.writeLock();
+        try {
+            function.setInterpolation(interpolation);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Каждый запрос выполняется целиком под одной проверкой версии; отрезок предыдущего запроса
+    // запоминает сама ArrayTabulatedFunction (отдельно для каждого потока).
+    @Override
+    public TabulatedFunctionCursor cursor() {
+        return x -> read(f -> f.getFunctionValue(x));
+    }
+
+    // Снимок помечает массивы функции как разделяемые, поэтому берётся под блокировкой записи.
+    @Override
+    public TabulatedFunction snapshot() {
+        long stamp = lock.writeLock();
+        try {
+            return function.snapshot();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Действие выполняется под блокировкой чтения: изменять из него эту функцию нельзя.
+    @Override
+    public void forEachPoint(PointConsumer action) {
+        long stamp = lock.readLock();
+        try {
+            function.forEachPoint(action);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public double[] copyXs(double[] dest) {
+        return readLocked(f -> f.copyXs(dest));
+    }
+
+    @Override
+    public double[] copyYs(double[] dest) {
+        return readLocked(f -> f.copyYs(dest));
+    }
+
+    @Override
+    public void exportPoints(int from, int to, double[] xs, double[] ys) {
+        long stamp = lock.readLock();
+        try {
+            function.exportPoints(from, to, xs, ys);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void addPoints(FunctionPoint[] points) {
+        long stamp = lock.writeLock();
+        try {
+            function.addPoints(points);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void deleteRange(int from, int to) {
+        long stamp = lock.writeLock();
+        try {
+            function.deleteRange(from, to);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean removeIf(PointPredicate predicate) {
+        long stamp = lock.writeLock();
+        try {
+            return function.removeIf(predicate);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        long stamp = lock.readLock();
+        try {
+            function.writeExternal(out);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        ArrayTabulatedFunction loaded = new ArrayTabulatedFunction();
+        loaded.readExternal(in);
+        long stamp = lock.writeLock();
+        try {
+            function = loaded;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return readLocked(ArrayTabulatedFunction::toString);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return readLocked(f -> f.equals(o));
+    }
+
+    @Override
+    public int hashCode() {
+        return readLocked(ArrayTabulatedFunction::hashCode);
+    }
+
+    @Override
+    public Object clone() {
+        ArrayTabulatedFunction copy = readLocked(f -> (ArrayTabulatedFunction) f.clone());
+        return new ConcurrentArrayTabulatedFunction(copy);
+    }
+}
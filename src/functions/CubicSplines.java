@@ -0,0 +1,153 @@
+package functions;
+
+/**
+ * Кубические сплайны в форме Эрмита: в каждом узле хранится производная (наклон), и значение на
+ * отрезке вычисляется по значениям и наклонам в его концах.
+ * <p>
+ * Наклон монотонного сплайна в узле зависит только от соседних точек, поэтому после изменения
+ * точки достаточно пересчитать наклоны в пределах двух узлов от неё. Естественный сплайн связан
+ * по всей таблице: его наклоны находятся прогонкой за O(n).
+ */
+final class CubicSplines {
+    private CubicSplines() {
+    }
+
+    // Наклоны сплайна заданного вида во всех точках; для линейной интерполяции — null.
+    static ChunkedDoubleArray slopes(Interpolation interpolation, ChunkedDoubleArray xs, ChunkedDoubleArray ys, int n) {
+        if (interpolation == Interpolation.LINEAR) {
+            return null;
+        }
+        ChunkedDoubleArray slopes = new ChunkedDoubleArray(xs.capacity());
+        update(interpolation, xs, ys, n, slopes, interpolation == Interpolation.NATURAL_CUBIC ? new double[n] : null);
+        return slopes;
+    }
+
+    // scratch — рабочий массив прогонки длиной не меньше n; нужен только естественному сплайну.
+    static void update(Interpolation interpolation, ChunkedDoubleArray xs, ChunkedDoubleArray ys, int n,
+                       ChunkedDoubleArray slopes, double[] scratch) {
+        if (interpolation == Interpolation.NATURAL_CUBIC) {
+            naturalSlopes(xs, ys, n, slopes, scratch);
+        } else {
+            updateMonotone(xs, ys, n, slopes, 0, n);
+        }
+    }
+
+    // После изменения точки index (вставки, удаления или смены координат) достаточно пересчитать
+    // монотонные наклоны в узлах [index - 2, index + 3): каждый зависит от соседей, крайние — от трёх точек.
+    static void updateAfterChange(Interpolation interpolation, ChunkedDoubleArray xs, ChunkedDoubleArray ys, int n,
+                                  ChunkedDoubleArray slopes, int index, double[] scratch) {
+        if (interpolation == Interpolation.NATURAL_CUBIC) {
+            naturalSlopes(xs, ys, n, slopes, scratch);
+        } else {
+            updateMonotone(xs, ys, n, slopes, Math.max(0, index - 2), Math.min(n, index + 3));
+        }
+    }
+
+    private static void updateMonotone(ChunkedDoubleArray xs, ChunkedDoubleArray ys, int n, ChunkedDoubleArray slopes,
+                                       int from, int to) {
+        if (n < 2) {
+            return;
+        }
+        for (int j = from; j < to; j++) {
+            slopes.set(j, monotoneSlope(xs, ys, n, j));
+        }
+    }
+
+    static double interpolate(ChunkedDoubleArray xs, ChunkedDoubleArray ys, ChunkedDoubleArray slopes, int i, double x) {
+        double x1 = xs.get(i);
+        double x2 = xs.get(i + 1);
+        if (MathUtil.equals(x, x1)) {
+            return ys.get(i);
+        }
+        if (MathUtil.equals(x, x2)) {
+            return ys.get(i + 1);
+        }
+        return hermite(x1, x2, ys.get(i), ys.get(i + 1), slopes.get(i), slopes.get(i + 1), x);
+    }
+
+    static double hermite(double x1, double x2, double y1, double y2, double d1, double d2, double x) {
+        double h = x2 - x1;
+        double t = (x - x1) / h;
+        double s = 1 - t;
+        return s * s * (1 + 2 * t) * y1 + t * t * (3 - 2 * t) * y2 + h * t * s * (s * d1 - t * d2);
+    }
+
+    // Наклоны естественного сплайна в первых n точках. Во внутренних узлах
+    // h_i d_{i-1} + 2(h_{i-1} + h_i) d_i + h_{i-1} d_{i+1} = 3(h_i δ_{i-1} + h_{i-1} δ_i),
+    // на концах 2d_0 + d_1 = 3δ_0 и d_{n-2} + 2d_{n-1} = 3δ_{n-2}; система решается прогонкой,
+    // прогоночные коэффициенты c хранятся в переданном массиве длиной не меньше n.
+    static void naturalSlopes(ChunkedDoubleArray xs, ChunkedDoubleArray ys, int n, ChunkedDoubleArray slopes,
+                              double[] c) {
+        if (n < 2) {
+            return;
+        }
+        double h1 = xs.get(1) - xs.get(0);
+        double d1 = (ys.get(1) - ys.get(0)) / h1;
+        c[0] = 0.5;
+        double slope = 1.5 * d1;
+        slopes.set(0, slope);
+        for (int i = 1; i < n - 1; i++) {
+            double h0 = h1;
+            double d0 = d1;
+            h1 = xs.get(i + 1) - xs.get(i);
+            d1 = (ys.get(i + 1) - ys.get(i)) / h1;
+            double m = 2 * (h0 + h1) - h1 * c[i - 1];
+            c[i] = h0 / m;
+            slope = (3 * (h1 * d0 + h0 * d1) - h1 * slope) / m;
+            slopes.set(i, slope);
+        }
+        slope = (3 * d1 - slope) / (2 - c[n - 2]);
+        slopes.set(n - 1, slope);
+        for (int i = n - 2; i >= 0; i--) {
+            slope = slopes.get(i) - c[i] * slope;
+            slopes.set(i, slope);
+        }
+    }
+
+    // Наклон монотонного сплайна в точке j из первых n.
+    static double monotoneSlope(ChunkedDoubleArray xs, ChunkedDoubleArray ys, int n, int j) {
+        if (n == 2) {
+            return (ys.get(1) - ys.get(0)) / (xs.get(1) - xs.get(0));
+        }
+        if (j == 0) {
+            return monotoneEndSlope(xs.get(0), ys.get(0), xs.get(1), ys.get(1), xs.get(2), ys.get(2));
+        }
+        if (j == n - 1) {
+            return monotoneEndSlope(xs.get(n - 1), ys.get(n - 1), xs.get(n - 2), ys.get(n - 2),
+                    xs.get(n - 3), ys.get(n - 3));
+        }
+        return monotoneSlope(xs.get(j - 1), ys.get(j - 1), xs.get(j), ys.get(j), xs.get(j + 1), ys.get(j + 1));
+    }
+
+    // Наклон во внутреннем узле (x1, y1): взвешенное гармоническое среднее наклонов соседних хорд,
+    // ноль, если хорды наклонены в разные стороны или одна из них горизонтальна.
+    static double monotoneSlope(double x0, double y0, double x1, double y1, double x2, double y2) {
+        double h0 = x1 - x0;
+        double h1 = x2 - x1;
+        double d0 = (y1 - y0) / h0;
+        double d1 = (y2 - y1) / h1;
+        if (d0 == 0 || d1 == 0 || (d0 > 0) != (d1 > 0)) {
+            return 0;
+        }
+        double w0 = 2 * h1 + h0;
+        double w1 = h1 + 2 * h0;
+        return (w0 + w1) / (w0 / d0 + w1 / d1);
+    }
+
+    // Наклон в крайней точке (x0, y0) по ней и двум следующим в сторону середины таблицы:
+    // производная параболы через три точки, ограниченная так, чтобы сплайн оставался монотонным.
+    static double monotoneEndSlope(double x0, double y0, double x1, double y1, double x2, double y2) {
+        double h0 = x1 - x0;
+        double h1 = x2 - x1;
+        double d0 = (y1 - y0) / h0;
+        double d1 = (y2 - y1) / h1;
+        double slope = ((2 * h0 + h1) * d0 - h0 * d1) / (h0 + h1);
+        if (Math.signum(slope) != Math.signum(d0)) {
+            return 0;
+        }
+        if (Math.signum(d0) != Math.signum(d1) && Math.abs(slope) > Math.abs(3 * d0)) {
+            return 3 * d0;
+        }
+        return slope;
+    }
+}
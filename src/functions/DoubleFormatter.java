@@ -0,0 +1,204 @@
+package functions;
+
+import java.math.BigInteger;
+
+/**
+ * Кратчайшая десятичная запись double, по которой {@link Double#parseDouble} восстанавливает то же число.
+ * <p>
+ * Используется алгоритм Schubfach (R. Giulietti): из интервала округления числа выбирается десятичное
+ * значение с наименьшим количеством цифр, а среди таких — ближайшее к числу; если хватает одной цифры,
+ * берётся ближайшее из двузначных (это заметно лишь у наименьших субнормальных чисел). Вид записи тот же,
+ * что у {@link Double#toString(double)}: обычная запись для модулей от 10<sup>-3</sup> до 10<sup>7</sup>
+ * и вида 1.0E10 для остальных. {@code Double.toString} до Java 19 иногда выдаёт лишние цифры
+ * (например, 2.82879384806159E17 как 2.82879384806159008E17), поэтому запись выполняется здесь.
+ */
+final class DoubleFormatter {
+    private static final int P = 53;
+    private static final int Q_MIN = -1074;
+    private static final long C_MIN = 1L << (P - 1);
+    private static final long T_MASK = C_MIN - 1;
+    private static final int BQ_MASK = 0x7FF;
+    // Наименьшая мантисса субнормального числа, для которой хватает точности десятичного порядка K_MIN.
+    private static final long C_TINY = 3;
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+    private static final long MASK_63 = Long.MAX_VALUE;
+
+    // g[2(k - K_MIN)] и g[2(k - K_MIN) + 1] — старшие и младшие 63 бита числа ⌊β⌋ + 1,
+    // где 10^-k = β·2^r и 2^125 <= β < 2^126.
+    private static final long[] G = new long[2 * (K_MAX - K_MIN + 1)];
+
+    static {
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            int r = flog2pow10(-k) - 125;
+            BigInteger beta;
+            if (k <= 0) {
+                BigInteger power = BigInteger.TEN.pow(-k);
+                beta = r >= 0 ? power.shiftRight(r) : power.shiftLeft(-r);
+            } else {
+                beta = BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(k));
+            }
+            BigInteger g = beta.add(BigInteger.ONE);
+            G[2 * (k - K_MIN)] = g.shiftRight(63).longValueExact();
+            G[2 * (k - K_MIN) + 1] = g.longValue() & MASK_63;
+        }
+    }
+
+    private DoubleFormatter() {}
+
+    static String toString(double v) {
+        StringBuilder sb = new StringBuilder(24);
+        append(sb, v);
+        return sb.toString();
+    }
+
+    static void append(StringBuilder sb, double v) {
+        long bits = Double.doubleToRawLongBits(v);
+        long t = bits & T_MASK;
+        int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+        if (bq == BQ_MASK) {
+            sb.append(t != 0 ? "NaN" : bits > 0 ? "Infinity" : "-Infinity");
+            return;
+        }
+        if (bits < 0) {
+            sb.append('-');
+        }
+        if (bq != 0) {
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+            // Целые числа меньше 2^53 записываются всеми цифрами: более короткой записи у них нет.
+            if (0 < mq && mq < P) {
+                long f = c >> mq;
+                if (f << mq == c) {
+                    appendDecimal(sb, f, 0);
+                    return;
+                }
+            }
+            toDecimal(sb, -mq, c, 0);
+        } else if (t != 0) {
+            if (t < C_TINY) {
+                toDecimal(sb, Q_MIN, 10 * t, -1);
+            } else {
+                toDecimal(sb, Q_MIN, t, 0);
+            }
+        } else {
+            sb.append("0.0");
+        }
+    }
+
+    // Число c·2^q: границы интервала округления и само число переводятся в масштаб 10^-k
+    // с точностью, достаточной, чтобы выбрать s, s + 1 или число на порядок короче.
+    private static void toDecimal(StringBuilder sb, int q, long c, int dk) {
+        int out = (int) c & 1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != C_MIN || q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            // На нижней границе двоичного порядка интервал округления несимметричен.
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+
+        long g1 = G[2 * (k - K_MIN)];
+        long g0 = G[2 * (k - K_MIN) + 1];
+        long vb = roundToOdd(g1, g0, cb << h);
+        long vbl = roundToOdd(g1, g0, cbl << h);
+        long vbr = roundToOdd(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                appendDecimal(sb, upin ? sp10 : tp10, k);
+                return;
+            }
+        }
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            appendDecimal(sb, uin ? s : t, k + dk);
+            return;
+        }
+        long cmp = vb - (s + t << 1);
+        appendDecimal(sb, cmp < 0 || cmp == 0 && (s & 1) == 0 ? s : t, k + dk);
+    }
+
+    // ⌊g·cp / 2^127⌋ с младшим битом, равным 1, если отброшенная часть не нулевая.
+    private static long roundToOdd(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    // Записывает f·10^e, f > 0, в виде Double.toString.
+    private static void appendDecimal(StringBuilder sb, long f, int e) {
+        while (f % 10 == 0) {
+            f /= 10;
+            e++;
+        }
+        int length = 1;
+        for (long p = 10; length < 18 && p <= f; p *= 10) {
+            length++;
+        }
+        // Число равно 0.d1d2...dn · 10^point.
+        int point = e + length;
+        int start = sb.length();
+        if (0 < point && point <= 7) {
+            appendDigits(sb, f, length);
+            if (length <= point) {
+                for (int i = length; i < point; i++) {
+                    sb.append('0');
+                }
+                sb.append(".0");
+            } else {
+                sb.insert(start + point, '.');
+            }
+        } else if (-3 < point && point <= 0) {
+            sb.append("0.");
+            for (int i = point; i < 0; i++) {
+                sb.append('0');
+            }
+            appendDigits(sb, f, length);
+        } else {
+            appendDigits(sb, f, length);
+            sb.insert(start + 1, '.');
+            if (length == 1) {
+                sb.append('0');
+            }
+            sb.append('E').append(point - 1);
+        }
+    }
+
+    private static void appendDigits(StringBuilder sb, long f, int length) {
+        int start = sb.length();
+        sb.setLength(start + length);
+        for (int i = start + length - 1; i >= start; i--) {
+            sb.setCharAt(i, (char) ('0' + f % 10));
+            f /= 10;
+        }
+    }
+
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+}
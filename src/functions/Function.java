@@ -7,4 +7,14 @@ public interface Function {
     double getRightDomainBorder();
 
     double getFunctionValue(double x);
-}
\ No newline at end of file
+
+    /**
+     * Записывает в out[i] значение функции в точке xs[i] для всех i из [from, to).
+     * Массивы xs и out могут совпадать: реализации обязаны поддерживать вычисление на месте.
+     */
+    default void evaluate(double[] xs, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = getFunctionValue(xs[i]);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package functions;
+
+import functions.basic.Cos;
+import functions.basic.Exp;
+import functions.basic.Log;
+import functions.basic.Sin;
+import functions.basic.Tan;
+import functions.meta.Composition;
+import functions.meta.IntegerPower;
+import functions.meta.Mult;
+import functions.meta.Power;
+import functions.meta.Scale;
+import functions.meta.Shift;
+import functions.meta.Sum;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+// Сборка дерева функций в один MethodHandle и его размещение в скрытом классе, см. Functions.compile.
+final class FunctionCompiler {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType UNARY = MethodType.methodType(double.class, double.class);
+    private static final MethodType BINARY = MethodType.methodType(double.class, double.class, double.class);
+
+    private static final MethodHandle SIN = findStatic(Math.class, "sin", UNARY);
+    private static final MethodHandle COS = findStatic(Math.class, "cos", UNARY);
+    private static final MethodHandle TAN = findStatic(Math.class, "tan", UNARY);
+    private static final MethodHandle EXP = findStatic(Math.class, "exp", UNARY);
+    private static final MethodHandle POW = findStatic(Math.class, "pow", BINARY);
+    private static final MethodHandle LOG = findStatic(FunctionCompiler.class, "log", BINARY);
+    private static final MethodHandle ADD = findStatic(FunctionCompiler.class, "add", BINARY);
+    private static final MethodHandle SUB = findStatic(FunctionCompiler.class, "sub", BINARY);
+    private static final MethodHandle MUL = findStatic(FunctionCompiler.class, "mul", BINARY);
+    private static final MethodHandle DIV = findStatic(FunctionCompiler.class, "div", BINARY);
+    private static final MethodHandle INT_POW = findStatic(IntegerPower.class, "pow",
+            MethodType.methodType(double.class, double.class, int.class));
+    private static final MethodHandle GET_VALUE;
+
+    private static byte[] templateBytes;
+
+    static {
+        try {
+            GET_VALUE = LOOKUP.findVirtual(Function.class, "getFunctionValue", UNARY);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private FunctionCompiler() {}
+
+    static Function compile(Function f) {
+        MethodHandle handle = handle(f);
+        byte[] bytes = templateBytes();
+        if (bytes == null) {
+            return new HandleFunction(f, handle);
+        }
+        try {
+            MethodHandles.Lookup hidden = LOOKUP.defineHiddenClassWithClassData(bytes, handle, true);
+            MethodHandle constructor = hidden.findConstructor(hidden.lookupClass(),
+                    MethodType.methodType(void.class, Function.class));
+            return (Function) constructor.invoke(f);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Не удалось скомпилировать функцию", e);
+        }
+    }
+
+    private static synchronized byte[] templateBytes() {
+        if (templateBytes == null) {
+            try (InputStream in = FunctionCompiler.class.getResourceAsStream("CompiledFunctionTemplate.class")) {
+                templateBytes = in == null ? new byte[0] : in.readAllBytes();
+            } catch (IOException e) {
+                templateBytes = new byte[0];
+            }
+        }
+        return templateBytes.length == 0 ? null : templateBytes;
+    }
+
+    // Известные узлы разворачиваются в комбинаторы с теми же операциями в том же порядке, что и у самих узлов,
+    // поэтому результат совпадает побитово. Подклассы и прочие реализации вызываются как непрозрачные листья.
+    static MethodHandle handle(Function f) {
+        Class<?> type = f.getClass();
+        if (type == Sin.class) return SIN;
+        if (type == Cos.class) return COS;
+        if (type == Tan.class) return TAN;
+        if (type == Exp.class) return EXP;
+        if (type == Log.class) {
+            return MethodHandles.insertArguments(LOG, 1, Math.log(((Log) f).getBase()));
+        }
+        if (type == Shift.class) {
+            Shift shift = (Shift) f;
+            MethodHandle base = MethodHandles.filterArguments(handle(shift.getBase()), 0,
+                    MethodHandles.insertArguments(SUB, 1, shift.getShiftX()));
+            return MethodHandles.filterReturnValue(base, MethodHandles.insertArguments(ADD, 1, shift.getShiftY()));
+        }
+        if (type == Scale.class) {
+            Scale scale = (Scale) f;
+            MethodHandle base = MethodHandles.filterArguments(handle(scale.getBase()), 0,
+                    MethodHandles.insertArguments(DIV, 1, scale.getScaleX()));
+            return MethodHandles.filterReturnValue(base, MethodHandles.insertArguments(MUL, 1, scale.getScaleY()));
+        }
+        if (type == Power.class) {
+            Power power = (Power) f;
+            return MethodHandles.filterReturnValue(handle(power.getBase()),
+                    MethodHandles.insertArguments(POW, 1, power.getPower()));
+        }
+        if (type == IntegerPower.class) {
+            IntegerPower power = (IntegerPower) f;
+            return MethodHandles.filterReturnValue(handle(power.getBase()),
+                    MethodHandles.insertArguments(INT_POW, 1, power.getExponent()));
+        }
+        if (type == Sum.class) {
+            Sum sum = (Sum) f;
+            return both(ADD, handle(sum.getFirst()), handle(sum.getSecond()));
+        }
+        if (type == Mult.class) {
+            Mult mult = (Mult) f;
+            return both(MUL, handle(mult.getFirst()), handle(mult.getSecond()));
+        }
+        if (type == Composition.class) {
+            Composition composition = (Composition) f;
+            return MethodHandles.filterReturnValue(handle(composition.getInner()), handle(composition.getOuter()));
+        }
+        return GET_VALUE.bindTo(f);
+    }
+
+    // (x) -> operation(first(x), second(x))
+    private static MethodHandle both(MethodHandle operation, MethodHandle first, MethodHandle second) {
+        return MethodHandles.permuteArguments(MethodHandles.filterArguments(operation, 0, first, second), UNARY, 0, 0);
+    }
+
+    private static MethodHandle findStatic(Class<?> owner, String name, MethodType type) {
+        try {
+            return LOOKUP.findStatic(owner, name, type);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static double log(double x, double lnBase) {
+        return x <= 0.0 ? Double.NaN : Math.log(x) / lnBase;
+    }
+
+    private static double add(double a, double b) {
+        return a + b;
+    }
+
+    private static double sub(double a, double b) {
+        return a - b;
+    }
+
+    private static double mul(double a, double b) {
+        return a * b;
+    }
+
+    private static double div(double a, double b) {
+        return a / b;
+    }
+
+    // Запасной вариант, если байткод шаблона недоступен: дескриптор хранится в обычном поле экземпляра.
+    private static final class HandleFunction implements Function {
+        private final Function source;
+        private final MethodHandle handle;
+
+        HandleFunction(Function source, MethodHandle handle) {
+            this.source = source;
+            this.handle = handle;
+        }
+
+        @Override
+        public double getLeftDomainBorder() {
+            return source.getLeftDomainBorder();
+        }
+
+        @Override
+        public double getRightDomainBorder() {
+            return source.getRightDomainBorder();
+        }
+
+        @Override
+        public double getFunctionValue(double x) {
+            try {
+                return (double) handle.invokeExact(x);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
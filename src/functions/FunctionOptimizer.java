@@ -0,0 +1,110 @@
+package functions;
+
+import functions.meta.Composition;
+import functions.meta.IntegerPower;
+import functions.meta.Mult;
+import functions.meta.Power;
+import functions.meta.Scale;
+import functions.meta.Shift;
+import functions.meta.Sum;
+
+// Алгебраические упрощения дерева функций, см. Functions.optimize.
+final class FunctionOptimizer {
+    private FunctionOptimizer() {}
+
+    static Function optimize(Function f) {
+        if (f instanceof Shift) {
+            Shift shift = (Shift) f;
+            return shift(optimize(shift.getBase()), shift.getShiftX(), shift.getShiftY());
+        }
+        if (f instanceof Scale) {
+            Scale scale = (Scale) f;
+            return scale(optimize(scale.getBase()), scale.getScaleX(), scale.getScaleY());
+        }
+        if (f instanceof Power) {
+            Power power = (Power) f;
+            return power(optimize(power.getBase()), power.getPower());
+        }
+        if (f instanceof IntegerPower) {
+            IntegerPower power = (IntegerPower) f;
+            return power(optimize(power.getBase()), power.getExponent());
+        }
+        if (f instanceof Sum) {
+            Sum sum = (Sum) f;
+            Function first = optimize(sum.getFirst());
+            Function second = sum.getSecond() == sum.getFirst() ? first : optimize(sum.getSecond());
+            if (first == second) {
+                return scale(first, 1.0, 2.0);
+            }
+            return first == sum.getFirst() && second == sum.getSecond() ? sum : new Sum(first, second);
+        }
+        if (f instanceof Mult) {
+            Mult mult = (Mult) f;
+            Function first = optimize(mult.getFirst());
+            Function second = mult.getSecond() == mult.getFirst() ? first : optimize(mult.getSecond());
+            if (first == second) {
+                return power(first, 2);
+            }
+            return first == mult.getFirst() && second == mult.getSecond() ? mult : new Mult(first, second);
+        }
+        if (f instanceof Composition) {
+            Composition composition = (Composition) f;
+            Function outer = optimize(composition.getOuter());
+            Function inner = optimize(composition.getInner());
+            return outer == composition.getOuter() && inner == composition.getInner()
+                    ? composition : new Composition(outer, inner);
+        }
+        return f;
+    }
+
+    // Shift(Shift(f, a1, b1), a2, b2) = Shift(f, a1 + a2, b1 + b2).
+    private static Function shift(Function base, double shiftX, double shiftY) {
+        if (base instanceof Shift) {
+            Shift inner = (Shift) base;
+            return shift(inner.getBase(), inner.getShiftX() + shiftX, inner.getShiftY() + shiftY);
+        }
+        if (shiftX == 0.0 && shiftY == 0.0) {
+            return base;
+        }
+        return new Shift(base, shiftX, shiftY);
+    }
+
+    // Scale(Scale(f, sx1, sy1), sx2, sy2) = Scale(f, sx1 * sx2, sy1 * sy2), если произведение sx1 * sx2
+    // допустимо для Scale, иначе вложенные узлы остаются как есть;
+    // Scale(Shift(f, a, b), sx, sy) = Shift(Scale(f, sx, sy), a * sx, b * sy), чтобы сдвиги всплывали наверх и сливались.
+    private static Function scale(Function base, double scaleX, double scaleY) {
+        if (base instanceof Scale) {
+            Scale inner = (Scale) base;
+            double combined = inner.getScaleX() * scaleX;
+            if (Math.abs(combined) >= 1e-15) {
+                return scale(inner.getBase(), combined, inner.getScaleY() * scaleY);
+            }
+        }
+        if (base instanceof Shift) {
+            Shift inner = (Shift) base;
+            return shift(scale(inner.getBase(), scaleX, scaleY), inner.getShiftX() * scaleX, inner.getShiftY() * scaleY);
+        }
+        if (scaleX == 1.0 && scaleY == 1.0) {
+            return base;
+        }
+        return new Scale(base, scaleX, scaleY);
+    }
+
+    private static Function power(Function base, double power) {
+        if (power == 1.0) {
+            return base;
+        }
+        if (power == Math.rint(power) && power != 0.0 && Math.abs(power) <= IntegerPower.MAX_EXPONENT) {
+            int exponent = (int) power;
+            if (base instanceof IntegerPower) {
+                IntegerPower inner = (IntegerPower) base;
+                int combined = inner.getExponent() * exponent;
+                if (Math.abs(combined) <= IntegerPower.MAX_EXPONENT) {
+                    return power(inner.getBase(), combined);
+                }
+            }
+            return new IntegerPower(base, exponent);
+        }
+        return new Power(base, power);
+    }
+}
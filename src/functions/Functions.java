@@ -1,6 +1,7 @@
 package functions;
 
 import functions.meta.Composition;
+import functions.meta.IntegerPower;
 import functions.meta.Mult;
 import functions.meta.Power;
 import functions.meta.Scale;
@@ -33,4 +34,38 @@ public final class Functions {
     public static Function composition(Function outer, Function inner) {
         return new Composition(outer, inner);
     }
+
+    /**
+     * Возвращает эквивалентное дерево, которое вычисляется быстрее исходного. Исходное дерево не изменяется.
+     * <ul>
+     * <li>цепочки Shift и Scale сворачиваются в не более чем один Shift над одним Scale; Scale не сливаются,
+     *     если произведение их scaleX по модулю меньше 1e-15, которое {@link Scale} не принимает;</li>
+     * <li>Power с показателем 1 убирается, с целым показателем от -8 до 8 заменяется на {@link IntegerPower};</li>
+     * <li>sum(f, f) заменяется на scale(f, 1, 2), mult(f, f) — на квадрат f, если оба аргумента —
+     *     один и тот же объект или сводятся к одному объекту после упрощения.</li>
+     * </ul>
+     * Свёрнутые аффинные преобразования округляются в другом порядке: аргумент и значение каждого узла
+     * отличаются не более чем на 2 ULP от величины наибольшего слагаемого на каждый удалённый узел,
+     * целые степени — не более чем на 6 ULP от {@link Math#pow}. Итоговая погрешность дополнительно
+     * умножается на обусловленность внутренних функций. Вне этих границ результаты могут различаться
+     * только при переполнении промежуточных значений.
+     */
+    public static Function optimize(Function f) {
+        return FunctionOptimizer.optimize(f);
+    }
+
+    /**
+     * Компилирует дерево функций в один скрытый класс, метод которого вычисляет всё выражение без
+     * интерфейсных вызовов между узлами. Узлы из functions.basic и functions.meta разворачиваются
+     * в те же операции, поэтому результаты совпадают с исходным деревом побитово; остальные реализации
+     * {@link Function} вызываются как непрозрачные листья. Границы области определения берутся у исходного дерева.
+     */
+    public static Function compile(Function f) {
+        return FunctionCompiler.compile(f);
+    }
+
+    // Потокобезопасный кэш значений f ёмкостью capacity, см. CachedFunction.
+    public static CachedFunction cached(Function f, int capacity, CachedFunction.Policy policy) {
+        return new CachedFunction(f, capacity, policy);
+    }
 }
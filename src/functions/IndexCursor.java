@@ -0,0 +1,75 @@
+package functions;
+
+// Курсор поверх доступа к точкам по индексу. От запомненного отрезка выполняется
+// экспоненциальный поиск, так что переход на d отрезков стоит O(log d) обращений к точкам.
+// Наклоны сплайна через интерфейс TabulatedFunction недоступны, поэтому при сплайновой интерполяции
+// курсор передаёт запрос getFunctionValue, а запомненный отрезок не использует. Реализации со сплайнами
+// (ArrayTabulatedFunction и снимки) сами запоминают отрезок последнего запроса в каждом потоке,
+// так что упорядоченный проход и тогда не выполняет бинарный поиск на каждом шаге.
+final class IndexCursor implements TabulatedFunctionCursor {
+    private final TabulatedFunction function;
+    private int segment;
+
+    IndexCursor(TabulatedFunction function) {
+        this.function = function;
+    }
+
+    public double getFunctionValue(double x) {
+        if (function.getInterpolation() != Interpolation.LINEAR) {
+            return function.getFunctionValue(x);
+        }
+        int n = function.getPointsCount();
+        if (n == 0) {
+            return Double.NaN;
+        }
+        if (MathUtil.less(x, function.getPointX(0)) || MathUtil.greater(x, function.getPointX(n - 1))) {
+            return Double.NaN;
+        }
+        if (n == 1) {
+            return function.getPointY(0);
+        }
+
+        int last = n - 2;
+        int lo;
+        int hi;
+        int i = Math.min(segment, last);
+        if (function.getPointX(i) <= x) {
+            lo = i;
+            hi = i + 1;
+            for (int step = 1; hi <= last && function.getPointX(hi) <= x; step <<= 1) {
+                lo = hi;
+                hi = lo + step;
+            }
+            hi = Math.min(hi, last + 1);
+        } else {
+            hi = i;
+            lo = i - 1;
+            for (int step = 1; lo > 0 && function.getPointX(lo) > x; step <<= 1) {
+                hi = lo;
+                lo = hi - step;
+            }
+            lo = Math.max(lo, 0);
+        }
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (function.getPointX(mid) <= x) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        segment = lo;
+
+        double x1 = function.getPointX(lo);
+        double x2 = function.getPointX(lo + 1);
+        if (MathUtil.equals(x, x1)) {
+            return function.getPointY(lo);
+        }
+        if (MathUtil.equals(x, x2)) {
+            return function.getPointY(lo + 1);
+        }
+        double y1 = function.getPointY(lo);
+        double y2 = function.getPointY(lo + 1);
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+}
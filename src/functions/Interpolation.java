@@ -0,0 +1,16 @@
+package functions;
+
+/**
+ * Способ вычисления значения табулированной функции между её точками.
+ */
+public enum Interpolation {
+    /** Отрезок прямой между соседними точками. */
+    LINEAR,
+    /** Естественный кубический сплайн: вторая производная непрерывна и равна нулю на концах. */
+    NATURAL_CUBIC,
+    /**
+     * Монотонный кубический сплайн Эрмита (Fritsch–Carlson): на участках монотонности данных
+     * сплайн монотонен, а в локальных экстремумах не выходит за значения в узлах.
+     */
+    MONOTONE_CUBIC
+}
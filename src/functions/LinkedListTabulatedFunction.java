@@ -4,32 +4,71 @@ import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
-
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Табулированная функция на двусвязном кольцевом списке.
+ * <p>
+ * Поверх списка построен индексируемый skip list: узел уровня h хранит h «экспресс-ссылок» вперёд
+ * и для каждой — число обычных шагов, которое она перепрыгивает. Поэтому доступ по индексу, поиск
+ * отрезка по x и вставка по x выполняются за ожидаемые O(log n), а сама вставка и удаление
+ * по-прежнему сводятся к перестановке ссылок.
+ * <p>
+ * Узлы изменяются на месте, поэтому разделить их со снимком нельзя: {@link #snapshot()} копирует
+ * точки за O(n), как реализация по умолчанию.
+ */
 public class LinkedListTabulatedFunction implements TabulatedFunction, Externalizable {
-
+    private static final int MAX_LEVEL = 16;
+    // Ближе этого расстояния от последнего обращения до узла дойти по списку дешевле, чем спускаться по индексу.
+    private static final int NEAR_DISTANCE = 8;
+    private static final FunctionNode[] NO_LINKS = new FunctionNode[0];
+    private static final int[] NO_SPANS = new int[0];
 
     private static class FunctionNode {
         FunctionPoint point;
         FunctionNode prev;
         FunctionNode next;
+        // наклон сплайна в точке; не используется при линейной интерполяции
+        double slope;
+        // links[l] — следующий узел уровня l + 1 (null в конце уровня), spans[l] — расстояние до него по индексу.
+        FunctionNode[] links = NO_LINKS;
+        int[] spans = NO_SPANS;
 
         FunctionNode(FunctionPoint point) {
             this.point = point;
         }
+
+        void setHeight(int height) {
+            links = height == 0 ? NO_LINKS : new FunctionNode[height];
+            spans = height == 0 ? NO_SPANS : new int[height];
+        }
     }
 
     private FunctionNode head;
     private int pointsCount;
+    private int levels;
     private FunctionNode lastAccessed;
     private int lastAccessedIndex;
+    // Счётчик вставок и удалений узлов; по нему курсоры узнают, что их узел мог быть удалён.
+    private int modCount;
+    private Interpolation interpolation = Interpolation.LINEAR;
+    private transient double[] splineScratch;
 
     public LinkedListTabulatedFunction() {
+        clear();
+    }
+
+    private void clear() {
         head = new FunctionNode(null);
         head.prev = head;
         head.next = head;
+        head.setHeight(MAX_LEVEL);
         pointsCount = 0;
+        levels = 0;
         lastAccessed = head;
         lastAccessedIndex = -1;
+        modCount++;
     }
 
     public LinkedListTabulatedFunction(double leftX, double rightX, int pointsCount) {
@@ -48,6 +87,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
             FunctionNode newNode = addNodeToTail();
             newNode.point = new FunctionPoint(x, 0);
         }
+        rebuildIndex();
     }
 
     public LinkedListTabulatedFunction(double leftX, double rightX, double[] values) {
@@ -67,6 +107,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
             FunctionNode newNode = addNodeToTail();
             newNode.point = new FunctionPoint(x, values[i]);
         }
+        rebuildIndex();
     }
 
     public LinkedListTabulatedFunction(FunctionPoint[] points) {
@@ -89,6 +130,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
             FunctionNode newNode = addNodeToTail();
             newNode.point = new FunctionPoint(point); // Создаем копию
         }
+        rebuildIndex();
     }
 
     private FunctionNode getNodeByIndex(int index) {
@@ -97,24 +139,26 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         }
 
         FunctionNode current;
-        int startIndex;
-
-        if (lastAccessedIndex != -1 && Math.abs(index - lastAccessedIndex) < Math.abs(index)) {
+        if (lastAccessedIndex != -1 && Math.abs(index - lastAccessedIndex) <= NEAR_DISTANCE) {
             current = lastAccessed;
-            startIndex = lastAccessedIndex;
-        } else {
-            current = head.next;
-            startIndex = 0;
-        }
-
-        if (index >= startIndex) {
-            for (int i = startIndex; i < index; i++) {
+            for (int i = lastAccessedIndex; i < index; i++) {
                 current = current.next;
             }
-        } else {
-            for (int i = startIndex; i > index; i--) {
+            for (int i = lastAccessedIndex; i > index; i--) {
                 current = current.prev;
             }
+        } else {
+            current = head;
+            int position = -1;
+            for (int level = levels - 1; level >= 0; level--) {
+                while (current.links[level] != null && position + current.spans[level] <= index) {
+                    position += current.spans[level];
+                    current = current.links[level];
+                }
+            }
+            for (; position < index; position++) {
+                current = current.next;
+            }
         }
 
         lastAccessed = current;
@@ -123,8 +167,149 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         return current;
     }
 
+    // Последний узел с абсциссой не больше x, или head, если таких нет.
+    private FunctionNode floorNode(double x) {
+        FunctionNode current = head;
+        for (int level = levels - 1; level >= 0; level--) {
+            while (current.links[level] != null && current.links[level].point.getX() <= x) {
+                current = current.links[level];
+            }
+        }
+        while (current.next != head && current.next.point.getX() <= x) {
+            current = current.next;
+        }
+        return current;
+    }
+
+    // Количество точек с абсциссой строго меньше x (в смысле MathUtil), то есть позиция вставки x.
+    private int rankOf(double x) {
+        FunctionNode current = head;
+        int position = -1;
+        for (int level = levels - 1; level >= 0; level--) {
+            while (current.links[level] != null && MathUtil.less(current.links[level].point.getX(), x)) {
+                position += current.spans[level];
+                current = current.links[level];
+            }
+        }
+        while (current.next != head && MathUtil.less(current.next.point.getX(), x)) {
+            current = current.next;
+            position++;
+        }
+        return position + 1;
+    }
+
+    // Для каждого уровня — последний узел этого уровня с индексом меньше index и сам этот индекс.
+    private void findPredecessors(int index, FunctionNode[] update, int[] rank) {
+        FunctionNode current = head;
+        int position = -1;
+        for (int level = levels - 1; level >= 0; level--) {
+            while (current.links[level] != null && position + current.spans[level] < index) {
+                position += current.spans[level];
+                current = current.links[level];
+            }
+            update[level] = current;
+            rank[level] = position;
+        }
+    }
+
+    private static int randomLevel() {
+        // Каждый следующий уровень получает четверть узлов предыдущего.
+        return Math.min(Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt()) / 2, MAX_LEVEL);
+    }
+
+    // Строит экспресс-уровни заново за O(n); используется после заполнения списка через addNodeToTail.
+    private void rebuildIndex() {
+        FunctionNode[] last = new FunctionNode[MAX_LEVEL];
+        int[] lastIndex = new int[MAX_LEVEL];
+        Arrays.fill(last, head);
+        Arrays.fill(lastIndex, -1);
+        Arrays.fill(head.links, null);
+        levels = 0;
+
+        FunctionNode current = head.next;
+        for (int i = 0; i < pointsCount; i++) {
+            int height = randomLevel();
+            current.setHeight(height);
+            for (int level = 0; level < height; level++) {
+                last[level].links[level] = current;
+                last[level].spans[level] = i - lastIndex[level];
+                last[level] = current;
+                lastIndex[level] = i;
+            }
+            levels = Math.max(levels, height);
+            current = current.next;
+        }
+    }
+
+    private void linkIndex(FunctionNode node, int index) {
+        int height = randomLevel();
+        node.setHeight(height);
+        FunctionNode[] update = new FunctionNode[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        findPredecessors(index, update, rank);
+        for (int level = levels; level < height; level++) {
+            update[level] = head;
+            rank[level] = -1;
+        }
+
+        for (int level = 0; level < height; level++) {
+            FunctionNode before = update[level];
+            node.links[level] = before.links[level];
+            if (node.links[level] != null) {
+                // Узел, на который указывала ссылка, после вставки сдвинулся на одну позицию.
+                node.spans[level] = rank[level] + before.spans[level] + 1 - index;
+            }
+            before.links[level] = node;
+            before.spans[level] = index - rank[level];
+        }
+        for (int level = height; level < levels; level++) {
+            if (update[level].links[level] != null) {
+                update[level].spans[level]++;
+            }
+        }
+        levels = Math.max(levels, height);
+    }
+
+    private void unlinkIndex(FunctionNode node, int index) {
+        FunctionNode[] update = new FunctionNode[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        findPredecessors(index, update, rank);
+        for (int level = 0; level < levels; level++) {
+            FunctionNode before = update[level];
+            if (before.links[level] == node) {
+                before.links[level] = node.links[level];
+                before.spans[level] += node.spans[level] - 1;
+            } else if (before.links[level] != null) {
+                before.spans[level]--;
+            }
+        }
+        while (levels > 0 && head.links[levels - 1] == null) {
+            levels--;
+        }
+    }
+
+    // Курсор остаётся на последней скопированной точке, поэтому следующий блок начинается без обхода.
+    @Override
+    public void exportPoints(int from, int to, double[] xs, double[] ys) {
+        TabulatedFunctions.checkRange(from, to, pointsCount);
+        if (from == to) {
+            return;
+        }
+        FunctionNode current = getNodeByIndex(from);
+        for (int i = 0; i < to - from; i++) {
+            if (i > 0) {
+                current = current.next;
+            }
+            xs[i] = current.point.getX();
+            ys[i] = current.point.getY();
+        }
+        lastAccessed = current;
+        lastAccessedIndex = to - 1;
+    }
+
+    // Точку нового узла задаёт вызывающий.
     private FunctionNode addNodeToTail() {
-        FunctionNode newNode = new FunctionNode(new FunctionPoint(0, 0));
+        FunctionNode newNode = new FunctionNode(null);
 
         if (pointsCount == 0) {
             newNode.prev = head;
@@ -139,6 +324,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         }
 
         pointsCount++;
+        modCount++;
         lastAccessed = newNode;
         lastAccessedIndex = pointsCount - 1;
 
@@ -160,7 +346,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         } else {
             FunctionNode targetNode;
             if (index == pointsCount) {
-                targetNode = head.prev;
+                targetNode = head;
             } else {
                 targetNode = getNodeByIndex(index);
             }
@@ -171,7 +357,9 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
             targetNode.prev = newNode;
         }
 
+        linkIndex(newNode, index);
         pointsCount++;
+        modCount++;
         lastAccessed = newNode;
         lastAccessedIndex = index;
 
@@ -187,11 +375,13 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         }
 
         FunctionNode nodeToDelete = getNodeByIndex(index);
+        unlinkIndex(nodeToDelete, index);
 
         nodeToDelete.prev.next = nodeToDelete.next;
         nodeToDelete.next.prev = nodeToDelete.prev;
 
         pointsCount--;
+        modCount++;
 
         if (lastAccessedIndex == index) {
             lastAccessed = head.next;
@@ -227,30 +417,218 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
             return Double.NaN;
         }
 
-        FunctionNode current = head.next;
-        for (int i = 0; i < pointsCount; i++) {
-            if (MathUtil.equals(x, current.point.getX())) {
-                return current.point.getY();
+        if (pointsCount == 1) {
+            return head.next.point.getY();
+        }
+        return interpolate(segmentNode(floorNode(x)), x);
+    }
+
+    // Левый конец отрезка, которому принадлежит x, по результату floorNode: точки, лежащие левее
+    // первой или совпадающие с последней в пределах погрешности, относятся к крайним отрезкам.
+    private FunctionNode segmentNode(FunctionNode floor) {
+        if (floor == head) {
+            return head.next;
+        }
+        if (floor.next == head) {
+            return floor.prev;
+        }
+        return floor;
+    }
+
+    private double interpolate(FunctionNode left, double x) {
+        double x1 = left.point.getX();
+        double x2 = left.next.point.getX();
+        if (MathUtil.equals(x, x1)) {
+            return left.point.getY();
+        }
+        if (MathUtil.equals(x, x2)) {
+            return left.next.point.getY();
+        }
+        double y1 = left.point.getY();
+        double y2 = left.next.point.getY();
+        if (interpolation != Interpolation.LINEAR) {
+            return CubicSplines.hermite(x1, x2, y1, y2, left.slope, left.next.slope, x);
+        }
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    @Override
+    public Interpolation getInterpolation() {
+        return interpolation;
+    }
+
+    @Override
+    public void setInterpolation(Interpolation interpolation) {
+        this.interpolation = interpolation;
+        updateAllSlopes();
+    }
+
+    private void updateAllSlopes() {
+        if (interpolation == Interpolation.LINEAR) {
+            splineScratch = null;
+            return;
+        }
+        if (pointsCount < 2) {
+            return;
+        }
+        if (interpolation == Interpolation.NATURAL_CUBIC) {
+            naturalSlopes();
+        } else {
+            for (FunctionNode current = head.next; current != head; current = current.next) {
+                current.slope = monotoneSlope(current);
             }
+        }
+    }
+
+    // Прогонка из CubicSplines.naturalSlopes прямо по узлам: прямой ход идёт по next, обратный — по prev,
+    // промежуточные наклоны хранятся в самих узлах, а прогоночные коэффициенты — в переиспользуемом массиве.
+    private void naturalSlopes() {
+        if (splineScratch == null || splineScratch.length < pointsCount) {
+            splineScratch = new double[pointsCount + (pointsCount >> 1)];
+        }
+        double[] c = splineScratch;
+        FunctionNode node = head.next;
+        FunctionPoint p = node.point;
+        FunctionPoint q = node.next.point;
+        double h1 = q.getX() - p.getX();
+        double d1 = (q.getY() - p.getY()) / h1;
+        c[0] = 0.5;
+        node.slope = 1.5 * d1;
+        for (int i = 1; i < pointsCount - 1; i++) {
+            node = node.next;
+            p = q;
+            q = node.next.point;
+            double h0 = h1;
+            double d0 = d1;
+            h1 = q.getX() - p.getX();
+            d1 = (q.getY() - p.getY()) / h1;
+            double m = 2 * (h0 + h1) - h1 * c[i - 1];
+            c[i] = h0 / m;
+            node.slope = (3 * (h1 * d0 + h0 * d1) - h1 * node.prev.slope) / m;
+        }
+        FunctionNode last = node.next;
+        last.slope = (3 * d1 - node.slope) / (2 - c[pointsCount - 2]);
+        node = last.prev;
+        for (int i = pointsCount - 2; i >= 0; i--) {
+            node.slope -= c[i] * node.next.slope;
+            node = node.prev;
+        }
+    }
+
+    // Пересчитывает наклоны после изменения узла node или его соседей: для монотонного сплайна —
+    // в пределах двух узлов от node, для естественного — во всей таблице.
+    private void updateSlopes(FunctionNode node) {
+        if (interpolation != Interpolation.MONOTONE_CUBIC) {
+            updateAllSlopes();
+            return;
+        }
+        if (pointsCount < 2) {
+            return;
+        }
+        FunctionNode current = node;
+        for (int i = 0; i < 2 && current.prev != head; i++) {
+            current = current.prev;
+        }
+        for (int i = 0; i < 5 && current != head; i++) {
+            current.slope = monotoneSlope(current);
             current = current.next;
         }
+    }
 
-        current = head.next;
-        for (int i = 0; i < pointsCount - 1; i++) {
-            double x1 = current.point.getX();
-            double x2 = current.next.point.getX();
+    private double monotoneSlope(FunctionNode node) {
+        if (pointsCount == 2) {
+            FunctionPoint first = head.next.point;
+            FunctionPoint last = head.prev.point;
+            return (last.getY() - first.getY()) / (last.getX() - first.getX());
+        }
+        FunctionPoint p = node.point;
+        if (node.prev == head) {
+            FunctionPoint p1 = node.next.point;
+            FunctionPoint p2 = node.next.next.point;
+            return CubicSplines.monotoneEndSlope(p.getX(), p.getY(), p1.getX(), p1.getY(), p2.getX(), p2.getY());
+        }
+        if (node.next == head) {
+            FunctionPoint p1 = node.prev.point;
+            FunctionPoint p2 = node.prev.prev.point;
+            return CubicSplines.monotoneEndSlope(p.getX(), p.getY(), p1.getX(), p1.getY(), p2.getX(), p2.getY());
+        }
+        FunctionPoint p0 = node.prev.point;
+        FunctionPoint p2 = node.next.point;
+        return CubicSplines.monotoneSlope(p0.getX(), p0.getY(), p.getX(), p.getY(), p2.getX(), p2.getY());
+    }
 
-            if (MathUtil.greaterOrEquals(x, x1) && MathUtil.lessOrEquals(x, x2)) {
-                double y1 = current.point.getY();
-                double y2 = current.next.point.getY();
-                return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        if (pointsCount < 2) {
+            TabulatedFunction.super.evaluate(xs, out, from, to);
+            return;
+        }
+        double leftBorder = getLeftDomainBorder();
+        double rightBorder = getRightDomainBorder();
+
+        // Сначала проверяются предыдущий отрезок и соседний с ним справа, поэтому упорядоченный набор
+        // аргументов обходит список один раз; при дальнем переходе отрезок ищется через индекс.
+        FunctionNode current = head.next;
+        for (int k = from; k < to; k++) {
+            double x = xs[k];
+            if (MathUtil.less(x, leftBorder) || MathUtil.greater(x, rightBorder)) {
+                out[k] = Double.NaN;
+                continue;
             }
-            current = current.next;
+            if (!(current.point.getX() <= x && x <= current.next.point.getX())) {
+                FunctionNode after = current.next;
+                if (after.next != head && after.point.getX() <= x && x <= after.next.point.getX()) {
+                    current = after;
+                } else {
+                    current = segmentNode(floorNode(x));
+                }
+            }
+            out[k] = interpolate(current, x);
         }
+    }
+
 
-        return Double.NaN;
+    @Override
+    public TabulatedFunctionCursor cursor() {
+        return new NodeCursor();
     }
 
+    // Курсор по узлам: к соседним отрезкам переходит по ссылкам, к дальним и после вставки
+    // или удаления узлов — через индекс.
+    private class NodeCursor implements TabulatedFunctionCursor {
+        private FunctionNode segment;
+        private int expectedModCount;
+
+        public double getFunctionValue(double x) {
+            if (pointsCount == 0) return Double.NaN;
+            if (MathUtil.less(x, getLeftDomainBorder()) || MathUtil.greater(x, getRightDomainBorder())) {
+                return Double.NaN;
+            }
+            if (pointsCount == 1) {
+                return head.next.point.getY();
+            }
+
+            if (segment == null || expectedModCount != modCount || !walkTo(x)) {
+                segment = segmentNode(floorNode(x));
+                expectedModCount = modCount;
+            }
+            return interpolate(segment, x);
+        }
+
+        // Сдвигает segment по ссылкам не более чем на NEAR_DISTANCE узлов; false, если отрезок дальше.
+        private boolean walkTo(double x) {
+            for (int steps = 0; steps <= NEAR_DISTANCE; steps++) {
+                if (segment.next.next != head && segment.next.point.getX() <= x) {
+                    segment = segment.next;
+                } else if (segment.prev != head && segment.point.getX() > x) {
+                    segment = segment.prev;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
 
     public int getPointsCount() {
         return pointsCount;
@@ -280,6 +658,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         }
 
         node.point = new FunctionPoint(point);
+        updateSlopes(node);
     }
 
     public double getPointX(int index) {
@@ -306,6 +685,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         }
 
         node.point.setX(x);
+        updateSlopes(node);
     }
 
     public double getPointY(int index) {
@@ -316,57 +696,169 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
     public void setPointY(int index, double y) {
         FunctionNode node = getNodeByIndex(index);
         node.point.setY(y);
+        updateSlopes(node);
     }
 
     public void deletePoint(int index) {
-        deleteNodeByIndex(index);
+        FunctionNode deleted = deleteNodeByIndex(index);
+        updateSlopes(deleted.prev != head ? deleted.prev : deleted.next);
     }
 
 
     public void addPoint(FunctionPoint point) {
-        int insertIndex = 0;
+        int insertIndex = rankOf(point.getX());
+
+        if (insertIndex < pointsCount && MathUtil.equals(getNodeByIndex(insertIndex).point.getX(), point.getX())) {
+            throw new InappropriateFunctionPointException("Точка с X=" + point.getX() + " уже существует");
+        }
+
+        FunctionNode newNode = addNodeByIndex(insertIndex);
+        newNode.point = new FunctionPoint(point);
+        updateSlopes(newNode);
+    }
+
+    @Override
+    public void forEachPoint(PointConsumer action) {
+        for (FunctionNode current = head.next; current != head; current = current.next) {
+            action.accept(current.point.getX(), current.point.getY());
+        }
+    }
+
+    @Override
+    public double[] copyXs(double[] dest) {
+        double[] xs = dest != null && dest.length >= pointsCount ? dest : new double[pointsCount];
         FunctionNode current = head.next;
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = current.point.getX();
+            current = current.next;
+        }
+        return xs;
+    }
 
-        while (insertIndex < pointsCount && MathUtil.less(current.point.getX(), point.getX())) {
+    @Override
+    public double[] copyYs(double[] dest) {
+        double[] ys = dest != null && dest.length >= pointsCount ? dest : new double[pointsCount];
+        FunctionNode current = head.next;
+        for (int i = 0; i < pointsCount; i++) {
+            ys[i] = current.point.getY();
             current = current.next;
-            insertIndex++;
         }
+        return ys;
+    }
 
-        if (insertIndex < pointsCount && MathUtil.equals(current.point.getX(), point.getX())) {
-            throw new InappropriateFunctionPointException("Точка с X=" + point.getX() + " уже существует");
+    // Сначала набор сверяется с имеющимися точками одним проходом, затем узлы вставляются вторым,
+    // после чего индекс строится заново.
+    @Override
+    public void addPoints(FunctionPoint[] points) {
+        FunctionPoint[] sorted = TabulatedFunctions.sortPoints(points);
+        FunctionNode current = head.next;
+        for (FunctionPoint point : sorted) {
+            while (current != head && MathUtil.less(current.point.getX(), point.getX())) {
+                current = current.next;
+            }
+            if (current != head && MathUtil.equals(current.point.getX(), point.getX())) {
+                throw new InappropriateFunctionPointException("Точка с X=" + point.getX() + " уже существует");
+            }
         }
 
-        FunctionNode newNode = addNodeByIndex(insertIndex);
-        newNode.point = new FunctionPoint(point);
+        current = head.next;
+        for (FunctionPoint point : sorted) {
+            while (current != head && current.point.getX() < point.getX()) {
+                current = current.next;
+            }
+            FunctionNode newNode = new FunctionNode(new FunctionPoint(point));
+            newNode.prev = current.prev;
+            newNode.next = current;
+            current.prev.next = newNode;
+            current.prev = newNode;
+        }
+        pointsCount += sorted.length;
+        afterBulkChange();
     }
 
     @Override
-    public void writeExternal(ObjectOutput out) throws IOException {
-        out.writeInt(pointsCount);
+    public void deleteRange(int from, int to) {
+        TabulatedFunctions.checkDeleteRange(from, to, pointsCount);
+        if (from == to) {
+            return;
+        }
+        FunctionNode first = getNodeByIndex(from);
+        FunctionNode last = first;
+        for (int i = from + 1; i < to; i++) {
+            last = last.next;
+        }
+        first.prev.next = last.next;
+        last.next.prev = first.prev;
+        pointsCount -= to - from;
+        afterBulkChange();
+    }
+
+    @Override
+    public boolean removeIf(PointPredicate predicate) {
+        boolean[] removed = new boolean[pointsCount];
+        int count = 0;
         FunctionNode current = head.next;
         for (int i = 0; i < pointsCount; i++) {
-            out.writeDouble(current.point.getX());
-            out.writeDouble(current.point.getY());
+            if (predicate.test(current.point.getX(), current.point.getY())) {
+                removed[i] = true;
+                count++;
+            }
             current = current.next;
         }
+        TabulatedFunctions.checkRemaining(pointsCount, count);
+        if (count == 0) {
+            return false;
+        }
+
+        current = head.next;
+        for (int i = 0; i < removed.length; i++) {
+            FunctionNode next = current.next;
+            if (removed[i]) {
+                current.prev.next = next;
+                next.prev = current.prev;
+            }
+            current = next;
+        }
+        pointsCount -= count;
+        afterBulkChange();
+        return true;
+    }
+
+    private void afterBulkChange() {
+        modCount++;
+        lastAccessed = head;
+        lastAccessedIndex = -1;
+        rebuildIndex();
+        updateAllSlopes();
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        CompactExternalForm.write(out, copyXs(null), copyYs(null), pointsCount, interpolation);
     }
 
     @Override
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
         int count = in.readInt();
-        head = new FunctionNode(null);
-        head.prev = head;
-        head.next = head;
-        pointsCount = 0;
-        lastAccessed = head;
-        lastAccessedIndex = -1;
+        clear();
 
-        for (int i = 0; i < count; i++) {
-            double x = in.readDouble();
-            double y = in.readDouble();
-            FunctionNode node = addNodeToTail();
-            node.point = new FunctionPoint(x, y);
+        interpolation = Interpolation.LINEAR;
+        if (count < 0) {
+            CompactExternalForm form = CompactExternalForm.read(in, count, 0);
+            for (int i = 0; i < form.pointsCount; i++) {
+                addNodeToTail().point = new FunctionPoint(form.xs[i], form.ys[i]);
+            }
+            interpolation = form.interpolation;
+        } else {
+            for (int i = 0; i < count; i++) {
+                double x = in.readDouble();
+                double y = in.readDouble();
+                FunctionNode node = addNodeToTail();
+                node.point = new FunctionPoint(x, y);
+            }
         }
+        rebuildIndex();
+        updateAllSlopes();
     }
 
     @Override
@@ -376,7 +868,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         FunctionNode current = head.next;
         for (int i = 0; i < pointsCount; i++) {
             if (i > 0) sb.append(", ");
-            sb.append(current.point.toString());
+            sb.append("(").append(current.point.getX()).append("; ").append(current.point.getY()).append(")");
             current = current.next;
         }
         sb.append("}");
@@ -389,6 +881,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         if (!(o instanceof TabulatedFunction)) return false;
         TabulatedFunction tf = (TabulatedFunction) o;
         if (this.getPointsCount() != tf.getPointsCount()) return false;
+        if (interpolation != tf.getInterpolation()) return false;
 
         if (o instanceof LinkedListTabulatedFunction) {
             LinkedListTabulatedFunction other = (LinkedListTabulatedFunction) o;
@@ -405,7 +898,8 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
 
         FunctionNode current = head.next;
         for (int i = 0; i < pointsCount; i++) {
-            if (!current.point.equals(tf.getPoint(i))) return false;
+            if (!MathUtil.equals(current.point.getX(), tf.getPointX(i))) return false;
+            if (!MathUtil.equals(current.point.getY(), tf.getPointY(i))) return false;
             current = current.next;
         }
         return true;
@@ -413,7 +907,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
 
     @Override
     public int hashCode() {
-        int h = pointsCount;
+        int h = pointsCount + 31 * interpolation.ordinal();
         FunctionNode current = head.next;
         for (int i = 0; i < pointsCount; i++) {
             h ^= current.point.hashCode();
@@ -424,12 +918,15 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
 
     @Override
     public Object clone() {
-        FunctionPoint[] pts = new FunctionPoint[pointsCount];
-        FunctionNode current = head.next;
-        for (int i = 0; i < pointsCount; i++) {
-            pts[i] = (FunctionPoint) current.point.clone();
-            current = current.next;
-        }
-        return new LinkedListTabulatedFunction(pts);
+        // Точки исходного списка уже упорядочены, поэтому копия собирается без проверок.
+        LinkedListTabulatedFunction copy = new LinkedListTabulatedFunction();
+        for (FunctionNode current = head.next; current != head; current = current.next) {
+            FunctionNode node = copy.addNodeToTail();
+            node.point = new FunctionPoint(current.point);
+            node.slope = current.slope;
+        }
+        copy.rebuildIndex();
+        copy.interpolation = interpolation;
+        return copy;
     }
 }
\ No newline at end of file
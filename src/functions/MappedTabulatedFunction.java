@@ -0,0 +1,277 @@
+package functions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Табулированная функция только для чтения, данные которой отображены в память из файла.
+ * <p>
+ * Формат файла (little-endian): заголовок из {@value #HEADER_SIZE} байт — сигнатура {@code TABF},
+ * версия формата, количество точек (long) и зарезервированные нули; затем все абсциссы, затем все ординаты.
+ * Открытие файла не читает данные: страницы подгружаются операционной системой при обращении к точкам.
+ */
+public class MappedTabulatedFunction implements TabulatedFunction {
+    public static final int MAGIC = 0x46424154;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final ChunkedDoubleBuffer xs;
+    private final ChunkedDoubleBuffer ys;
+    private final int pointsCount;
+    private final ThreadLocal<long[]> segmentHint = ThreadLocal.withInitial(() -> new long[1]);
+
+    private MappedTabulatedFunction(ChunkedDoubleBuffer xs, ChunkedDoubleBuffer ys, int pointsCount) {
+        this.xs = xs;
+        this.ys = ys;
+        this.pointsCount = pointsCount;
+    }
+
+    public static void write(TabulatedFunction function, Path path) throws IOException {
+        int n = function.getPointsCount();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(n).putLong(0).putLong(0).flip();
+            writeAt(buffer, channel, 0);
+            // Точки выгружаются из функции блоками один раз; абсциссы и ординаты блока пишутся каждая на своё место.
+            double[] x = new double[Math.min(n, WRITE_BUFFER_SIZE / 8)];
+            double[] y = new double[x.length];
+            for (int from = 0; from < n; from += x.length) {
+                int count = Math.min(x.length, n - from);
+                function.exportPoints(from, from + count, x, y);
+                writeAt(x, count, buffer, channel, HEADER_SIZE + 8L * from);
+                writeAt(y, count, buffer, channel, HEADER_SIZE + 8L * (n + from));
+            }
+        }
+    }
+
+    private static void writeAt(double[] values, int count, ByteBuffer buffer, FileChannel channel, long position)
+            throws IOException {
+        buffer.clear();
+        buffer.asDoubleBuffer().put(values, 0, count);
+        buffer.limit(8 * count);
+        writeAt(buffer, channel, position);
+    }
+
+    private static void writeAt(ByteBuffer buffer, FileChannel channel, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    public static MappedTabulatedFunction open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Неверный формат: файл короче заголовка");
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Неверный формат: нет сигнатуры TABF");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия формата: " + version);
+            }
+            long n = header.getLong();
+            if (n < 2 || n > Integer.MAX_VALUE) {
+                throw new IOException("Неверное количество точек: " + n);
+            }
+            if (channel.size() < HEADER_SIZE + 16 * n) {
+                throw new IOException("Неверный формат: файл короче заявленного количества точек");
+            }
+
+            ChunkedDoubleBuffer xs = map(channel, HEADER_SIZE, n);
+            ChunkedDoubleBuffer ys = map(channel, HEADER_SIZE + 8 * n, n);
+            return new MappedTabulatedFunction(xs, ys, (int) n);
+        }
+    }
+
+    private static ChunkedDoubleBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        DoubleBuffer[] chunks = new DoubleBuffer[ChunkedDoubleBuffer.chunkCount(length)];
+        for (int c = 0; c < chunks.length; c++) {
+            long start = offset + 8 * ((long) c << ChunkedDoubleBuffer.CHUNK_SHIFT);
+            long size = 8 * ChunkedDoubleBuffer.chunkLength(length, c);
+            chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, start, size)
+                    .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+        return new ChunkedDoubleBuffer(chunks, length);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(index, pointsCount);
+        }
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Функция, отображённая из файла, доступна только для чтения");
+    }
+
+    public double getLeftDomainBorder() {
+        return xs.get(0);
+    }
+
+    public double getRightDomainBorder() {
+        return xs.get(pointsCount - 1);
+    }
+
+    public double getFunctionValue(double x) {
+        if (MathUtil.less(x, getLeftDomainBorder()) || MathUtil.greater(x, getRightDomainBorder())) {
+            return Double.NaN;
+        }
+        long[] hint = segmentHint.get();
+        long i = xs.locateSegment(x, pointsCount, hint[0]);
+        hint[0] = i;
+        return interpolate(i, x);
+    }
+
+    @Override
+    public void evaluate(double[] args, double[] out, int from, int to) {
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+        long segment = 0;
+        for (int k = from; k < to; k++) {
+            double x = args[k];
+            if (MathUtil.less(x, left) || MathUtil.greater(x, right)) {
+                out[k] = Double.NaN;
+            } else {
+                segment = xs.locateSegment(x, pointsCount, segment);
+                out[k] = interpolate(segment, x);
+            }
+        }
+    }
+
+    private double interpolate(long i, double x) {
+        double x1 = xs.get(i);
+        double x2 = xs.get(i + 1);
+        if (MathUtil.equals(x, x1)) {
+            return ys.get(i);
+        }
+        if (MathUtil.equals(x, x2)) {
+            return ys.get(i + 1);
+        }
+        double y1 = ys.get(i);
+        double y2 = ys.get(i + 1);
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    @Override
+    public void exportPoints(int from, int to, double[] x, double[] y) {
+        TabulatedFunctions.checkRange(from, to, pointsCount);
+        xs.get(from, x, 0, to - from);
+        ys.get(from, y, 0, to - from);
+    }
+
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(xs.get(index), ys.get(index));
+    }
+
+    public void setPoint(int index, FunctionPoint point) {
+        throw readOnly();
+    }
+
+    public double getPointX(int index) {
+        checkIndex(index);
+        return xs.get(index);
+    }
+
+    public void setPointX(int index, double x) {
+        throw readOnly();
+    }
+
+    public double getPointY(int index) {
+        checkIndex(index);
+        return ys.get(index);
+    }
+
+    public void setPointY(int index, double y) {
+        throw readOnly();
+    }
+
+    public void deletePoint(int index) {
+        throw readOnly();
+    }
+
+    public void addPoint(FunctionPoint point) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addPoints(FunctionPoint[] points) {
+        throw readOnly();
+    }
+
+    @Override
+    public void deleteRange(int from, int to) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeIf(PointPredicate predicate) {
+        throw readOnly();
+    }
+
+    @Override
+    public TabulatedFunction snapshot() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (int i = 0; i < pointsCount; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("(").append(xs.get(i)).append("; ").append(ys.get(i)).append(")");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+        TabulatedFunction tf = (TabulatedFunction) o;
+        if (pointsCount != tf.getPointsCount()) return false;
+        if (tf.getInterpolation() != Interpolation.LINEAR) return false;
+
+        for (int i = 0; i < pointsCount; i++) {
+            if (!MathUtil.equals(xs.get(i), tf.getPointX(i))) return false;
+            if (!MathUtil.equals(ys.get(i), tf.getPointY(i))) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = pointsCount;
+        for (int i = 0; i < pointsCount; i++) {
+            long lx = Double.doubleToLongBits(xs.get(i));
+            long ly = Double.doubleToLongBits(ys.get(i));
+            h ^= (int) (lx ^ (lx >>> 32)) ^ (int) (ly ^ (ly >>> 32));
+        }
+        return h;
+    }
+
+    // Данные неизменяемы, поэтому копия разделяет с оригиналом отображённые страницы.
+    @Override
+    public Object clone() {
+        return new MappedTabulatedFunction(xs, ys, pointsCount);
+    }
+}
@@ -0,0 +1,372 @@
+package functions;
+
+import java.io.Closeable;
+
+/**
+ * Табулированная функция, точки которой хранятся вне кучи Java в прямых буферах.
+ * <p>
+ * Количество точек ограничено не {@code Integer.MAX_VALUE}, а доступной памятью: для работы с
+ * такими таблицами предназначены методы с индексом типа {@code long}. Методы интерфейса с индексом
+ * {@code int} работают, пока точек не больше {@code Integer.MAX_VALUE}. Сборщик мусора не
+ * просматривает данные точек, поэтому большие таблицы не удлиняют паузы сборки.
+ * Поддерживается только линейная интерполяция.
+ * <p>
+ * Объём прямых буферов ограничен параметром JVM {@code -XX:MaxDirectMemorySize}, который по умолчанию
+ * равен {@code -Xmx}: для таблиц больше кучи его нужно задать явно, иначе выделение бросит
+ * {@link OutOfMemoryError}.
+ * <p>
+ * После {@link #close()} любое обращение к функции бросает {@link IllegalStateException}.
+ * {@code close()} не освобождает память сразу: стандартного способа освободить прямой буфер нет,
+ * память возвращается, когда сборщик мусора удалит объекты буферов, а до этого учитывается в
+ * {@code MaxDirectMemorySize}. Поэтому при частом создании больших таблиц память может закончиться
+ * раньше, чем сработает сборка; {@code close()} лишь гарантирует, что сама функция буферы не удерживает.
+ */
+public class OffHeapTabulatedFunction implements TabulatedFunction, Closeable {
+    private ChunkedDoubleBuffer xs;
+    private ChunkedDoubleBuffer ys;
+    private long pointsCount;
+    private final ThreadLocal<long[]> segmentHint = ThreadLocal.withInitial(() -> new long[1]);
+
+    public OffHeapTabulatedFunction(double leftX, double rightX, long pointsCount) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой: " + leftX + " >= " + rightX);
+        }
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2: " + pointsCount);
+        }
+
+        this.pointsCount = pointsCount;
+        this.xs = ChunkedDoubleBuffer.allocateDirect(pointsCount);
+        this.ys = ChunkedDoubleBuffer.allocateDirect(pointsCount);
+
+        double step = (rightX - leftX) / (pointsCount - 1);
+        for (long i = 0; i < pointsCount; i++) {
+            xs.put(i, leftX + i * step);
+        }
+    }
+
+    public OffHeapTabulatedFunction(double leftX, double rightX, double[] values) {
+        this(leftX, rightX, values.length);
+        ys.put(0, values, 0, values.length);
+    }
+
+    private OffHeapTabulatedFunction(ChunkedDoubleBuffer xs, ChunkedDoubleBuffer ys, long pointsCount) {
+        this.xs = xs;
+        this.ys = ys;
+        this.pointsCount = pointsCount;
+    }
+
+    public static OffHeapTabulatedFunction copyOf(TabulatedFunction function) {
+        int n = function.getPointsCount();
+        if (n < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2: " + n);
+        }
+        OffHeapTabulatedFunction copy = new OffHeapTabulatedFunction(
+                ChunkedDoubleBuffer.allocateDirect(n), ChunkedDoubleBuffer.allocateDirect(n), n);
+        double[] x = new double[Math.min(n, 1 << 16)];
+        double[] y = new double[x.length];
+        for (int from = 0; from < n; from += x.length) {
+            int count = Math.min(x.length, n - from);
+            function.exportPoints(from, from + count, x, y);
+            copy.xs.put(from, x, 0, count);
+            copy.ys.put(from, y, 0, count);
+        }
+        return copy;
+    }
+
+    private void checkOpen() {
+        if (xs == null) {
+            throw new IllegalStateException("Функция закрыта");
+        }
+    }
+
+    private void checkIndex(long index) {
+        checkOpen();
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException("Индекс " + index + " вне диапазона [0, " + (pointsCount - 1) + "]");
+        }
+    }
+
+    public long getLongPointsCount() {
+        checkOpen();
+        return pointsCount;
+    }
+
+    public double getPointX(long index) {
+        checkIndex(index);
+        return xs.get(index);
+    }
+
+    public double getPointY(long index) {
+        checkIndex(index);
+        return ys.get(index);
+    }
+
+    public void setPointY(long index, double y) {
+        checkIndex(index);
+        ys.put(index, y);
+    }
+
+    /**
+     * Добавляет точку правее всех имеющихся за амортизированное O(1).
+     */
+    public void appendPoint(double x, double y) {
+        checkOpen();
+        double last = xs.get(pointsCount - 1);
+        if (!MathUtil.greater(x, last)) {
+            throw new InappropriateFunctionPointException(
+                    "X координата " + x + " должна быть больше последней " + last);
+        }
+        ensureCapacity(pointsCount + 1);
+        xs.put(pointsCount, x);
+        ys.put(pointsCount, y);
+        pointsCount++;
+    }
+
+    private void ensureCapacity(long capacity) {
+        if (capacity > xs.length()) {
+            long newCapacity = Math.max(capacity, xs.length() + (xs.length() >> 1) + 1);
+            xs = xs.grow(newCapacity);
+            ys = ys.grow(newCapacity);
+        }
+    }
+
+    /**
+     * Делает функцию недоступной и отпускает ссылки на буферы с точками. Память буферов
+     * освобождается позже, при сборке мусора.
+     */
+    @Override
+    public void close() {
+        xs = null;
+        ys = null;
+        pointsCount = 0;
+    }
+
+    public double getLeftDomainBorder() {
+        checkOpen();
+        return xs.get(0);
+    }
+
+    public double getRightDomainBorder() {
+        checkOpen();
+        return xs.get(pointsCount - 1);
+    }
+
+    public double getFunctionValue(double x) {
+        if (MathUtil.less(x, getLeftDomainBorder()) || MathUtil.greater(x, getRightDomainBorder())) {
+            return Double.NaN;
+        }
+        long[] hint = segmentHint.get();
+        long i = xs.locateSegment(x, pointsCount, hint[0]);
+        hint[0] = i;
+        return interpolate(i, x);
+    }
+
+    @Override
+    public void evaluate(double[] args, double[] out, int from, int to) {
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+        long segment = 0;
+        for (int k = from; k < to; k++) {
+            double x = args[k];
+            if (MathUtil.less(x, left) || MathUtil.greater(x, right)) {
+                out[k] = Double.NaN;
+            } else {
+                segment = xs.locateSegment(x, pointsCount, segment);
+                out[k] = interpolate(segment, x);
+            }
+        }
+    }
+
+    private double interpolate(long i, double x) {
+        double x1 = xs.get(i);
+        double x2 = xs.get(i + 1);
+        if (MathUtil.equals(x, x1)) {
+            return ys.get(i);
+        }
+        if (MathUtil.equals(x, x2)) {
+            return ys.get(i + 1);
+        }
+        double y1 = ys.get(i);
+        double y2 = ys.get(i + 1);
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    public int getPointsCount() {
+        checkOpen();
+        if (pointsCount > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Количество точек " + pointsCount
+                    + " больше Integer.MAX_VALUE, используйте getLongPointsCount()");
+        }
+        return (int) pointsCount;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(xs.get(index), ys.get(index));
+    }
+
+    public void setPoint(int index, FunctionPoint point) {
+        checkXs(index, point.getX());
+        xs.put(index, point.getX());
+        ys.put(index, point.getY());
+    }
+
+    public double getPointX(int index) {
+        return getPointX((long) index);
+    }
+
+    public void setPointX(int index, double x) {
+        checkXs(index, x);
+        xs.put(index, x);
+    }
+
+    private void checkXs(long index, double x) {
+        checkIndex(index);
+        if (index > 0 && !MathUtil.greater(x, xs.get(index - 1))) {
+            throw new InappropriateFunctionPointException(
+                    "X координата " + x + " должна быть больше предыдущей " + xs.get(index - 1));
+        }
+        if (index < pointsCount - 1 && !MathUtil.less(x, xs.get(index + 1))) {
+            throw new InappropriateFunctionPointException(
+                    "X координата " + x + " должна быть меньше следующей " + xs.get(index + 1));
+        }
+    }
+
+    public double getPointY(int index) {
+        return getPointY((long) index);
+    }
+
+    public void setPointY(int index, double y) {
+        setPointY((long) index, y);
+    }
+
+    public void deletePoint(int index) {
+        checkOpen();
+        if (pointsCount <= 2) {
+            throw new IllegalStateException("Невозможно удалить точку: должно остаться минимум 2 точки");
+        }
+        checkIndex(index);
+
+        xs.move(index + 1, index, pointsCount - index - 1);
+        ys.move(index + 1, index, pointsCount - index - 1);
+        pointsCount--;
+    }
+
+    public void addPoint(FunctionPoint point) {
+        checkOpen();
+        double x = point.getX();
+        long lo = 0;
+        long hi = pointsCount;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (MathUtil.less(xs.get(mid), x)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        long insertIndex = lo;
+
+        if (insertIndex < pointsCount && MathUtil.equals(xs.get(insertIndex), x)) {
+            throw new InappropriateFunctionPointException("Точка с X=" + x + " уже существует");
+        }
+
+        ensureCapacity(pointsCount + 1);
+        xs.move(insertIndex, insertIndex + 1, pointsCount - insertIndex);
+        ys.move(insertIndex, insertIndex + 1, pointsCount - insertIndex);
+        xs.put(insertIndex, x);
+        ys.put(insertIndex, point.getY());
+        pointsCount++;
+    }
+
+    @Override
+    public void forEachPoint(PointConsumer action) {
+        checkOpen();
+        for (long i = 0; i < pointsCount; i++) {
+            action.accept(xs.get(i), ys.get(i));
+        }
+    }
+
+    @Override
+    public double[] copyXs(double[] dest) {
+        int n = getPointsCount();
+        double[] result = dest != null && dest.length >= n ? dest : new double[n];
+        xs.get(0, result, 0, n);
+        return result;
+    }
+
+    @Override
+    public double[] copyYs(double[] dest) {
+        int n = getPointsCount();
+        double[] result = dest != null && dest.length >= n ? dest : new double[n];
+        ys.get(0, result, 0, n);
+        return result;
+    }
+
+    @Override
+    public void exportPoints(int from, int to, double[] x, double[] y) {
+        checkOpen();
+        // Индексы int, поэтому у функции больше чем из Integer.MAX_VALUE точек доступно только их начало.
+        TabulatedFunctions.checkRange(from, to, (int) Math.min(pointsCount, Integer.MAX_VALUE));
+        xs.get(from, x, 0, to - from);
+        ys.get(from, y, 0, to - from);
+    }
+
+    @Override
+    public String toString() {
+        checkOpen();
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (long i = 0; i < pointsCount; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("(").append(xs.get(i)).append("; ").append(ys.get(i)).append(")");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+        checkOpen();
+        if (o instanceof OffHeapTabulatedFunction) {
+            OffHeapTabulatedFunction other = (OffHeapTabulatedFunction) o;
+            if (pointsCount != other.getLongPointsCount()) return false;
+            for (long i = 0; i < pointsCount; i++) {
+                if (!MathUtil.equals(xs.get(i), other.xs.get(i))) return false;
+                if (!MathUtil.equals(ys.get(i), other.ys.get(i))) return false;
+            }
+            return true;
+        }
+
+        TabulatedFunction tf = (TabulatedFunction) o;
+        if (pointsCount != tf.getPointsCount()) return false;
+        if (tf.getInterpolation() != Interpolation.LINEAR) return false;
+        for (int i = 0; i < pointsCount; i++) {
+            if (!MathUtil.equals(xs.get(i), tf.getPointX(i))) return false;
+            if (!MathUtil.equals(ys.get(i), tf.getPointY(i))) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        checkOpen();
+        int h = (int) pointsCount;
+        for (long i = 0; i < pointsCount; i++) {
+            long lx = Double.doubleToLongBits(xs.get(i));
+            long ly = Double.doubleToLongBits(ys.get(i));
+            h ^= (int) (lx ^ (lx >>> 32)) ^ (int) (ly ^ (ly >>> 32));
+        }
+        return h;
+    }
+
+    // Копия получает собственные буферы вне кучи.
+    @Override
+    public Object clone() {
+        checkOpen();
+        return new OffHeapTabulatedFunction(xs.copy(pointsCount), ys.copy(pointsCount), pointsCount);
+    }
+}
@@ -0,0 +1,57 @@
+package functions;
+
+import java.util.Arrays;
+
+// Растущие массивы абсцисс и ординат для сборки табулированной функции без создания FunctionPoint.
+final class PointBuffer {
+    private double[] xs;
+    private double[] ys;
+    private int size;
+
+    PointBuffer(int capacity) {
+        xs = new double[Math.max(capacity, 8)];
+        ys = new double[xs.length];
+    }
+
+    int size() {
+        return size;
+    }
+
+    double x(int index) {
+        return xs[index];
+    }
+
+    double y(int index) {
+        return ys[index];
+    }
+
+    void add(double x, double y) {
+        if (size == xs.length) {
+            int newCapacity = xs.length * 3 / 2 + 1;
+            xs = Arrays.copyOf(xs, newCapacity);
+            ys = Arrays.copyOf(ys, newCapacity);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+    }
+
+    void addAll(PointBuffer other) {
+        if (size + other.size > xs.length) {
+            int newCapacity = Math.max(xs.length * 3 / 2 + 1, size + other.size);
+            xs = Arrays.copyOf(xs, newCapacity);
+            ys = Arrays.copyOf(ys, newCapacity);
+        }
+        System.arraycopy(other.xs, 0, xs, size, other.size);
+        System.arraycopy(other.ys, 0, ys, size, other.size);
+        size += other.size;
+    }
+
+    // Передаёт массивы функции без копирования; после вызова буфер использовать нельзя.
+    ArrayTabulatedFunction toFunction() {
+        ArrayTabulatedFunction function = ArrayTabulatedFunction.ofChecked(xs, ys, size);
+        xs = null;
+        ys = null;
+        return function;
+    }
+}
@@ -0,0 +1,5 @@
+package functions;
+
+public interface PointConsumer {
+    void accept(double x, double y);
+}
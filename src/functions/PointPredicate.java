@@ -0,0 +1,5 @@
+package functions;
+
+public interface PointPredicate {
+    boolean test(double x, double y);
+}
@@ -0,0 +1,306 @@
+package functions;
+
+/**
+ * Неизменяемая табулированная функция, ординаты которой хранятся с пониженной точностью.
+ * <p>
+ * {@link Precision#FLOAT} хранит y как {@code float} (около 7 значащих цифр), {@link Precision#INT16} —
+ * как 16-битные уровни между наименьшим и наибольшим y таблицы. Ординаты, которые в выбранном режиме
+ * не представимы (конечные, но превышающие диапазон float, или бесконечные и NaN для INT16), отклоняются.
+ * Абсциссы хранятся точно; абсциссы равномерной сетки не хранятся вовсе. Погрешность восстановления ординат измеряется при построении
+ * и возвращается {@link #getMaxError()}; значения между узлами — выпуклые комбинации узловых, поэтому
+ * их отличие от линейной интерполяции исходной таблицы не превышает той же величины.
+ */
+public final class ReducedPrecisionTabulatedFunction implements TabulatedFunction {
+    public enum Precision {
+        FLOAT,
+        INT16
+    }
+
+    private static final int LEVELS = 65535;
+
+    private final Precision precision;
+    private final int pointsCount;
+    // null для равномерной сетки: тогда x_i в точности равна leftX + i * step
+    private final double[] xs;
+    private final double leftX;
+    private final double step;
+    private final float[] floatYs;
+    private final short[] shortYs;
+    private final double offset;
+    private final double scale;
+    private final double maxError;
+    private final ThreadLocal<int[]> segmentHint = ThreadLocal.withInitial(() -> new int[1]);
+
+    public ReducedPrecisionTabulatedFunction(TabulatedFunction function, Precision precision) {
+        int n = function.getPointsCount();
+        if (n < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2: " + n);
+        }
+        double[] x = new double[n];
+        double[] y = new double[n];
+        function.exportPoints(0, n, x, y);
+
+        this.precision = precision;
+        this.pointsCount = n;
+        double gridStep = CompactExternalForm.gridStep(x, n);
+        this.xs = Double.isNaN(gridStep) ? x : null;
+        this.leftX = x[0];
+        this.step = gridStep;
+
+        if (precision == Precision.FLOAT) {
+            floatYs = new float[n];
+            for (int i = 0; i < n; i++) {
+                floatYs[i] = (float) y[i];
+                if (Float.isInfinite(floatYs[i]) && !Double.isInfinite(y[i])) {
+                    throw new IllegalArgumentException("Значение y=" + y[i] + " в точке " + i + " не помещается во float");
+                }
+            }
+            shortYs = null;
+            offset = 0;
+            scale = 0;
+        } else {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                if (!Double.isFinite(y[i])) {
+                    throw new IllegalArgumentException("Значение y=" + y[i] + " в точке " + i + " нельзя квантовать");
+                }
+                min = Math.min(min, y[i]);
+                max = Math.max(max, y[i]);
+            }
+            // Разность делится по частям, чтобы не переполниться при y порядка Double.MAX_VALUE.
+            double s = max / LEVELS - min / LEVELS;
+            shortYs = new short[n];
+            for (int i = 0; i < n; i++) {
+                long q = s == 0 ? 0 : Math.round((y[i] - min) / s);
+                shortYs[i] = (short) (Math.max(0, Math.min(LEVELS, q)) - 32768);
+            }
+            floatYs = null;
+            offset = min;
+            scale = s;
+        }
+
+        double error = 0;
+        for (int i = 0; i < n; i++) {
+            double restored = y(i);
+            if (restored != y[i] && !Double.isNaN(y[i])) {
+                error = Math.max(error, Math.abs(restored - y[i]));
+            }
+        }
+        this.maxError = error;
+    }
+
+    private double x(int i) {
+        return xs != null ? xs[i] : leftX + i * step;
+    }
+
+    private double y(int i) {
+        return floatYs != null ? floatYs[i] : offset + scale * (shortYs[i] + 32768);
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Наибольшее отклонение хранимой ординаты от исходной по всем точкам.
+     */
+    public double getMaxError() {
+        return maxError;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(index, pointsCount);
+        }
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Функция с пониженной точностью доступна только для чтения");
+    }
+
+    public double getLeftDomainBorder() {
+        return leftX;
+    }
+
+    public double getRightDomainBorder() {
+        return x(pointsCount - 1);
+    }
+
+    public double getFunctionValue(double x) {
+        if (MathUtil.less(x, leftX) || MathUtil.greater(x, getRightDomainBorder())) {
+            return Double.NaN;
+        }
+        int[] hint = segmentHint.get();
+        int i = locateSegment(x, hint[0]);
+        hint[0] = i;
+        return interpolate(i, x);
+    }
+
+    @Override
+    public void evaluate(double[] args, double[] out, int from, int to) {
+        double right = getRightDomainBorder();
+        int segment = 0;
+        for (int k = from; k < to; k++) {
+            double x = args[k];
+            if (MathUtil.less(x, leftX) || MathUtil.greater(x, right)) {
+                out[k] = Double.NaN;
+            } else {
+                segment = locateSegment(x, segment);
+                out[k] = interpolate(segment, x);
+            }
+        }
+    }
+
+    private int locateSegment(double x, int hint) {
+        if (xs != null) {
+            return ArrayTabulatedFunction.locateSegment(xs, pointsCount, x, hint);
+        }
+        int i = (int) ((x - leftX) / step);
+        if (i < 0) {
+            i = 0;
+        } else if (i > pointsCount - 2) {
+            i = pointsCount - 2;
+        }
+        // Деление могло округлиться на соседний отрезок.
+        if (i > 0 && x < x(i)) {
+            i--;
+        } else if (i < pointsCount - 2 && x > x(i + 1)) {
+            i++;
+        }
+        return i;
+    }
+
+    private double interpolate(int i, double x) {
+        double x1 = x(i);
+        double x2 = x(i + 1);
+        if (MathUtil.equals(x, x1)) {
+            return y(i);
+        }
+        if (MathUtil.equals(x, x2)) {
+            return y(i + 1);
+        }
+        double y1 = y(i);
+        double y2 = y(i + 1);
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(x(index), y(index));
+    }
+
+    public void setPoint(int index, FunctionPoint point) {
+        throw readOnly();
+    }
+
+    public double getPointX(int index) {
+        checkIndex(index);
+        return x(index);
+    }
+
+    public void setPointX(int index, double x) {
+        throw readOnly();
+    }
+
+    public double getPointY(int index) {
+        checkIndex(index);
+        return y(index);
+    }
+
+    public void setPointY(int index, double y) {
+        throw readOnly();
+    }
+
+    public void deletePoint(int index) {
+        throw readOnly();
+    }
+
+    public void addPoint(FunctionPoint point) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addPoints(FunctionPoint[] points) {
+        throw readOnly();
+    }
+
+    @Override
+    public void deleteRange(int from, int to) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeIf(PointPredicate predicate) {
+        throw readOnly();
+    }
+
+    @Override
+    public void forEachPoint(PointConsumer action) {
+        for (int i = 0; i < pointsCount; i++) {
+            action.accept(x(i), y(i));
+        }
+    }
+
+    @Override
+    public void exportPoints(int from, int to, double[] x, double[] y) {
+        TabulatedFunctions.checkRange(from, to, pointsCount);
+        for (int i = from; i < to; i++) {
+            x[i - from] = x(i);
+            y[i - from] = y(i);
+        }
+    }
+
+    @Override
+    public TabulatedFunction snapshot() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (int i = 0; i < pointsCount; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("(").append(x(i)).append("; ").append(y(i)).append(")");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+        TabulatedFunction tf = (TabulatedFunction) o;
+        if (pointsCount != tf.getPointsCount()) return false;
+        if (tf.getInterpolation() != Interpolation.LINEAR) return false;
+
+        for (int i = 0; i < pointsCount; i++) {
+            if (!MathUtil.equals(x(i), tf.getPointX(i))) return false;
+            if (!MathUtil.equals(y(i), tf.getPointY(i))) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = pointsCount;
+        for (int i = 0; i < pointsCount; i++) {
+            long lx = Double.doubleToLongBits(x(i));
+            long ly = Double.doubleToLongBits(y(i));
+            h ^= (int) (lx ^ (lx >>> 32)) ^ (int) (ly ^ (ly >>> 32));
+        }
+        return h;
+    }
+
+    // Функция неизменяема, поэтому копией служит она сама.
+    @Override
+    public Object clone() {
+        return this;
+    }
+}
@@ -12,4 +12,144 @@ public interface TabulatedFunction extends Function, Cloneable {
     void deletePoint(int index);
     void addPoint(FunctionPoint point);
     Object clone();
+
+    /**
+     * Передаёт точки по порядку возрастания x, не создавая объектов {@link FunctionPoint}.
+     */
+    default void forEachPoint(PointConsumer action) {
+        int n = getPointsCount();
+        for (int i = 0; i < n; i++) {
+            action.accept(getPointX(i), getPointY(i));
+        }
+    }
+
+    /**
+     * Копирует абсциссы всех точек в начало dest, если он достаточной длины, иначе в новый массив
+     * длины getPointsCount(); возвращает массив с результатом.
+     */
+    default double[] copyXs(double[] dest) {
+        int n = getPointsCount();
+        double[] xs = dest != null && dest.length >= n ? dest : new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = getPointX(i);
+        }
+        return xs;
+    }
+
+    /**
+     * Копирует ординаты всех точек; см. {@link #copyXs(double[])}.
+     */
+    default double[] copyYs(double[] dest) {
+        int n = getPointsCount();
+        double[] ys = dest != null && dest.length >= n ? dest : new double[n];
+        for (int i = 0; i < n; i++) {
+            ys[i] = getPointY(i);
+        }
+        return ys;
+    }
+
+    /**
+     * Копирует точки с индексами [from, to) в начало массивов xs и ys. Реализации копируют
+     * диапазон целиком, без вызова getPointX и getPointY для каждой точки.
+     */
+    default void exportPoints(int from, int to, double[] xs, double[] ys) {
+        TabulatedFunctions.checkRange(from, to, getPointsCount());
+        for (int i = from; i < to; i++) {
+            xs[i - from] = getPointX(i);
+            ys[i - from] = getPointY(i);
+        }
+    }
+
+    /**
+     * Добавляет набор точек в любом порядке. Если хотя бы одна абсцисса совпадает (в смысле
+     * {@link MathUtil#equals}) с имеющейся или с другой точкой набора, функция не изменяется.
+     */
+    default void addPoints(FunctionPoint[] points) {
+        FunctionPoint[] sorted = TabulatedFunctions.sortPoints(points);
+        int n = getPointsCount();
+        int i = 0;
+        for (FunctionPoint point : sorted) {
+            while (i < n && MathUtil.less(getPointX(i), point.getX())) {
+                i++;
+            }
+            if (i < n && MathUtil.equals(getPointX(i), point.getX())) {
+                throw new InappropriateFunctionPointException("Точка с X=" + point.getX() + " уже существует");
+            }
+        }
+        for (FunctionPoint point : sorted) {
+            addPoint(point);
+        }
+    }
+
+    /**
+     * Удаляет точки с индексами [from, to).
+     */
+    default void deleteRange(int from, int to) {
+        TabulatedFunctions.checkDeleteRange(from, to, getPointsCount());
+        for (int i = to - 1; i >= from; i--) {
+            deletePoint(i);
+        }
+    }
+
+    /**
+     * Удаляет все точки, удовлетворяющие условию; возвращает true, если что-то удалено.
+     * Если должно остаться меньше двух точек, функция не изменяется.
+     */
+    default boolean removeIf(PointPredicate predicate) {
+        int n = getPointsCount();
+        boolean[] removed = new boolean[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (predicate.test(getPointX(i), getPointY(i))) {
+                removed[i] = true;
+                count++;
+            }
+        }
+        TabulatedFunctions.checkRemaining(n, count);
+        for (int i = n - 1; i >= 0; i--) {
+            if (removed[i]) {
+                deletePoint(i);
+            }
+        }
+        return count > 0;
+    }
+
+    /**
+     * Способ интерполяции между точками; по умолчанию линейный.
+     */
+    default Interpolation getInterpolation() {
+        return Interpolation.LINEAR;
+    }
+
+    /**
+     * Задаёт способ интерполяции. Реализации, поддерживающие только линейную интерполяцию,
+     * для других способов бросают {@link UnsupportedOperationException}.
+     */
+    default void setInterpolation(Interpolation interpolation) {
+        if (interpolation != Interpolation.LINEAR) {
+            throw new UnsupportedOperationException("Интерполяция " + interpolation + " не поддерживается");
+        }
+    }
+
+    /**
+     * Возвращает курсор для последовательных запросов значений; см. {@link TabulatedFunctionCursor}.
+     */
+    default TabulatedFunctionCursor cursor() {
+        return new IndexCursor(this);
+    }
+
+    /**
+     * Возвращает неизменяемый снимок текущих точек, на который не влияют последующие изменения функции.
+     * По умолчанию точки копируются за O(n); реализации могут делать это дешевле.
+     * <p>
+     * {@link ArrayTabulatedFunction}, {@link ConcurrentArrayTabulatedFunction} и
+     * {@link UniformGridTabulatedFunction} создают снимок за O(1), разделяя с ним куски массивов по 1024
+     * точки; изменение функции после снимка копирует только те куски, в которые пишет.
+     * {@link LinkedListTabulatedFunction}, {@link UnrolledLinkedListTabulatedFunction} и
+     * {@link OffHeapTabulatedFunction} копируют точки при создании снимка, за O(n) и с O(n) памяти.
+     * Неизменяемые реализации возвращают в качестве снимка себя.
+     */
+    default TabulatedFunction snapshot() {
+        return TabulatedFunctionSnapshot.copyOf(this);
+    }
 }
\ No newline at end of file
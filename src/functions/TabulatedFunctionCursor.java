@@ -0,0 +1,13 @@
+package functions;
+
+/**
+ * Вычислитель значений табулированной функции, запоминающий отрезок предыдущего запроса.
+ * <p>
+ * Следующий запрос ищет свой отрезок, начиная от запомненного, поэтому проход по M упорядоченным
+ * (по возрастанию или по убыванию) аргументам стоит O(N + M). Значения совпадают с
+ * {@link TabulatedFunction#getFunctionValue(double)}; изменения функции между запросами допустимы.
+ * Курсор не потокобезопасен: каждому потоку нужен свой.
+ */
+public interface TabulatedFunctionCursor {
+    double getFunctionValue(double x);
+}
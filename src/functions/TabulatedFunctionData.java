@@ -14,4 +14,10 @@ public class TabulatedFunctionData implements Serializable {
 
     public int getPointsCount() { return points.length; }
     public FunctionPoint getPoint(int i) { return new FunctionPoint(points[i]); }
+    public double getPointX(int i) { return points[i].getX(); }
+    public double getPointY(int i) { return points[i].getY(); }
+
+    public void forEachPoint(PointConsumer action) {
+        for (FunctionPoint point : points) action.accept(point.getX(), point.getY());
+    }
 }
@@ -0,0 +1,298 @@
+package functions;
+
+/**
+ * Неизменяемый снимок табулированной функции.
+ * <p>
+ * Снимок может разделять куски массивов с породившей его {@link ArrayTabulatedFunction} или
+ * {@link UniformGridTabulatedFunction}: та копирует кусок перед первой записью в него, поэтому снимок
+ * видит точки такими, какими они были в момент его создания. Снимок равномерной сетки хранит только
+ * левую границу, шаг и значения.
+ * Все изменяющие методы бросают {@link UnsupportedOperationException}.
+ */
+public final class TabulatedFunctionSnapshot implements TabulatedFunction {
+    // null для равномерной сетки: тогда x_i равна leftX + i * step
+    private final ChunkedDoubleArray xs;
+    private final double leftX;
+    private final double step;
+    private final ChunkedDoubleArray ys;
+    // наклоны сплайна; null при линейной интерполяции
+    private final ChunkedDoubleArray slopes;
+    private final int pointsCount;
+    private final Interpolation interpolation;
+    private final ThreadLocal<int[]> segmentHint = ThreadLocal.withInitial(() -> new int[1]);
+
+    TabulatedFunctionSnapshot(ChunkedDoubleArray xs, ChunkedDoubleArray ys, ChunkedDoubleArray slopes, int pointsCount,
+                              Interpolation interpolation) {
+        this.xs = xs;
+        this.leftX = xs.get(0);
+        this.step = Double.NaN;
+        this.ys = ys;
+        this.slopes = slopes;
+        this.pointsCount = pointsCount;
+        this.interpolation = interpolation;
+    }
+
+    TabulatedFunctionSnapshot(double leftX, double step, ChunkedDoubleArray ys, int pointsCount) {
+        this.xs = null;
+        this.leftX = leftX;
+        this.step = step;
+        this.ys = ys;
+        this.slopes = null;
+        this.pointsCount = pointsCount;
+        this.interpolation = Interpolation.LINEAR;
+    }
+
+    // Снимок с копией точек функции; точки выгружаются кусками, без промежуточных массивов длины n.
+    static TabulatedFunctionSnapshot copyOf(TabulatedFunction function) {
+        int n = function.getPointsCount();
+        ChunkedDoubleArray xs = new ChunkedDoubleArray(n);
+        ChunkedDoubleArray ys = new ChunkedDoubleArray(n);
+        double[] x = new double[Math.min(n, ChunkedDoubleArray.CHUNK_SIZE)];
+        double[] y = new double[x.length];
+        for (int from = 0; from < n; from += x.length) {
+            int count = Math.min(x.length, n - from);
+            function.exportPoints(from, from + count, x, y);
+            xs.copyFrom(x, 0, from, count);
+            ys.copyFrom(y, 0, from, count);
+        }
+        Interpolation interpolation = function.getInterpolation();
+        return new TabulatedFunctionSnapshot(xs, ys, CubicSplines.slopes(interpolation, xs, ys, n), n, interpolation);
+    }
+
+    private double x(int i) {
+        return xs != null ? xs.get(i) : leftX + i * step;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(index, pointsCount);
+        }
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Снимок табулированной функции доступен только для чтения");
+    }
+
+    public double getLeftDomainBorder() {
+        return leftX;
+    }
+
+    public double getRightDomainBorder() {
+        return x(pointsCount - 1);
+    }
+
+    public double getFunctionValue(double x) {
+        if (MathUtil.less(x, leftX) || MathUtil.greater(x, getRightDomainBorder())) {
+            return Double.NaN;
+        }
+        int[] hint = segmentHint.get();
+        int i = locateSegment(x, hint[0]);
+        hint[0] = i;
+        return interpolate(i, x);
+    }
+
+    @Override
+    public void evaluate(double[] args, double[] out, int from, int to) {
+        double left = leftX;
+        double right = getRightDomainBorder();
+        int segment = 0;
+        for (int k = from; k < to; k++) {
+            double x = args[k];
+            if (MathUtil.less(x, left) || MathUtil.greater(x, right)) {
+                out[k] = Double.NaN;
+            } else {
+                segment = locateSegment(x, segment);
+                out[k] = interpolate(segment, x);
+            }
+        }
+    }
+
+    private int locateSegment(double x, int hint) {
+        if (xs != null) {
+            return ArrayTabulatedFunction.locateSegment(xs, pointsCount, x, hint);
+        }
+        int i = (int) ((x - leftX) / step);
+        if (i < 0) {
+            i = 0;
+        } else if (i > pointsCount - 2) {
+            i = pointsCount - 2;
+        }
+        // Деление могло округлиться на соседний отрезок.
+        if (i > 0 && x < x(i)) {
+            i--;
+        } else if (i < pointsCount - 2 && x > x(i + 1)) {
+            i++;
+        }
+        return i;
+    }
+
+    private double interpolate(int i, double x) {
+        if (xs == null) {
+            double x1 = x(i);
+            double x2 = x(i + 1);
+            if (MathUtil.equals(x, x1)) {
+                return ys.get(i);
+            }
+            if (MathUtil.equals(x, x2)) {
+                return ys.get(i + 1);
+            }
+            return ys.get(i) + (ys.get(i + 1) - ys.get(i)) * (x - x1) / (x2 - x1);
+        }
+        return slopes == null
+                ? ArrayTabulatedFunction.interpolate(xs, ys, i, x)
+                : CubicSplines.interpolate(xs, ys, slopes, i, x);
+    }
+
+    @Override
+    public Interpolation getInterpolation() {
+        return interpolation;
+    }
+
+    @Override
+    public void setInterpolation(Interpolation interpolation) {
+        throw readOnly();
+    }
+
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(x(index), ys.get(index));
+    }
+
+    public void setPoint(int index, FunctionPoint point) {
+        throw readOnly();
+    }
+
+    public double getPointX(int index) {
+        checkIndex(index);
+        return x(index);
+    }
+
+    public void setPointX(int index, double x) {
+        throw readOnly();
+    }
+
+    public double getPointY(int index) {
+        checkIndex(index);
+        return ys.get(index);
+    }
+
+    public void setPointY(int index, double y) {
+        throw readOnly();
+    }
+
+    public void deletePoint(int index) {
+        throw readOnly();
+    }
+
+    public void addPoint(FunctionPoint point) {
+        throw readOnly();
+    }
+
+    @Override
+    public void forEachPoint(PointConsumer action) {
+        for (int i = 0; i < pointsCount; i++) {
+            action.accept(x(i), ys.get(i));
+        }
+    }
+
+    @Override
+    public double[] copyXs(double[] dest) {
+        double[] result = dest != null && dest.length >= pointsCount ? dest : new double[pointsCount];
+        if (xs == null) {
+            for (int i = 0; i < pointsCount; i++) {
+                result[i] = x(i);
+            }
+            return result;
+        }
+        xs.copyTo(0, result, 0, pointsCount);
+        return result;
+    }
+
+    @Override
+    public double[] copyYs(double[] dest) {
+        double[] result = dest != null && dest.length >= pointsCount ? dest : new double[pointsCount];
+        ys.copyTo(0, result, 0, pointsCount);
+        return result;
+    }
+
+    @Override
+    public void addPoints(FunctionPoint[] points) {
+        throw readOnly();
+    }
+
+    @Override
+    public void deleteRange(int from, int to) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeIf(PointPredicate predicate) {
+        throw readOnly();
+    }
+
+    @Override
+    public TabulatedFunction snapshot() {
+        return this;
+    }
+
+    @Override
+    public void exportPoints(int from, int to, double[] x, double[] y) {
+        TabulatedFunctions.checkRange(from, to, pointsCount);
+        if (xs == null) {
+            for (int i = from; i < to; i++) {
+                x[i - from] = x(i);
+            }
+        } else {
+            xs.copyTo(from, x, 0, to - from);
+        }
+        ys.copyTo(from, y, 0, to - from);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (int i = 0; i < pointsCount; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("(").append(x(i)).append("; ").append(ys.get(i)).append(")");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+        TabulatedFunction tf = (TabulatedFunction) o;
+        if (pointsCount != tf.getPointsCount()) return false;
+        if (interpolation != tf.getInterpolation()) return false;
+
+        for (int i = 0; i < pointsCount; i++) {
+            if (!MathUtil.equals(x(i), tf.getPointX(i))) return false;
+            if (!MathUtil.equals(ys.get(i), tf.getPointY(i))) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = pointsCount + 31 * interpolation.ordinal();
+        for (int i = 0; i < pointsCount; i++) {
+            long lx = Double.doubleToLongBits(x(i));
+            long ly = Double.doubleToLongBits(ys.get(i));
+            h ^= (int) (lx ^ (lx >>> 32)) ^ (int) (ly ^ (ly >>> 32));
+        }
+        return h;
+    }
+
+    // Снимок неизменяем, поэтому копией служит он сам.
+    @Override
+    public Object clone() {
+        return this;
+    }
+}
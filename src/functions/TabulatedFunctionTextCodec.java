@@ -0,0 +1,294 @@
+package functions;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Потоковое чтение и запись табулированных функций в текстовом виде.
+ * <p>
+ * Поддерживаются два формата: исходный (количество точек и затем пары x y через пробельные символы)
+ * и CSV (по строке "x,y" на точку, необязательная первая строка-заголовок). Запись идёт блоками
+ * фиксированного размера, чтение разбирает числа прямо из буфера символов, поэтому расход памяти
+ * на разбор не зависит от размера таблицы. Числа записываются кратчайшей точной записью
+ * ({@link DoubleFormatter}) и читаются обратно без потери точности.
+ */
+final class TabulatedFunctionTextCodec {
+    private static final int BLOCK_POINTS = 1024;
+    private static final int MAX_EXACT_POWER = 22;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_POWER + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i <= MAX_EXACT_POWER; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    private TabulatedFunctionTextCodec() {}
+
+    static void write(TabulatedFunction function, Writer out, boolean csv) throws IOException {
+        int n = function.getPointsCount();
+        double[] xs = new double[Math.min(n, BLOCK_POINTS)];
+        double[] ys = new double[xs.length];
+        StringBuilder sb = new StringBuilder();
+        char[] chars = new char[0];
+
+        if (!csv) {
+            sb.append(n);
+        }
+        for (int from = 0; from < n; from += xs.length) {
+            int to = Math.min(n, from + xs.length);
+            function.exportPoints(from, to, xs, ys);
+            for (int i = 0; i < to - from; i++) {
+                if (!csv) {
+                    sb.append(' ');
+                }
+                DoubleFormatter.append(sb, xs[i]);
+                sb.append(csv ? ',' : ' ');
+                DoubleFormatter.append(sb, ys[i]);
+                if (csv) {
+                    sb.append('\n');
+                }
+            }
+            if (chars.length < sb.length()) {
+                chars = new char[sb.length()];
+            }
+            sb.getChars(0, sb.length(), chars, 0);
+            out.write(chars, 0, sb.length());
+            sb.setLength(0);
+        }
+        if (!csv) {
+            out.write(System.lineSeparator());
+        }
+        out.flush();
+    }
+
+    static TabulatedFunction read(Reader in) throws IOException {
+        Tokenizer tokenizer = new Tokenizer(in, false);
+        if (!tokenizer.next()) throw new IOException("Invalid format: expected number of points");
+        double count = tokenizer.number("number of points");
+        if (count < 0 || count > Integer.MAX_VALUE - 5 || count != Math.rint(count)) {
+            throw new IOException("Invalid format: expected number of points");
+        }
+        int n = (int) count;
+
+        double[] xs = new double[n + 5];
+        double[] ys = new double[n + 5];
+        for (int i = 0; i < n; i++) {
+            if (!tokenizer.next()) throw new IOException("Invalid format: expected x");
+            xs[i] = tokenizer.number("x");
+            if (!tokenizer.next()) throw new IOException("Invalid format: expected y");
+            ys[i] = tokenizer.number("y");
+        }
+        return ArrayTabulatedFunction.ofChecked(xs, ys, n);
+    }
+
+    static TabulatedFunction readCsv(Reader in) throws IOException {
+        Tokenizer tokenizer = new Tokenizer(in, true);
+        PointBuffer points = new PointBuffer(1024);
+        boolean firstLine = true;
+        while (tokenizer.next()) {
+            if (firstLine && !tokenizer.isNumber()) {
+                tokenizer.skipLine();
+                firstLine = false;
+                continue;
+            }
+            firstLine = false;
+            int line = tokenizer.line();
+            double x = tokenizer.number("x in line " + line);
+            if (!tokenizer.nextInLine()) {
+                throw new IOException("Invalid format: expected y in line " + line);
+            }
+            double y = tokenizer.number("y in line " + line);
+            points.add(x, y);
+        }
+        return points.toFunction();
+    }
+
+    /**
+     * Разбирает десятичную запись числа. Если мантисса укладывается в 53 бита, а десятичный порядок
+     * не превышает 22, результат получается одним точным умножением или делением (быстрый путь Клингера);
+     * остальные случаи передаются {@link Double#parseDouble}. В обоих случаях округление корректное.
+     * Возвращает NaN, если запись не является числом.
+     */
+    static double parseDouble(char[] buf, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+            negative = buf[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        while (i < end && buf[i] >= '0' && buf[i] <= '9') {
+            if (digits < 19) {
+                mantissa = mantissa * 10 + (buf[i] - '0');
+                if (mantissa != 0) digits++;
+            } else {
+                exponent++;
+            }
+            anyDigit = true;
+            i++;
+        }
+        if (i < end && buf[i] == '.') {
+            i++;
+            while (i < end && buf[i] >= '0' && buf[i] <= '9') {
+                if (digits < 19) {
+                    mantissa = mantissa * 10 + (buf[i] - '0');
+                    if (mantissa != 0) digits++;
+                    exponent--;
+                }
+                anyDigit = true;
+                i++;
+            }
+        }
+        if (!anyDigit) {
+            return fallback(buf, start, end);
+        }
+        if (i < end && (buf[i] == 'e' || buf[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+                negativeExponent = buf[i] == '-';
+                i++;
+            }
+            int e = 0;
+            boolean anyExponentDigit = false;
+            while (i < end && buf[i] >= '0' && buf[i] <= '9') {
+                if (e < 100000) {
+                    e = e * 10 + (buf[i] - '0');
+                }
+                anyExponentDigit = true;
+                i++;
+            }
+            if (!anyExponentDigit) {
+                return Double.NaN;
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != end || digits >= 19) {
+            return fallback(buf, start, end);
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (mantissa <= MAX_EXACT_MANTISSA && exponent >= -MAX_EXACT_POWER && exponent <= MAX_EXACT_POWER) {
+            value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        } else {
+            return fallback(buf, start, end);
+        }
+        return negative ? -value : value;
+    }
+
+    private static double fallback(char[] buf, int start, int end) {
+        try {
+            return Double.parseDouble(new String(buf, start, end - start));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // Делит поток символов на лексемы, разделённые пробельными символами (и запятыми в режиме CSV).
+    private static final class Tokenizer {
+        private final Reader in;
+        private final boolean csv;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private char[] token = new char[64];
+        private int tokenLength;
+        private int line = 1;
+        private boolean lineBreakBeforeToken;
+
+        Tokenizer(Reader in, boolean csv) {
+            this.in = in;
+            this.csv = csv;
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        private boolean isSeparator(int c) {
+            return Character.isWhitespace(c) || csv && (c == ',' || c == ';');
+        }
+
+        boolean next() throws IOException {
+            int c = read();
+            lineBreakBeforeToken = false;
+            while (c >= 0 && isSeparator(c)) {
+                if (c == '\n') {
+                    line++;
+                    lineBreakBeforeToken = true;
+                }
+                c = read();
+            }
+            if (c < 0) {
+                return false;
+            }
+            tokenLength = 0;
+            while (c >= 0 && !isSeparator(c)) {
+                if (tokenLength == token.length) {
+                    token = Arrays.copyOf(token, token.length * 2);
+                }
+                token[tokenLength++] = (char) c;
+                c = read();
+            }
+            if (c == '\n') {
+                // Перевод строки остаётся в буфере, чтобы следующая лексема знала о начале новой строки.
+                position--;
+            }
+            return true;
+        }
+
+        // Следующая лексема в той же строке.
+        boolean nextInLine() throws IOException {
+            return next() && !lineBreakBeforeToken;
+        }
+
+        void skipLine() throws IOException {
+            int c = read();
+            while (c >= 0 && c != '\n') {
+                c = read();
+            }
+            if (c == '\n') {
+                line++;
+            }
+        }
+
+        int line() {
+            return line;
+        }
+
+        boolean isNumber() {
+            return !Double.isNaN(parseDouble(token, 0, tokenLength)) || isNaNLiteral();
+        }
+
+        double number(String expected) throws IOException {
+            double value = parseDouble(token, 0, tokenLength);
+            if (Double.isNaN(value) && !isNaNLiteral()) {
+                throw new IOException("Invalid format: expected " + expected);
+            }
+            return value;
+        }
+
+        private boolean isNaNLiteral() {
+            return tokenLength == 3 && token[0] == 'N' && token[1] == 'a' && token[2] == 'N';
+        }
+    }
+}
@@ -1,79 +1,394 @@
 package functions;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class TabulatedFunctions {
     private static final double EPS = 1e-10;
+    private static final int IO_BLOCK_POINTS = 4096;
+    private static final int ADAPTIVE_INITIAL_DEPTH = 4;
+    private static final int ADAPTIVE_FORK_DEPTH = 10;
+    private static final int ADAPTIVE_MAX_DEPTH = 48;
+    public static final int DEFAULT_ADAPTIVE_MAX_POINTS = 1 << 20;
 
     private TabulatedFunctions() {}
 
     public static TabulatedFunction tabulate(Function function, double leftX, double rightX, int pointsCount) {
+        checkTabulation(function, leftX, rightX, pointsCount);
+
+        double step = (rightX - leftX) / (pointsCount - 1);
+        double[] ys = new double[pointsCount + 5];
+        fillValues(function, ys, leftX, step, 0, pointsCount);
+        return new UniformGridTabulatedFunction(leftX, step, ys, pointsCount);
+    }
+
+    /**
+     * Параллельный вариант {@link #tabulate(Function, double, double, int)}: сетка делится на блоки
+     * не длиннее chunkSize, которые вычисляются в пуле fork-join из parallelism потоков.
+     * Сетка и значения совпадают с последовательным вариантом; функция должна допускать
+     * одновременное вычисление из нескольких потоков.
+     */
+    public static TabulatedFunction tabulate(Function function, double leftX, double rightX, int pointsCount,
+                                             int parallelism, int chunkSize) {
+        checkTabulation(function, leftX, rightX, pointsCount);
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism < 1");
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize < 1");
+
+        double step = (rightX - leftX) / (pointsCount - 1);
+        double[] ys = new double[pointsCount + 5];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new TabulateTask(function, ys, leftX, step, 0, pointsCount, chunkSize));
+        } finally {
+            pool.shutdown();
+        }
+        return new UniformGridTabulatedFunction(leftX, step, ys, pointsCount);
+    }
+
+    private static void checkTabulation(Function function, double leftX, double rightX, int pointsCount) {
         if (leftX < function.getLeftDomainBorder() - EPS || rightX > function.getRightDomainBorder() + EPS)
             throw new IllegalArgumentException("Границы табулирования выходят за область определения функции");
         if (pointsCount < 2) throw new IllegalArgumentException("pointsCount < 2");
+        if (leftX >= rightX) throw new IllegalArgumentException("leftX >= rightX");
+    }
 
-        double step = (rightX - leftX) / (pointsCount - 1);
-        FunctionPoint[] pts = new FunctionPoint[pointsCount];
-        for (int i = 0; i < pointsCount; i++) {
-            double x = leftX + i * step;
-            pts[i] = new FunctionPoint(x, function.getFunctionValue(x));
+    // Абсциссы записываются прямо в ys и затем заменяются значениями функции на месте.
+    private static void fillValues(Function function, double[] ys, double leftX, double step, int from, int to) {
+        for (int i = from; i < to; i++) {
+            ys[i] = leftX + i * step;
         }
-        return new ArrayTabulatedFunction(pts);
+        function.evaluate(ys, ys, from, to);
     }
 
-    public static void outputTabulatedFunction(TabulatedFunction function, OutputStream out) throws IOException {
-        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out));
-        try {
-            dos.writeInt(function.getPointsCount());
-            for (int i = 0; i < function.getPointsCount(); i++) {
-                dos.writeDouble(function.getPointX(i));
-                dos.writeDouble(function.getPointY(i));
+    private static final class TabulateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Function function;
+        private final double[] ys;
+        private final double leftX;
+        private final double step;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        TabulateTask(Function function, double[] ys, double leftX, double step, int from, int to, int chunkSize) {
+            this.function = function;
+            this.ys = ys;
+            this.leftX = leftX;
+            this.step = step;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                fillValues(function, ys, leftX, step, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new TabulateTask(function, ys, leftX, step, from, mid, chunkSize),
+                    new TabulateTask(function, ys, leftX, step, mid, to, chunkSize));
+        }
+    }
+
+    /**
+     * Табулирует функцию на неравномерной сетке: отрезок делится пополам только там, где линейная
+     * интерполяция по его концам отличается от значения функции больше чем на maxError в середине
+     * или в четвертях отрезка. Вычисленные в этих точках значения переиспользуются при делении.
+     * Первые 4 уровня делятся всегда, чтобы не пропустить особенности, симметричные относительно
+     * середины всего интервала. Деление прекращается на глубине 48 или когда соседние абсциссы стали бы
+     * неразличимы для {@link MathUtil}. Отрезок, на котором все вычисленные значения бесконечны или
+     * не определены, не делится. Поддеревья обрабатываются параллельно в общем пуле fork-join,
+     * поэтому функция должна допускать одновременное вычисление из нескольких потоков.
+     * <p>
+     * Точек не больше {@link #DEFAULT_ADAPTIVE_MAX_POINTS}; см. {@link #tabulateAdaptive(Function, double, double, double, int)}.
+     */
+    public static TabulatedFunction tabulateAdaptive(Function function, double leftX, double rightX, double maxError) {
+        return tabulateAdaptive(function, leftX, rightX, maxError, DEFAULT_ADAPTIVE_MAX_POINTS);
+    }
+
+    /**
+     * То же, что {@link #tabulateAdaptive(Function, double, double, double)}, с пределом количества точек.
+     * Если для заданной точности точек нужно больше (например, функция зашумлена сильнее maxError),
+     * бросается {@link IllegalStateException}.
+     */
+    public static TabulatedFunction tabulateAdaptive(Function function, double leftX, double rightX, double maxError,
+                                                     int maxPoints) {
+        if (leftX < function.getLeftDomainBorder() - EPS || rightX > function.getRightDomainBorder() + EPS)
+            throw new IllegalArgumentException("Границы табулирования выходят за область определения функции");
+        if (leftX >= rightX) throw new IllegalArgumentException("leftX >= rightX");
+        if (!(maxError > 0)) throw new IllegalArgumentException("maxError должна быть положительной: " + maxError);
+        if (maxPoints < 2) throw new IllegalArgumentException("Предел количества точек должен быть не менее 2: " + maxPoints);
+
+        double midX = leftX + (rightX - leftX) / 2;
+        double leftY = function.getFunctionValue(leftX);
+        PointBuffer points = new PointBuffer(64);
+        points.add(leftX, leftY);
+        AdaptiveLimit limit = new AdaptiveLimit(maxPoints - 1);
+        points.addAll(ForkJoinPool.commonPool().invoke(new AdaptiveTask(function, maxError, limit,
+                leftX, leftY, midX, function.getFunctionValue(midX), rightX, function.getFunctionValue(rightX), 0)));
+        return points.toFunction();
+    }
+
+    // Оставшееся количество точек, общее для всех задач одного табулирования.
+    private static final class AdaptiveLimit {
+        private final int maxPoints;
+        private final AtomicInteger remaining;
+
+        AdaptiveLimit(int remaining) {
+            this.maxPoints = remaining + 1;
+            this.remaining = new AtomicInteger(remaining);
+        }
+
+        void take() {
+            if (remaining.decrementAndGet() < 0) {
+                throw new IllegalStateException("Адаптивное табулирование превысило предел в " + maxPoints
+                        + " точек: функция меняется быстрее, чем позволяет maxError");
             }
-            dos.flush();
-        } finally {
         }
     }
 
+    // Возвращает точки отрезка (a, b]: левый конец уже добавлен тем, кто обрабатывает отрезок слева.
+    private static final class AdaptiveTask extends RecursiveTask<PointBuffer> {
+        private static final long serialVersionUID = 1L;
+
+        private final Function function;
+        private final double maxError;
+        private final AdaptiveLimit limit;
+        private final double a;
+        private final double fa;
+        private final double m;
+        private final double fm;
+        private final double b;
+        private final double fb;
+        private final int depth;
+
+        AdaptiveTask(Function function, double maxError, AdaptiveLimit limit, double a, double fa, double m, double fm,
+                     double b, double fb, int depth) {
+            this.function = function;
+            this.maxError = maxError;
+            this.limit = limit;
+            this.a = a;
+            this.fa = fa;
+            this.m = m;
+            this.fm = fm;
+            this.b = b;
+            this.fb = fb;
+            this.depth = depth;
+        }
+
+        @Override
+        protected PointBuffer compute() {
+            PointBuffer points = new PointBuffer(16);
+            if (depth >= ADAPTIVE_FORK_DEPTH) {
+                refine(points, a, fa, m, fm, b, fb, depth);
+                return points;
+            }
+
+            double q1 = a + (m - a) / 2;
+            double q3 = m + (b - m) / 2;
+            if (!divisible(a, q1, m) || !divisible(m, q3, b)) {
+                add(points, b, fb);
+                return points;
+            }
+            double fq1 = function.getFunctionValue(q1);
+            double fq3 = function.getFunctionValue(q3);
+            if (depth >= ADAPTIVE_INITIAL_DEPTH && (accurate(fa, fq1, fm, fq3, fb) || undefined(fa, fq1, fm, fq3, fb))) {
+                add(points, b, fb);
+                return points;
+            }
+
+            AdaptiveTask left = new AdaptiveTask(function, maxError, limit, a, fa, q1, fq1, m, fm, depth + 1);
+            AdaptiveTask right = new AdaptiveTask(function, maxError, limit, m, fm, q3, fq3, b, fb, depth + 1);
+            left.fork();
+            PointBuffer rightPoints = right.compute();
+            points.addAll(left.join());
+            points.addAll(rightPoints);
+            return points;
+        }
+
+        private void refine(PointBuffer points, double a, double fa, double m, double fm, double b, double fb, int depth) {
+            double q1 = a + (m - a) / 2;
+            double q3 = m + (b - m) / 2;
+            if (depth < ADAPTIVE_MAX_DEPTH && divisible(a, q1, m) && divisible(m, q3, b)) {
+                double fq1 = function.getFunctionValue(q1);
+                double fq3 = function.getFunctionValue(q3);
+                if (!accurate(fa, fq1, fm, fq3, fb) && !undefined(fa, fq1, fm, fq3, fb)) {
+                    refine(points, a, fa, q1, fq1, m, fm, depth + 1);
+                    refine(points, m, fm, q3, fq3, b, fb, depth + 1);
+                    return;
+                }
+            }
+            add(points, b, fb);
+        }
+
+        private void add(PointBuffer points, double x, double y) {
+            limit.take();
+            points.add(x, y);
+        }
+
+        // Все значения на отрезке бесконечны или не определены: делить его бессмысленно.
+        private static boolean undefined(double fa, double fq1, double fm, double fq3, double fb) {
+            return !Double.isFinite(fa) && !Double.isFinite(fq1) && !Double.isFinite(fm)
+                    && !Double.isFinite(fq3) && !Double.isFinite(fb);
+        }
+
+        private static boolean divisible(double left, double middle, double right) {
+            return MathUtil.less(left, middle) && MathUtil.less(middle, right);
+        }
+
+        // Сравнение с хордой через (a, fa) и (b, fb) в точках a + h/4, a + h/2, a + 3h/4.
+        // Бесконечные и неопределённые значения всегда считаются неточными.
+        private boolean accurate(double fa, double fq1, double fm, double fq3, double fb) {
+            double d = fb - fa;
+            return Math.abs(fq1 - (fa + d / 4)) <= maxError
+                    && Math.abs(fm - (fa + d / 2)) <= maxError
+                    && Math.abs(fq3 - (fa + 3 * d / 4)) <= maxError;
+        }
+    }
+
+    public static void outputTabulatedFunction(TabulatedFunction function, OutputStream out) throws IOException {
+        outputTabulatedFunction(function, Channels.newChannel(out));
+        out.flush();
+    }
+
     public static TabulatedFunction inputTabulatedFunction(InputStream in) throws IOException {
-        DataInputStream dis = new DataInputStream(new BufferedInputStream(in));
-        int n = dis.readInt();
-        FunctionPoint[] pts = new FunctionPoint[n];
-        for (int i = 0; i < n; i++) {
-            double x = dis.readDouble();
-            double y = dis.readDouble();
-            pts[i] = new FunctionPoint(x, y);
+        return inputTabulatedFunction(Channels.newChannel(in));
+    }
+
+    /**
+     * Записывает функцию в том же формате, что и {@link #outputTabulatedFunction(TabulatedFunction, OutputStream)}:
+     * int с количеством точек и пары (x, y) типа double в порядке big-endian.
+     * Точки переносятся блоками: блок выгружается из функции, чередуется в массив пар (x, y)
+     * и целиком кладётся в прямой буфер.
+     */
+    public static void outputTabulatedFunction(TabulatedFunction function, WritableByteChannel out) throws IOException {
+        int n = function.getPointsCount();
+        ByteBuffer header = ByteBuffer.allocate(4).putInt(n);
+        header.flip();
+        ByteBuffer payload = ByteBuffer.allocateDirect(Math.min(n, IO_BLOCK_POINTS) * 16);
+        DoubleBuffer doubles = payload.asDoubleBuffer();
+        double[] xs = new double[Math.min(n, IO_BLOCK_POINTS)];
+        double[] ys = new double[xs.length];
+        double[] pairs = new double[2 * xs.length];
+
+        for (int from = 0; from < n || header.hasRemaining(); from += xs.length) {
+            int to = Math.min(n, from + xs.length);
+            function.exportPoints(from, to, xs, ys);
+            for (int i = 0; i < to - from; i++) {
+                pairs[2 * i] = xs[i];
+                pairs[2 * i + 1] = ys[i];
+            }
+            doubles.clear();
+            doubles.put(pairs, 0, 2 * (to - from));
+            payload.clear().limit(16 * (to - from));
+
+            if (header.hasRemaining() && out instanceof GatheringByteChannel) {
+                ByteBuffer[] both = {header, payload};
+                while (payload.hasRemaining()) {
+                    ((GatheringByteChannel) out).write(both);
+                }
+            }
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            while (payload.hasRemaining()) {
+                out.write(payload);
+            }
         }
-        return new ArrayTabulatedFunction(pts);
     }
 
-    public static void writeTabulatedFunction(TabulatedFunction function, Writer out) throws IOException {
-        PrintWriter pw = new PrintWriter(new BufferedWriter(out));
-        try {
-            StringBuilder sb = new StringBuilder();
-            sb.append(function.getPointsCount());
-            for (int i = 0; i < function.getPointsCount(); i++) {
-                sb.append(' ').append(function.getPointX(i)).append(' ').append(function.getPointY(i));
+    public static TabulatedFunction inputTabulatedFunction(ReadableByteChannel in) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4);
+        readFully(in, header);
+        int n = header.getInt(0);
+        if (n < 0) throw new IOException("Invalid format: negative number of points");
+
+        double[] xs = new double[n + 5];
+        double[] ys = new double[n + 5];
+        ByteBuffer payload = ByteBuffer.allocateDirect(Math.min(n, IO_BLOCK_POINTS) * 16);
+        DoubleBuffer doubles = payload.asDoubleBuffer();
+        double[] pairs = new double[2 * Math.min(n, IO_BLOCK_POINTS)];
+        for (int from = 0; from < n; from += IO_BLOCK_POINTS) {
+            int count = Math.min(IO_BLOCK_POINTS, n - from);
+            payload.clear().limit(16 * count);
+            readFully(in, payload);
+            doubles.clear();
+            doubles.get(pairs, 0, 2 * count);
+            for (int i = 0; i < count; i++) {
+                xs[from + i] = pairs[2 * i];
+                ys[from + i] = pairs[2 * i + 1];
             }
-            pw.println(sb.toString());
-            pw.flush();
-        } finally {
         }
+        return ArrayTabulatedFunction.ofChecked(xs, ys, n);
+    }
+
+    private static void readFully(ReadableByteChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) throw new EOFException();
+        }
+    }
+
+    // Копия набора точек, упорядоченная по x; совпадающие абсциссы внутри набора недопустимы.
+    static FunctionPoint[] sortPoints(FunctionPoint[] points) {
+        if (points == null) {
+            throw new IllegalArgumentException("Массив точек не может быть null");
+        }
+        FunctionPoint[] sorted = points.clone();
+        Arrays.sort(sorted, Comparator.comparingDouble(FunctionPoint::getX));
+        for (int i = 1; i < sorted.length; i++) {
+            if (!MathUtil.less(sorted[i - 1].getX(), sorted[i].getX())) {
+                throw new InappropriateFunctionPointException("Точка с X=" + sorted[i].getX() + " встречается в наборе дважды");
+            }
+        }
+        return sorted;
+    }
+
+    static void checkDeleteRange(int from, int to, int pointsCount) {
+        checkRange(from, to, pointsCount);
+        checkRemaining(pointsCount, to - from);
+    }
+
+    static void checkRange(int from, int to, int pointsCount) {
+        if (from < 0 || to > pointsCount || from > to) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                    "Диапазон [" + from + ", " + to + ") вне диапазона [0, " + pointsCount + ")");
+        }
+    }
+
+    static void checkRemaining(int pointsCount, int removed) {
+        if (removed > 0 && pointsCount - removed < 2) {
+            throw new IllegalStateException("Невозможно удалить точки: должно остаться минимум 2 точки");
+        }
+    }
+
+    public static void writeTabulatedFunction(TabulatedFunction function, Writer out) throws IOException {
+        TabulatedFunctionTextCodec.write(function, out, false);
     }
 
     public static TabulatedFunction readTabulatedFunction(Reader in) throws IOException {
-        StreamTokenizer st = new StreamTokenizer(in);
-        st.parseNumbers();
-        int n;
-        if (st.nextToken() != StreamTokenizer.TT_NUMBER) throw new IOException("Invalid format: expected number of points");
-        n = (int) st.nval;
-        FunctionPoint[] pts = new FunctionPoint[n];
-        for (int i = 0; i < n; i++) {
-            if (st.nextToken() != StreamTokenizer.TT_NUMBER) throw new IOException("Invalid format: expected x");
-            double x = st.nval;
-            if (st.nextToken() != StreamTokenizer.TT_NUMBER) throw new IOException("Invalid format: expected y");
-            double y = st.nval;
-            pts[i] = new FunctionPoint(x, y);
-        }
-        return new ArrayTabulatedFunction(pts);
+        return TabulatedFunctionTextCodec.read(in);
+    }
+
+    // Текстовый формат с одной точкой "x,y" на строку; при чтении допускается строка-заголовок.
+    public static void writeTabulatedFunctionCsv(TabulatedFunction function, Writer out) throws IOException {
+        TabulatedFunctionTextCodec.write(function, out, true);
+    }
+
+    public static TabulatedFunction readTabulatedFunctionCsv(Reader in) throws IOException {
+        return TabulatedFunctionTextCodec.readCsv(in);
     }
 }
@@ -0,0 +1,477 @@
+package functions;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Табулированная функция на равномерной сетке: хранит только левую границу, шаг и значения y.
+ * Абсцисса i-й точки вычисляется как leftX + i * step, отрезок для x находится за O(1).
+ * Если изменение нарушает равномерность сетки, функция переходит на представление
+ * {@link ArrayTabulatedFunction} и дальше работает через него. Так же функция переходит на него
+ * при выборе кубической интерполяции: наклоны сплайна хранятся только в общем представлении.
+ */
+public class UniformGridTabulatedFunction implements TabulatedFunction, Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    // Первый байт внешней формы. Равномерная форма с y без сжатия только читается.
+    private static final int GENERAL_FORM = 0;
+    private static final int UNIFORM_FORM = 1;
+    private static final int COMPACT_FORM = 2;
+
+    private double leftX;
+    private double step;
+    // Куски значений разделяются со снимками и копируются по одному перед первой записью в них.
+    private ChunkedDoubleArray ys;
+    private int pointsCount;
+    private ArrayTabulatedFunction general;
+
+    public UniformGridTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        this(leftX, rightX, new double[checkPointsCount(pointsCount)]);
+    }
+
+    public UniformGridTabulatedFunction(double leftX, double rightX, double[] values) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой: " + leftX + " >= " + rightX);
+        }
+        checkPointsCount(values.length);
+
+        this.leftX = leftX;
+        this.step = (rightX - leftX) / (values.length - 1);
+        this.pointsCount = values.length;
+        this.ys = new ChunkedDoubleArray(pointsCount + 5);
+        ys.copyFrom(values, 0, 0, pointsCount);
+    }
+
+    // Принимает массив значений без копирования, если он помещается в один кусок.
+    UniformGridTabulatedFunction(double leftX, double step, double[] ys, int pointsCount) {
+        this.leftX = leftX;
+        this.step = step;
+        this.ys = ChunkedDoubleArray.of(ys);
+        this.pointsCount = pointsCount;
+    }
+
+    public UniformGridTabulatedFunction() {
+    }
+
+    private static int checkPointsCount(int pointsCount) {
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2: " + pointsCount);
+        }
+        return pointsCount;
+    }
+
+    public boolean isUniform() {
+        return general == null;
+    }
+
+    private double x(int index) {
+        return leftX + index * step;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(index, pointsCount);
+        }
+    }
+
+    // Проверки общего представления выполняются до перехода к нему: неудачное изменение не должно менять представление.
+    private void checkX(int index, double x) {
+        if (index > 0 && !MathUtil.greater(x, x(index - 1))) {
+            throw new InappropriateFunctionPointException(
+                    "X координата " + x + " должна быть больше предыдущей " + x(index - 1));
+        }
+        if (index < pointsCount - 1 && !MathUtil.less(x, x(index + 1))) {
+            throw new InappropriateFunctionPointException(
+                    "X координата " + x + " должна быть меньше следующей " + x(index + 1));
+        }
+    }
+
+    private void checkAbsent(double x) {
+        int nearest = (int) Math.rint((x - leftX) / step);
+        for (int i = Math.max(nearest - 1, 0); i <= nearest + 1 && i < pointsCount; i++) {
+            if (MathUtil.equals(x, x(i))) {
+                throw new InappropriateFunctionPointException("Точка с X=" + x + " уже существует");
+            }
+        }
+    }
+
+    private ArrayTabulatedFunction toGeneral() {
+        if (general == null) {
+            ChunkedDoubleArray xs = new ChunkedDoubleArray(ys.capacity());
+            for (int i = 0; i < pointsCount; i++) {
+                xs.set(i, x(i));
+            }
+            general = new ArrayTabulatedFunction(xs, ys, pointsCount);
+            ys = null;
+        }
+        return general;
+    }
+
+    public double getLeftDomainBorder() {
+        if (general != null) return general.getLeftDomainBorder();
+        return leftX;
+    }
+
+    public double getRightDomainBorder() {
+        if (general != null) return general.getRightDomainBorder();
+        return x(pointsCount - 1);
+    }
+
+    public double getFunctionValue(double x) {
+        if (general != null) return general.getFunctionValue(x);
+
+        if (MathUtil.less(x, leftX) || MathUtil.greater(x, x(pointsCount - 1))) {
+            return Double.NaN;
+        }
+        return interpolate(x);
+    }
+
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        if (general != null) {
+            general.evaluate(xs, out, from, to);
+            return;
+        }
+        double right = x(pointsCount - 1);
+        for (int k = from; k < to; k++) {
+            double x = xs[k];
+            out[k] = MathUtil.less(x, leftX) || MathUtil.greater(x, right) ? Double.NaN : interpolate(x);
+        }
+    }
+
+    private double interpolate(double x) {
+        int i = (int) ((x - leftX) / step);
+        if (i < 0) {
+            i = 0;
+        } else if (i > pointsCount - 2) {
+            i = pointsCount - 2;
+        }
+        // Деление могло округлиться на соседний отрезок.
+        if (i > 0 && x < x(i)) {
+            i--;
+        } else if (i < pointsCount - 2 && x > x(i + 1)) {
+            i++;
+        }
+
+        double x1 = x(i);
+        double x2 = x(i + 1);
+        if (MathUtil.equals(x, x1)) {
+            return ys.get(i);
+        }
+        if (MathUtil.equals(x, x2)) {
+            return ys.get(i + 1);
+        }
+        double y1 = ys.get(i);
+        return y1 + (ys.get(i + 1) - y1) * (x - x1) / (x2 - x1);
+    }
+
+    public int getPointsCount() {
+        if (general != null) return general.getPointsCount();
+        return pointsCount;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        if (general != null) return general.getPoint(index);
+        checkIndex(index);
+        return new FunctionPoint(x(index), ys.get(index));
+    }
+
+    public void setPoint(int index, FunctionPoint point) {
+        if (general == null) {
+            checkIndex(index);
+            if (point.getX() == x(index)) {
+                ys.set(index, point.getY());
+                return;
+            }
+            checkX(index, point.getX());
+        }
+        toGeneral().setPoint(index, point);
+    }
+
+    public double getPointX(int index) {
+        if (general != null) return general.getPointX(index);
+        checkIndex(index);
+        return x(index);
+    }
+
+    public void setPointX(int index, double x) {
+        if (general == null) {
+            checkIndex(index);
+            if (x == x(index)) {
+                return;
+            }
+            checkX(index, x);
+        }
+        toGeneral().setPointX(index, x);
+    }
+
+    public double getPointY(int index) {
+        if (general != null) return general.getPointY(index);
+        checkIndex(index);
+        return ys.get(index);
+    }
+
+    public void setPointY(int index, double y) {
+        if (general != null) {
+            general.setPointY(index, y);
+            return;
+        }
+        checkIndex(index);
+        ys.set(index, y);
+    }
+
+    public void deletePoint(int index) {
+        if (general == null) {
+            if (pointsCount <= 2) {
+                throw new IllegalStateException("Невозможно удалить точку: должно остаться минимум 2 точки");
+            }
+            checkIndex(index);
+            if (index == pointsCount - 1) {
+                pointsCount--;
+                return;
+            }
+        }
+        toGeneral().deletePoint(index);
+    }
+
+    public void addPoint(FunctionPoint point) {
+        if (general == null) {
+            double x = point.getX();
+            checkAbsent(x);
+            if (x == x(pointsCount)) {
+                ys.ensureCapacity(pointsCount + 1);
+                ys.set(pointsCount++, point.getY());
+                return;
+            }
+        }
+        toGeneral().addPoint(point);
+    }
+
+    @Override
+    public Interpolation getInterpolation() {
+        if (general != null) return general.getInterpolation();
+        return Interpolation.LINEAR;
+    }
+
+    @Override
+    public void setInterpolation(Interpolation interpolation) {
+        if (general == null && interpolation == Interpolation.LINEAR) {
+            return;
+        }
+        toGeneral().setInterpolation(interpolation);
+    }
+
+    @Override
+    public void forEachPoint(PointConsumer action) {
+        if (general != null) {
+            general.forEachPoint(action);
+            return;
+        }
+        for (int i = 0; i < pointsCount; i++) {
+            action.accept(x(i), ys.get(i));
+        }
+    }
+
+    @Override
+    public double[] copyXs(double[] dest) {
+        if (general != null) return general.copyXs(dest);
+        double[] xs = dest != null && dest.length >= pointsCount ? dest : new double[pointsCount];
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = x(i);
+        }
+        return xs;
+    }
+
+    @Override
+    public double[] copyYs(double[] dest) {
+        if (general != null) return general.copyYs(dest);
+        double[] result = dest != null && dest.length >= pointsCount ? dest : new double[pointsCount];
+        ys.copyTo(0, result, 0, pointsCount);
+        return result;
+    }
+
+    @Override
+    public void exportPoints(int from, int to, double[] x, double[] y) {
+        if (general != null) {
+            general.exportPoints(from, to, x, y);
+            return;
+        }
+        TabulatedFunctions.checkRange(from, to, pointsCount);
+        for (int i = from; i < to; i++) {
+            x[i - from] = x(i);
+        }
+        ys.copyTo(from, y, 0, to - from);
+    }
+
+    @Override
+    public void addPoints(FunctionPoint[] points) {
+        if (general == null) {
+            for (FunctionPoint point : TabulatedFunctions.sortPoints(points)) {
+                checkAbsent(point.getX());
+            }
+            if (points.length == 0) {
+                return;
+            }
+        }
+        toGeneral().addPoints(points);
+    }
+
+    // Удаление хвоста сохраняет равномерную сетку.
+    @Override
+    public void deleteRange(int from, int to) {
+        if (general == null) {
+            TabulatedFunctions.checkDeleteRange(from, to, pointsCount);
+            if (from == to) {
+                return;
+            }
+            if (to == pointsCount) {
+                pointsCount = from;
+                return;
+            }
+        }
+        toGeneral().deleteRange(from, to);
+    }
+
+    @Override
+    public boolean removeIf(PointPredicate predicate) {
+        if (general != null) return general.removeIf(predicate);
+
+        boolean[] removed = new boolean[pointsCount];
+        int count = 0;
+        int keep = 0;
+        for (int i = 0; i < pointsCount; i++) {
+            if (predicate.test(x(i), ys.get(i))) {
+                removed[i] = true;
+                count++;
+            } else {
+                keep = i + 1;
+            }
+        }
+        TabulatedFunctions.checkRemaining(pointsCount, count);
+        if (count == 0) {
+            return false;
+        }
+        if (keep == pointsCount - count) {
+            pointsCount = keep;
+        } else {
+            toGeneral().removeMarked(removed);
+        }
+        return true;
+    }
+
+    /**
+     * Снимок за O(1): снимку отдаются левая граница, шаг и куски массива значений без копирования.
+     * Изменение значения после снимка копирует только его кусок из 1024 значений.
+     */
+    @Override
+    public TabulatedFunction snapshot() {
+        if (general != null) return general.snapshot();
+        return new TabulatedFunctionSnapshot(leftX, step, ys.share(), pointsCount);
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        if (general != null) {
+            out.writeByte(GENERAL_FORM);
+            general.writeExternal(out);
+            return;
+        }
+        out.writeByte(COMPACT_FORM);
+        CompactExternalForm.writeUniform(out, leftX, step, copyYs(null), pointsCount);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        int form = in.readUnsignedByte();
+        if (form == GENERAL_FORM) {
+            general = new ArrayTabulatedFunction();
+            general.readExternal(in);
+            ys = null;
+            return;
+        }
+        if (form == COMPACT_FORM) {
+            CompactExternalForm compact = CompactExternalForm.read(in, in.readInt(), 5);
+            if (compact.uniform && compact.interpolation == Interpolation.LINEAR) {
+                general = null;
+                leftX = compact.leftX;
+                step = compact.step;
+                pointsCount = compact.pointsCount;
+                ys = ChunkedDoubleArray.of(compact.ys);
+            } else {
+                general = new ArrayTabulatedFunction(compact.xs, compact.ys, compact.pointsCount);
+                general.setInterpolation(compact.interpolation);
+                ys = null;
+            }
+            return;
+        }
+        if (form != UNIFORM_FORM) {
+            throw new InvalidObjectException("Неизвестная внешняя форма: " + form);
+        }
+        general = null;
+        leftX = in.readDouble();
+        step = in.readDouble();
+        pointsCount = in.readInt();
+        ys = new ChunkedDoubleArray(pointsCount + 5);
+        for (int i = 0; i < pointsCount; i++) {
+            ys.set(i, in.readDouble());
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (general != null) return general.toString();
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (int i = 0; i < pointsCount; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("(").append(x(i)).append("; ").append(ys.get(i)).append(")");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (general != null) return general.equals(o);
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+        TabulatedFunction tf = (TabulatedFunction) o;
+        if (pointsCount != tf.getPointsCount()) return false;
+        if (tf.getInterpolation() != Interpolation.LINEAR) return false;
+
+        for (int i = 0; i < pointsCount; i++) {
+            if (!MathUtil.equals(x(i), tf.getPointX(i))) return false;
+            if (!MathUtil.equals(ys.get(i), tf.getPointY(i))) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        if (general != null) return general.hashCode();
+        int h = pointsCount;
+        for (int i = 0; i < pointsCount; i++) {
+            long lx = Double.doubleToLongBits(x(i));
+            long ly = Double.doubleToLongBits(ys.get(i));
+            h ^= (int) (lx ^ (lx >>> 32)) ^ (int) (ly ^ (ly >>> 32));
+        }
+        return h;
+    }
+
+    @Override
+    public Object clone() {
+        UniformGridTabulatedFunction copy = new UniformGridTabulatedFunction();
+        if (general != null) {
+            copy.general = (ArrayTabulatedFunction) general.clone();
+            return copy;
+        }
+        copy.leftX = leftX;
+        copy.step = step;
+        copy.pointsCount = pointsCount;
+        copy.ys = ys.copy(pointsCount, pointsCount + 5);
+        return copy;
+    }
+}
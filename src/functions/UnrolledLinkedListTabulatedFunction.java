@@ -0,0 +1,623 @@
+package functions;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+
+/**
+ * Табулированная функция на развёрнутом (unrolled) двусвязном кольцевом списке.
+ * <p>
+ * Каждый узел хранит до {@value #BLOCK_SIZE} точек в примитивных массивах, поэтому точка занимает
+ * 16 байт вместо отдельных объектов узла и {@link FunctionPoint}, а обход идёт по подряд лежащим
+ * элементам. При вставке в заполненный узел он делится пополам, а опустевший наполовину узел
+ * сливается с соседним, если их точки помещаются в один узел.
+ * <p>
+ * Узлы дополнительно перечислены по порядку в массиве-оглавлении вместе с индексами их первых точек,
+ * так что узел по индексу или по x находится бинарным поиском. Индексы первых точек пересчитываются
+ * лениво, начиная с первого изменившегося узла.
+ * <p>
+ * Поддерживается только линейная интерполяция; для кубических сплайнов используйте
+ * {@link ArrayTabulatedFunction} или {@link LinkedListTabulatedFunction}.
+ */
+public class UnrolledLinkedListTabulatedFunction implements TabulatedFunction, Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    static final int BLOCK_SIZE = 64;
+
+    private static class Block {
+        final double[] xs = new double[BLOCK_SIZE];
+        final double[] ys = new double[BLOCK_SIZE];
+        int size;
+        // Номер узла в оглавлении.
+        int ordinal;
+        Block prev;
+        Block next;
+    }
+
+    private Block head;
+    private int pointsCount;
+    private Block[] blocks;
+    private int[] starts;
+    private int blockCount;
+    // Индексы первых точек верны для узлов с номерами меньше validStarts.
+    private int validStarts;
+    // Номер последнего узла, к которому обращались по индексу.
+    private int lastAccessed;
+
+    public UnrolledLinkedListTabulatedFunction() {
+        clear();
+    }
+
+    public UnrolledLinkedListTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        this();
+
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой: " + leftX + " >= " + rightX);
+        }
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2: " + pointsCount);
+        }
+
+        double step = (rightX - leftX) / (pointsCount - 1);
+        for (int i = 0; i < pointsCount; i++) {
+            appendPoint(leftX + i * step, 0);
+        }
+    }
+
+    public UnrolledLinkedListTabulatedFunction(double leftX, double rightX, double[] values) {
+        this();
+
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой: " + leftX + " >= " + rightX);
+        }
+        if (values.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2: " + values.length);
+        }
+
+        double step = (rightX - leftX) / (values.length - 1);
+        for (int i = 0; i < values.length; i++) {
+            appendPoint(leftX + i * step, values[i]);
+        }
+    }
+
+    public UnrolledLinkedListTabulatedFunction(FunctionPoint[] points) {
+        this();
+
+        if (points == null) {
+            throw new IllegalArgumentException("Массив точек не может быть null");
+        }
+        if (points.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2: " + points.length);
+        }
+
+        for (int i = 0; i < points.length - 1; i++) {
+            if (!MathUtil.less(points[i].getX(), points[i + 1].getX())) {
+                throw new IllegalArgumentException("Точки не упорядочены по X или содержат дубликаты");
+            }
+        }
+
+        for (FunctionPoint point : points) {
+            appendPoint(point.getX(), point.getY());
+        }
+    }
+
+    private void clear() {
+        head = new Block();
+        head.prev = head;
+        head.next = head;
+        head.ordinal = -1;
+        pointsCount = 0;
+        blocks = new Block[4];
+        starts = new int[4];
+        blockCount = 0;
+        validStarts = 0;
+        lastAccessed = 0;
+    }
+
+    private Block insertBlockAfter(Block block) {
+        Block created = new Block();
+        created.prev = block;
+        created.next = block.next;
+        block.next.prev = created;
+        block.next = created;
+
+        int ordinal = block.ordinal + 1;
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blockCount * 2);
+            starts = Arrays.copyOf(starts, blockCount * 2);
+        }
+        System.arraycopy(blocks, ordinal, blocks, ordinal + 1, blockCount - ordinal);
+        blocks[ordinal] = created;
+        blockCount++;
+        renumberFrom(ordinal);
+        return created;
+    }
+
+    private void removeBlock(Block block) {
+        block.prev.next = block.next;
+        block.next.prev = block.prev;
+
+        int ordinal = block.ordinal;
+        System.arraycopy(blocks, ordinal + 1, blocks, ordinal, blockCount - ordinal - 1);
+        blocks[--blockCount] = null;
+        renumberFrom(ordinal);
+    }
+
+    private void renumberFrom(int ordinal) {
+        for (int k = ordinal; k < blockCount; k++) {
+            blocks[k].ordinal = k;
+        }
+        validStarts = Math.min(validStarts, ordinal);
+    }
+
+    // Размер узла изменился: индексы первых точек следующих за ним узлов устарели.
+    private void sizeChanged(Block block) {
+        validStarts = Math.min(validStarts, block.ordinal + 1);
+    }
+
+    private void ensureStarts() {
+        for (int k = Math.max(validStarts, 1); k < blockCount; k++) {
+            starts[k] = starts[k - 1] + blocks[k - 1].size;
+        }
+        validStarts = blockCount;
+    }
+
+    private void appendPoint(double x, double y) {
+        Block tail = head.prev;
+        if (tail == head || tail.size == BLOCK_SIZE) {
+            tail = insertBlockAfter(tail);
+        }
+        tail.xs[tail.size] = x;
+        tail.ys[tail.size] = y;
+        tail.size++;
+        pointsCount++;
+        sizeChanged(tail);
+    }
+
+    // Номер узла, содержащего точку index.
+    private int blockOf(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(index, pointsCount);
+        }
+        ensureStarts();
+
+        int k = lastAccessed;
+        if (k < blockCount && starts[k] <= index && index < starts[k] + blocks[k].size) {
+            return k;
+        }
+        int lo = 0;
+        int hi = blockCount;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= index) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        lastAccessed = lo;
+        return lo;
+    }
+
+    private double pointX(int index) {
+        int k = blockOf(index);
+        return blocks[k].xs[index - starts[k]];
+    }
+
+    // Первый узел, последняя точка которого не меньше x (в смысле MathUtil), или последний узел списка.
+    // Позиция вставки x лежит именно в нём.
+    private Block blockForInsert(double x) {
+        int lo = 0;
+        int hi = blockCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            Block block = blocks[mid];
+            if (MathUtil.less(block.xs[block.size - 1], x)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return blocks[lo];
+    }
+
+    // Последний узел, первая точка которого не больше x, или первый узел, если таких нет.
+    private Block blockForValue(double x) {
+        int lo = 0;
+        int hi = blockCount;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (blocks[mid].xs[0] <= x) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return blocks[lo];
+    }
+
+    // Индекс последней точки узла с абсциссой не больше x, или 0, если таких нет.
+    private static int floorIndex(Block block, double x) {
+        int lo = 0;
+        int hi = block.size;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (block.xs[mid] <= x) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static double interpolate(double x1, double y1, double x2, double y2, double x) {
+        if (MathUtil.equals(x, x1)) {
+            return y1;
+        }
+        if (MathUtil.equals(x, x2)) {
+            return y2;
+        }
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    // Значение на отрезке, левый конец которого — точка i узла block; правый конец может лежать в следующем узле.
+    private double interpolate(Block block, int i, double x) {
+        if (i + 1 < block.size) {
+            return interpolate(block.xs[i], block.ys[i], block.xs[i + 1], block.ys[i + 1], x);
+        }
+        Block after = block.next;
+        return interpolate(block.xs[i], block.ys[i], after.xs[0], after.ys[0], x);
+    }
+
+    @Override
+    public void exportPoints(int from, int to, double[] xs, double[] ys) {
+        TabulatedFunctions.checkRange(from, to, pointsCount);
+        if (from == to) {
+            return;
+        }
+        int k = blockOf(from);
+        Block block = blocks[k];
+        int i = from - starts[k];
+        int copied = 0;
+        while (copied < to - from) {
+            int length = Math.min(block.size - i, to - from - copied);
+            System.arraycopy(block.xs, i, xs, copied, length);
+            System.arraycopy(block.ys, i, ys, copied, length);
+            copied += length;
+            block = block.next;
+            i = 0;
+        }
+    }
+
+    @Override
+    public void forEachPoint(PointConsumer action) {
+        for (Block block = head.next; block != head; block = block.next) {
+            for (int i = 0; i < block.size; i++) {
+                action.accept(block.xs[i], block.ys[i]);
+            }
+        }
+    }
+
+    @Override
+    public double[] copyXs(double[] dest) {
+        double[] xs = dest != null && dest.length >= pointsCount ? dest : new double[pointsCount];
+        int k = 0;
+        for (Block block = head.next; block != head; block = block.next) {
+            System.arraycopy(block.xs, 0, xs, k, block.size);
+            k += block.size;
+        }
+        return xs;
+    }
+
+    @Override
+    public double[] copyYs(double[] dest) {
+        double[] ys = dest != null && dest.length >= pointsCount ? dest : new double[pointsCount];
+        int k = 0;
+        for (Block block = head.next; block != head; block = block.next) {
+            System.arraycopy(block.ys, 0, ys, k, block.size);
+            k += block.size;
+        }
+        return ys;
+    }
+
+    public double getLeftDomainBorder() {
+        if (pointsCount == 0) {
+            throw new IllegalStateException("Функция не содержит точек");
+        }
+        return head.next.xs[0];
+    }
+
+    public double getRightDomainBorder() {
+        if (pointsCount == 0) {
+            throw new IllegalStateException("Функция не содержит точек");
+        }
+        return head.prev.xs[head.prev.size - 1];
+    }
+
+    public double getFunctionValue(double x) {
+        if (pointsCount == 0) return Double.NaN;
+
+        if (MathUtil.less(x, getLeftDomainBorder()) || MathUtil.greater(x, getRightDomainBorder())) {
+            return Double.NaN;
+        }
+        if (pointsCount == 1) {
+            return head.next.ys[0];
+        }
+
+        Block block = blockForValue(x);
+        int i = floorIndex(block, x);
+        if (block.next == head && i == block.size - 1) {
+            // x совпадает с последней точкой в пределах погрешности: берётся последний отрезок.
+            if (i == 0) {
+                block = block.prev;
+                i = block.size;
+            }
+            i--;
+        }
+        return interpolate(block, i, x);
+    }
+
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        if (pointsCount < 2) {
+            TabulatedFunction.super.evaluate(xs, out, from, to);
+            return;
+        }
+        double leftBorder = getLeftDomainBorder();
+        double rightBorder = getRightDomainBorder();
+
+        // Узел предыдущего аргумента и следующий за ним проверяются первыми, поэтому упорядоченный
+        // набор аргументов проходит список один раз.
+        Block block = head.next;
+        for (int k = from; k < to; k++) {
+            double x = xs[k];
+            if (MathUtil.less(x, leftBorder) || MathUtil.greater(x, rightBorder)) {
+                out[k] = Double.NaN;
+                continue;
+            }
+            if (!(block.xs[0] <= x && (block.next == head || x < block.next.xs[0]))) {
+                block = block.next != head && block.next.xs[0] <= x
+                        && (block.next.next == head || x < block.next.next.xs[0])
+                        ? block.next : blockForValue(x);
+            }
+            int i = floorIndex(block, x);
+            if (block.next == head && i == block.size - 1) {
+                Block left = block;
+                if (i == 0) {
+                    left = block.prev;
+                    i = left.size;
+                }
+                out[k] = interpolate(left, i - 1, x);
+            } else {
+                out[k] = interpolate(block, i, x);
+            }
+        }
+    }
+
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        int k = blockOf(index);
+        int i = index - starts[k];
+        return new FunctionPoint(blocks[k].xs[i], blocks[k].ys[i]);
+    }
+
+    public void setPoint(int index, FunctionPoint point) {
+        checkX(index, point.getX());
+        int k = blockOf(index);
+        int i = index - starts[k];
+        blocks[k].xs[i] = point.getX();
+        blocks[k].ys[i] = point.getY();
+    }
+
+    public double getPointX(int index) {
+        return pointX(index);
+    }
+
+    public void setPointX(int index, double x) {
+        checkX(index, x);
+        int k = blockOf(index);
+        blocks[k].xs[index - starts[k]] = x;
+    }
+
+    public double getPointY(int index) {
+        int k = blockOf(index);
+        return blocks[k].ys[index - starts[k]];
+    }
+
+    public void setPointY(int index, double y) {
+        int k = blockOf(index);
+        blocks[k].ys[index - starts[k]] = y;
+    }
+
+    private void checkX(int index, double x) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(index, pointsCount);
+        }
+        if (index > 0) {
+            double prevX = pointX(index - 1);
+            if (x <= prevX) {
+                throw new InappropriateFunctionPointException(
+                        "X координата " + x + " должна быть больше предыдущей " + prevX);
+            }
+        }
+        if (index < pointsCount - 1) {
+            double nextX = pointX(index + 1);
+            if (x >= nextX) {
+                throw new InappropriateFunctionPointException(
+                        "X координата " + x + " должна быть меньше следующей " + nextX);
+            }
+        }
+    }
+
+    public void deletePoint(int index) {
+        if (pointsCount <= 2) {
+            throw new IllegalStateException("Невозможно удалить точку: должно остаться минимум 2 точки");
+        }
+
+        int k = blockOf(index);
+        Block block = blocks[k];
+        int i = index - starts[k];
+        System.arraycopy(block.xs, i + 1, block.xs, i, block.size - i - 1);
+        System.arraycopy(block.ys, i + 1, block.ys, i, block.size - i - 1);
+        block.size--;
+        pointsCount--;
+        sizeChanged(block);
+
+        if (block.size == 0) {
+            removeBlock(block);
+        } else if (block.size < BLOCK_SIZE / 4) {
+            if (block.next != head && block.size + block.next.size <= BLOCK_SIZE) {
+                merge(block, block.next);
+            } else if (block.prev != head && block.prev.size + block.size <= BLOCK_SIZE) {
+                merge(block.prev, block);
+            }
+        }
+    }
+
+    // Переносит точки right в конец left и удаляет right из списка.
+    private void merge(Block left, Block right) {
+        System.arraycopy(right.xs, 0, left.xs, left.size, right.size);
+        System.arraycopy(right.ys, 0, left.ys, left.size, right.size);
+        left.size += right.size;
+        sizeChanged(left);
+        removeBlock(right);
+    }
+
+    public void addPoint(FunctionPoint point) {
+        double x = point.getX();
+        if (pointsCount == 0) {
+            appendPoint(x, point.getY());
+            return;
+        }
+
+        Block block = blockForInsert(x);
+        int lo = 0;
+        int hi = block.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (MathUtil.less(block.xs[mid], x)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int i = lo;
+
+        if (i < block.size && MathUtil.equals(block.xs[i], x)) {
+            throw new InappropriateFunctionPointException("Точка с X=" + x + " уже существует");
+        }
+
+        if (block.size == BLOCK_SIZE) {
+            Block right = insertBlockAfter(block);
+            int half = BLOCK_SIZE / 2;
+            System.arraycopy(block.xs, half, right.xs, 0, BLOCK_SIZE - half);
+            System.arraycopy(block.ys, half, right.ys, 0, BLOCK_SIZE - half);
+            right.size = BLOCK_SIZE - half;
+            block.size = half;
+            sizeChanged(block);
+            if (i > half) {
+                block = right;
+                i -= half;
+            }
+        }
+
+        System.arraycopy(block.xs, i, block.xs, i + 1, block.size - i);
+        System.arraycopy(block.ys, i, block.ys, i + 1, block.size - i);
+        block.xs[i] = x;
+        block.ys[i] = point.getY();
+        block.size++;
+        pointsCount++;
+        sizeChanged(block);
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        CompactExternalForm.write(out, copyXs(null), copyYs(null), pointsCount);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        int count = in.readInt();
+        clear();
+
+        if (count < 0) {
+            CompactExternalForm form = CompactExternalForm.read(in, count, 0);
+            for (int i = 0; i < form.pointsCount; i++) {
+                appendPoint(form.xs[i], form.ys[i]);
+            }
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            double x = in.readDouble();
+            double y = in.readDouble();
+            appendPoint(x, y);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        boolean first = true;
+        for (Block block = head.next; block != head; block = block.next) {
+            for (int i = 0; i < block.size; i++) {
+                if (!first) sb.append(", ");
+                sb.append("(").append(block.xs[i]).append("; ").append(block.ys[i]).append(")");
+                first = false;
+            }
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+        TabulatedFunction tf = (TabulatedFunction) o;
+        if (pointsCount != tf.getPointsCount()) return false;
+        if (tf.getInterpolation() != Interpolation.LINEAR) return false;
+
+        int index = 0;
+        for (Block block = head.next; block != head; block = block.next) {
+            for (int i = 0; i < block.size; i++, index++) {
+                if (!MathUtil.equals(block.xs[i], tf.getPointX(index))) return false;
+                if (!MathUtil.equals(block.ys[i], tf.getPointY(index))) return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = pointsCount;
+        for (Block block = head.next; block != head; block = block.next) {
+            for (int i = 0; i < block.size; i++) {
+                long lx = Double.doubleToLongBits(block.xs[i]);
+                long ly = Double.doubleToLongBits(block.ys[i]);
+                h ^= (int) (lx ^ (lx >>> 32)) ^ (int) (ly ^ (ly >>> 32));
+            }
+        }
+        return h;
+    }
+
+    @Override
+    public Object clone() {
+        UnrolledLinkedListTabulatedFunction copy = new UnrolledLinkedListTabulatedFunction();
+        for (Block block = head.next; block != head; block = block.next) {
+            Block copied = copy.insertBlockAfter(copy.head.prev);
+            System.arraycopy(block.xs, 0, copied.xs, 0, block.size);
+            System.arraycopy(block.ys, 0, copied.ys, 0, block.size);
+            copied.size = block.size;
+        }
+        copy.pointsCount = pointsCount;
+        copy.validStarts = 0;
+        return copy;
+    }
+}
@@ -18,4 +18,11 @@ public class Exp implements Function {
     public double getFunctionValue(double x) {
         return Math.exp(x);
     }
+
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = Math.exp(xs[i]);
+        }
+    }
 }
@@ -4,12 +4,18 @@ import functions.Function;
 
 public class Log implements Function {
     private final double base;
+    private final double lnBase;
 
     public Log(double base) {
         if (base <= 0.0 || Math.abs(base - 1.0) < 1e-15) {
             throw new IllegalArgumentException("Основание логарифма должно быть > 0 и != 1");
         }
         this.base = base;
+        this.lnBase = Math.log(base);
+    }
+
+    public double getBase() {
+        return base;
     }
 
     @Override
@@ -25,6 +31,14 @@ public class Log implements Function {
     @Override
     public double getFunctionValue(double x) {
         if (x <= 0.0) return Double.NaN;
-        return Math.log(x) / Math.log(base);
+        return Math.log(x) / lnBase;
+    }
+
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            out[i] = x <= 0.0 ? Double.NaN : Math.log(x) / lnBase;
+        }
     }
 }
@@ -11,6 +11,14 @@ public class Composition implements Function {
         this.inner = inner;
     }
 
+    public Function getOuter() {
+        return outer;
+    }
+
+    public Function getInner() {
+        return inner;
+    }
+
     @Override
     public double getLeftDomainBorder() {
         return inner.getLeftDomainBorder();
@@ -25,4 +33,10 @@ public class Composition implements Function {
     public double getFunctionValue(double x) {
         return outer.getFunctionValue(inner.getFunctionValue(x));
     }
+
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        inner.evaluate(xs, out, from, to);
+        outer.evaluate(out, out, from, to);
+    }
 }
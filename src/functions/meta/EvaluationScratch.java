@@ -0,0 +1,43 @@
+package functions.meta;
+
+import java.util.Arrays;
+
+/**
+ * Рабочие массивы для пакетного вычисления Sum и Mult, свои у каждого потока.
+ * <p>
+ * Узлы дерева вложены друг в друга, поэтому массивы выдаются стеком: каждый вызов evaluate
+ * берёт массив уровнем глубже и возвращает его по завершении. Длина массива ограничена
+ * {@link #CHUNK}, пакет большего размера обрабатывается частями.
+ */
+final class EvaluationScratch {
+    static final int CHUNK = 2048;
+
+    private static final ThreadLocal<EvaluationScratch> CURRENT = ThreadLocal.withInitial(EvaluationScratch::new);
+
+    private double[][] buffers = new double[4][];
+    private int depth;
+
+    private EvaluationScratch() {
+    }
+
+    static EvaluationScratch current() {
+        return CURRENT.get();
+    }
+
+    double[] acquire() {
+        if (depth == buffers.length) {
+            buffers = Arrays.copyOf(buffers, depth * 2);
+        }
+        double[] buffer = buffers[depth];
+        if (buffer == null) {
+            buffer = new double[CHUNK];
+            buffers[depth] = buffer;
+        }
+        depth++;
+        return buffer;
+    }
+
+    void release() {
+        depth--;
+    }
+}
@@ -0,0 +1,67 @@
+package functions.meta;
+
+import functions.Function;
+
+/**
+ * Целая степень функции, вычисляемая умножениями (возведение в квадрат) вместо {@link Math#pow}.
+ * Для |exponent| &lt;= 8 требуется не больше четырёх умножений и одного деления,
+ * поэтому результат отличается от Math.pow не более чем на 6 ULP.
+ */
+public class IntegerPower implements Function {
+    public static final int MAX_EXPONENT = 8;
+
+    private final Function base;
+    private final int exponent;
+
+    public IntegerPower(Function base, int exponent) {
+        if (exponent == 0 || Math.abs(exponent) > MAX_EXPONENT) {
+            throw new IllegalArgumentException("Показатель степени должен быть ненулевым и не больше " + MAX_EXPONENT + " по модулю: " + exponent);
+        }
+        this.base = base;
+        this.exponent = exponent;
+    }
+
+    public Function getBase() {
+        return base;
+    }
+
+    public int getExponent() {
+        return exponent;
+    }
+
+    @Override
+    public double getLeftDomainBorder() {
+        return base.getLeftDomainBorder();
+    }
+
+    @Override
+    public double getRightDomainBorder() {
+        return base.getRightDomainBorder();
+    }
+
+    @Override
+    public double getFunctionValue(double x) {
+        return pow(base.getFunctionValue(x), exponent);
+    }
+
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        base.evaluate(xs, out, from, to);
+        for (int i = from; i < to; i++) {
+            out[i] = pow(out[i], exponent);
+        }
+    }
+
+    public static double pow(double v, int exponent) {
+        int n = Math.abs(exponent);
+        double result = (n & 1) != 0 ? v : 1.0;
+        double square = v;
+        for (n >>= 1; n != 0; n >>= 1) {
+            square *= square;
+            if ((n & 1) != 0) {
+                result *= square;
+            }
+        }
+        return exponent < 0 ? 1.0 / result : result;
+    }
+}
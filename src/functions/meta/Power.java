@@ -11,6 +11,14 @@ public class Power implements Function {
         this.power = power;
     }
 
+    public Function getBase() {
+        return baseFunction;
+    }
+
+    public double getPower() {
+        return power;
+    }
+
     @Override
     public double getLeftDomainBorder() {
         return baseFunction.getLeftDomainBorder();
@@ -25,4 +33,12 @@ public class Power implements Function {
     public double getFunctionValue(double x) {
         return Math.pow(baseFunction.getFunctionValue(x), power);
     }
+
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        baseFunction.evaluate(xs, out, from, to);
+        for (int i = from; i < to; i++) {
+            out[i] = Math.pow(out[i], power);
+        }
+    }
 }
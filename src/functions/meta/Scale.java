@@ -14,6 +14,18 @@ public class Scale implements Function {
         this.scaleY = scaleY;
     }
 
+    public Function getBase() {
+        return base;
+    }
+
+    public double getScaleX() {
+        return scaleX;
+    }
+
+    public double getScaleY() {
+        return scaleY;
+    }
+
     @Override
     public double getLeftDomainBorder() {
         return base.getLeftDomainBorder() * scaleX;
@@ -28,4 +40,15 @@ public class Scale implements Function {
     public double getFunctionValue(double x) {
         return scaleY * base.getFunctionValue(x / scaleX);
     }
+
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = xs[i] / scaleX;
+        }
+        base.evaluate(out, out, from, to);
+        for (int i = from; i < to; i++) {
+            out[i] *= scaleY;
+        }
+    }
 }
@@ -13,6 +13,18 @@ public class Shift implements Function {
         this.shiftY = shiftY;
     }
 
+    public Function getBase() {
+        return base;
+    }
+
+    public double getShiftX() {
+        return shiftX;
+    }
+
+    public double getShiftY() {
+        return shiftY;
+    }
+
     @Override
     public double getLeftDomainBorder() {
         return base.getLeftDomainBorder() + shiftX;
@@ -27,4 +39,15 @@ public class Shift implements Function {
     public double getFunctionValue(double x) {
         return base.getFunctionValue(x - shiftX) + shiftY;
     }
+
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = xs[i] - shiftX;
+        }
+        base.evaluate(out, out, from, to);
+        for (int i = from; i < to; i++) {
+            out[i] += shiftY;
+        }
+    }
 }
@@ -11,6 +11,14 @@ public class Sum implements Function {
         this.f2 = f2;
     }
 
+    public Function getFirst() {
+        return f1;
+    }
+
+    public Function getSecond() {
+        return f2;
+    }
+
     @Override
     public double getLeftDomainBorder() {
         return Math.max(f1.getLeftDomainBorder(), f2.getLeftDomainBorder());
@@ -25,4 +33,24 @@ public class Sum implements Function {
     public double getFunctionValue(double x) {
         return f1.getFunctionValue(x) + f2.getFunctionValue(x);
     }
+
+    @Override
+    public void evaluate(double[] xs, double[] out, int from, int to) {
+        // xs и out могут совпадать, поэтому аргументы для f2 копируются до вычисления f1.
+        EvaluationScratch scratch = EvaluationScratch.current();
+        double[] second = scratch.acquire();
+        try {
+            for (int start = from, end; start < to; start = end) {
+                end = start + Math.min(to - start, EvaluationScratch.CHUNK);
+                System.arraycopy(xs, start, second, 0, end - start);
+                f2.evaluate(second, second, 0, end - start);
+                f1.evaluate(xs, out, start, end);
+                for (int i = start; i < end; i++) {
+                    out[i] += second[i - start];
+                }
+            }
+        } finally {
+            scratch.release();
+        }
+    }
 }
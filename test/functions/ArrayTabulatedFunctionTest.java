@@ -0,0 +1,133 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ArrayTabulatedFunctionTest {
+    private static final int CHUNK = ChunkedDoubleArray.CHUNK_SIZE;
+
+    private static ArrayTabulatedFunction function(int n) {
+        ArrayTabulatedFunction f = new ArrayTabulatedFunction(0, n - 1, n);
+        for (int i = 0; i < n; i++) {
+            f.setPointY(i, i * 0.5);
+        }
+        return f;
+    }
+
+    // Запись после снимка копирует только тот кусок, в который пишет; снимок её не видит.
+    @Test
+    void writeAfterSnapshotCopiesOnlyTouchedChunk() throws Exception {
+        ArrayTabulatedFunction f = function(5 * CHUNK);
+        TabulatedFunction snapshot = f.snapshot();
+        int index = 2 * CHUNK + 7;
+
+        f.setPointY(index, -1);
+
+        assertEquals(-1, f.getPointY(index));
+        assertEquals(index * 0.5, snapshot.getPointY(index));
+        assertEquals(index * 0.5, snapshot.getFunctionValue(index));
+        double[][] own = chunks(f, "ys");
+        double[][] shared = chunks(snapshot, "ys");
+        for (int c = 0; c < own.length; c++) {
+            if (c == 2) {
+                assertNotSame(shared[c], own[c]);
+            } else {
+                assertSame(shared[c], own[c], "кусок " + c);
+            }
+        }
+        double[][] xs = chunks(f, "xs");
+        double[][] snapshotXs = chunks(snapshot, "xs");
+        for (int c = 0; c < xs.length; c++) {
+            assertSame(snapshotXs[c], xs[c], "кусок xs " + c);
+        }
+    }
+
+    // Вставка сдвигает точки только справа от себя: куски левее остаются общими со снимком.
+    @Test
+    void insertAfterSnapshotKeepsLeftChunksShared() throws Exception {
+        int n = 4 * CHUNK;
+        ArrayTabulatedFunction f = function(n);
+        TabulatedFunction snapshot = f.snapshot();
+
+        f.addPoint(new FunctionPoint(3 * CHUNK + 0.5, 100));
+        f.deletePoint(n - 1);
+
+        assertEquals(n, snapshot.getPointsCount());
+        assertEquals(n, f.getPointsCount());
+        assertEquals(3 * CHUNK + 1, snapshot.getPointX(3 * CHUNK + 1));
+        assertEquals(3 * CHUNK + 0.5, f.getPointX(3 * CHUNK + 1));
+        double[][] own = chunks(f, "xs");
+        double[][] shared = chunks(snapshot, "xs");
+        for (int c = 0; c < 3; c++) {
+            assertSame(shared[c], own[c], "кусок " + c);
+        }
+        assertNotSame(shared[3], own[3]);
+    }
+
+    // Снимок сплайна не меняется вместе с наклонами функции.
+    @Test
+    void splineSnapshotIsIsolated() {
+        ArrayTabulatedFunction f = function(3 * CHUNK);
+        f.setInterpolation(Interpolation.MONOTONE_CUBIC);
+        TabulatedFunction snapshot = f.snapshot();
+        ArrayTabulatedFunction reference = (ArrayTabulatedFunction) f.clone();
+
+        f.setPointY(CHUNK, 1e6);
+        f.deletePoint(10);
+
+        for (double x = 0.25; x < 3 * CHUNK - 1; x += 97.3) {
+            assertEquals(reference.getFunctionValue(x), snapshot.getFunctionValue(x), "x = " + x);
+        }
+    }
+
+    // Сдвиги через границы кусков при вставке и удалении сверяются со списочной реализацией,
+    // а снимки, взятые по ходу, — с копиями точек на момент их создания.
+    @Test
+    void randomChurnMatchesLinkedList() {
+        int n = 3 * CHUNK;
+        ArrayTabulatedFunction f = function(n);
+        LinkedListTabulatedFunction reference = new LinkedListTabulatedFunction(0, n - 1, n);
+        for (int i = 0; i < n; i++) {
+            reference.setPointY(i, i * 0.5);
+        }
+        Random random = new Random(14);
+        TabulatedFunction snapshot = f.snapshot();
+        double[] snapshotXs = f.copyXs(null);
+        double[] snapshotYs = f.copyYs(null);
+        for (int step = 1; step <= 2000; step++) {
+            if (random.nextBoolean()) {
+                FunctionPoint point = new FunctionPoint(random.nextDouble() * (n - 1), random.nextDouble());
+                f.addPoint(point);
+                reference.addPoint(point);
+            } else {
+                int index = random.nextInt(f.getPointsCount());
+                f.deletePoint(index);
+                reference.deletePoint(index);
+            }
+            if (step % 250 == 0) {
+                assertArrayEquals(snapshotXs, snapshot.copyXs(null));
+                assertArrayEquals(snapshotYs, snapshot.copyYs(null));
+                snapshot = f.snapshot();
+                snapshotXs = f.copyXs(null);
+                snapshotYs = f.copyYs(null);
+            }
+        }
+        assertArrayEquals(reference.copyXs(null), f.copyXs(null));
+        assertArrayEquals(reference.copyYs(null), f.copyYs(null));
+    }
+
+    private static double[][] chunks(Object owner, String name) throws Exception {
+        Field array = owner.getClass().getDeclaredField(name);
+        array.setAccessible(true);
+        Field chunks = ChunkedDoubleArray.class.getDeclaredField("chunks");
+        chunks.setAccessible(true);
+        return (double[][]) chunks.get(array.get(owner));
+    }
+}
@@ -0,0 +1,70 @@
+package functions;
+
+import functions.basic.Sin;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BlockCompressedTabulatedFunctionTest {
+    @TempDir
+    Path dir;
+
+    // Запросы по очереди к большему числу блоков, чем помещается в кэш, из нескольких потоков.
+    @Test
+    void valuesMatchSourceUnderBlockChurn() throws Exception {
+        TabulatedFunction source = TabulatedFunctions.tabulate(new Sin(), 0, 100, 20_000);
+        Path path = dir.resolve("sin.tabz");
+        BlockCompressedTabulatedFunction.write(source, path, 1000);
+
+        try (BlockCompressedTabulatedFunction f = BlockCompressedTabulatedFunction.open(path)) {
+            assertEquals(20, f.getBlockCount());
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    int stride = 3 + 4 * t;
+                    results.add(pool.submit(() -> {
+                        for (int k = 0; k < 3_000; k++) {
+                            int index = (int) ((long) k * stride * 997 % 20_000);
+                            assertEquals(source.getPointY(index), f.getPointY(index));
+                            double x = source.getPointX(index) + 0.001;
+                            assertEquals(source.getFunctionValue(x), f.getFunctionValue(x), 1e-12);
+                        }
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // Размер буферов записи определяется таблицей, а не размером блока.
+    @Test
+    void hugeBlockSizeWritesSmallTable() throws Exception {
+        TabulatedFunction source = new ArrayTabulatedFunction(0, 1, new double[]{3, 1, 4, 1, 5});
+        Path path = dir.resolve("small.tabz");
+        int maxBlockPoints = Integer.MAX_VALUE / 16;
+        BlockCompressedTabulatedFunction.write(source, path, maxBlockPoints);
+        try (BlockCompressedTabulatedFunction f = BlockCompressedTabulatedFunction.open(path)) {
+            assertEquals(1, f.getBlockCount());
+            assertEquals(source, f);
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BlockCompressedTabulatedFunction.write(source, path, maxBlockPoints + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> BlockCompressedTabulatedFunction.write(source, path, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,46 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CachedFunctionTest {
+    private static final class Counting implements Function {
+        int calls;
+
+        public double getLeftDomainBorder() {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        public double getRightDomainBorder() {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        public double getFunctionValue(double x) {
+            calls++;
+            return x * x;
+        }
+    }
+
+    // Восемь ячеек образуют одно множество; ячейка с битом обращения переживает вытеснение.
+    @Test
+    void referencedEntrySurvivesEviction() {
+        for (CachedFunction.Policy policy : CachedFunction.Policy.values()) {
+            Counting counting = new Counting();
+            CachedFunction cached = new CachedFunction(counting, 8, policy);
+            for (int i = 0; i < 8; i++) {
+                assertEquals(i * i, cached.getFunctionValue(i));
+            }
+            assertEquals(0.0, cached.getFunctionValue(0));
+            assertEquals(1, cached.getHitCount());
+
+            assertEquals(64.0, cached.getFunctionValue(8));
+            assertEquals(0.0, cached.getFunctionValue(0));
+            assertEquals(2, cached.getHitCount(), policy.name());
+            assertEquals(9, counting.calls, policy.name());
+
+            assertEquals(1.0, cached.getFunctionValue(1));
+            assertEquals(10, counting.calls, policy.name());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactExternalFormTest {
+    private static CompactExternalForm roundTrip(double[] xs, double[] ys, int n) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            CompactExternalForm.write(out, xs, ys, n);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            CompactExternalForm form = CompactExternalForm.read(in, in.readInt(), 0);
+            assertEquals(-1, in.read());
+            return form;
+        }
+    }
+
+    // Значения восстанавливаются побитово, включая знак нуля и содержимое NaN.
+    private static void assertSameBits(double[] expected, double[] actual, int n) {
+        for (int i = 0; i < n; i++) {
+            assertEquals(Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(actual[i]), "индекс " + i);
+        }
+    }
+
+    @Test
+    void specialValuesRoundTrip() throws IOException {
+        double[] xs = {-1e300, -1, -0.0, 0.0, Double.MIN_VALUE, 1e-310, 1, 1.0000000000000002, 3, 1e300};
+        double[] ys = {Double.NaN, -0.0, 0.0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.longBitsToDouble(0x7ff8000000000123L), Double.MAX_VALUE, -Double.MIN_VALUE, 0.0, Double.NaN};
+
+        CompactExternalForm form = roundTrip(xs, ys, xs.length);
+        assertFalse(form.uniform);
+        assertEquals(xs.length, form.pointsCount);
+        assertSameBits(xs, form.xs, xs.length);
+        assertSameBits(ys, form.ys, ys.length);
+    }
+
+    @Test
+    void nonUniformGridRoundTrip() throws IOException {
+        Random random = new Random(21);
+        int n = 5000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        double x = -50;
+        for (int i = 0; i < n; i++) {
+            x += random.nextDouble() * (i % 100 == 0 ? 10 : 0.01) + Math.ulp(x);
+            xs[i] = x;
+            ys[i] = i % 7 == 0 ? ys[Math.max(0, i - 1)] : Math.sin(x) * Math.exp(random.nextGaussian());
+        }
+
+        CompactExternalForm form = roundTrip(xs, ys, n);
+        assertFalse(form.uniform);
+        assertSameBits(xs, form.xs, n);
+        assertSameBits(ys, form.ys, n);
+    }
+
+    // Одна абсцисса, отличающаяся от сетки на ULP, отключает равномерную форму.
+    @Test
+    void uniformGridDetection() throws IOException {
+        int n = 101;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = -2 + i * 0.04;
+            ys[i] = i == 50 ? -0.0 : xs[i] * xs[i];
+        }
+
+        CompactExternalForm uniform = roundTrip(xs, ys, n);
+        assertTrue(uniform.uniform);
+        assertSameBits(xs, uniform.xs, n);
+        assertSameBits(ys, uniform.ys, n);
+
+        xs[37] = Math.nextUp(xs[37]);
+        CompactExternalForm general = roundTrip(xs, ys, n);
+        assertFalse(general.uniform);
+        assertSameBits(xs, general.xs, n);
+    }
+
+    @Test
+    void tabulatedFunctionsRoundTrip() throws Exception {
+        TabulatedFunction[] functions = {
+                new ArrayTabulatedFunction(new FunctionPoint[]{
+                        new FunctionPoint(-0.0, Double.NaN), new FunctionPoint(0.5, -0.0), new FunctionPoint(2, 1)}),
+                new UniformGridTabulatedFunction(0, 1, new double[]{Double.NaN, 0.0, -0.0, 1}),
+                new LinkedListTabulatedFunction(new FunctionPoint[]{
+                        new FunctionPoint(1, 2), new FunctionPoint(1.5, Double.NEGATIVE_INFINITY), new FunctionPoint(4, 0)})
+        };
+        for (TabulatedFunction f : functions) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(f);
+            }
+            TabulatedFunction copy;
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                copy = (TabulatedFunction) in.readObject();
+            }
+            assertEquals(f.getClass(), copy.getClass());
+            assertSameBits(f.copyXs(null), copy.copyXs(null), f.getPointsCount());
+            assertSameBits(f.copyYs(null), copy.copyYs(null), f.getPointsCount());
+        }
+    }
+}
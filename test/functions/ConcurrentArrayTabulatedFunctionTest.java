@@ -0,0 +1,77 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConcurrentArrayTabulatedFunctionTest {
+    private static final double VALUE = 5;
+
+    // f = 5 на [0, 1], поэтому повторное применение к уже вычисленным значениям даёт NaN.
+    private static ConcurrentArrayTabulatedFunction constant() {
+        double[] values = new double[64];
+        Arrays.fill(values, VALUE);
+        return new ConcurrentArrayTabulatedFunction(0, 1, values);
+    }
+
+    @Test
+    void evaluateInPlaceUnderConcurrentWrites() throws InterruptedException {
+        ConcurrentArrayTabulatedFunction f = constant();
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            int i = 0;
+            while (!stop.get()) {
+                f.setPointY(i++ & 63, VALUE);
+            }
+        });
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            int size = r == 0 ? 8 : r == 1 ? 512 : 4096;
+            readers[r] = new Thread(() -> {
+                double[] buffer = new double[size];
+                while (!stop.get() && failure.get() == null) {
+                    for (int k = 0; k < size; k++) {
+                        buffer[k] = ThreadLocalRandom.current().nextDouble();
+                    }
+                    f.evaluate(buffer, buffer, 0, size);
+                    for (double y : buffer) {
+                        if (y != VALUE) {
+                            failure.set("evaluate(xs, xs) вернул " + y);
+                        }
+                    }
+                }
+            });
+        }
+
+        writer.start();
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        Thread.sleep(500);
+        stop.set(true);
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+    }
+
+    @Test
+    void evaluateMatchesPointwiseValues() {
+        ConcurrentArrayTabulatedFunction f = new ConcurrentArrayTabulatedFunction(0, 10, new double[] {1, 4, 2, 8, 5, 7});
+        double[] xs = {-1, 0, 1.5, 3.3, 9.99, 10, 11};
+        double[] out = new double[xs.length + 2];
+        f.evaluate(xs, out, 0, xs.length);
+        for (int k = 0; k < xs.length; k++) {
+            assertEquals(f.getFunctionValue(xs[k]), out[k]);
+        }
+    }
+}
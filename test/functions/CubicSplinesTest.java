@@ -0,0 +1,198 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CubicSplinesTest {
+    private static final FunctionPoint[] HAT = {
+            new FunctionPoint(0, 0), new FunctionPoint(1, 1), new FunctionPoint(2, 0)};
+
+    private static TabulatedFunction[] implementations(FunctionPoint[] points, Interpolation interpolation) {
+        TabulatedFunction[] functions = {
+                new ArrayTabulatedFunction(points),
+                new LinkedListTabulatedFunction(points),
+                new ConcurrentArrayTabulatedFunction(points)
+        };
+        for (TabulatedFunction f : functions) {
+            f.setInterpolation(interpolation);
+        }
+        return functions;
+    }
+
+    // Естественный сплайн через (0, 0), (1, 1), (2, 0): 1.5x - 0.5x^3 на [0, 1] и симметрично на [1, 2].
+    @Test
+    void naturalSplineMatchesClosedForm() {
+        for (TabulatedFunction f : implementations(HAT, Interpolation.NATURAL_CUBIC)) {
+            TabulatedFunction snapshot = f.snapshot();
+            for (int k = 0; k <= 40; k++) {
+                double x = k / 20.0;
+                double t = x <= 1 ? x : 2 - x;
+                double expected = 1.5 * t - 0.5 * t * t * t;
+                assertEquals(expected, f.getFunctionValue(x), 1e-14, f.getClass().getSimpleName());
+                assertEquals(expected, snapshot.getFunctionValue(x), 1e-14);
+            }
+        }
+    }
+
+    // Монотонный сплайн через те же точки: наклоны 2, 0, -2 дают параболу 2x - x^2 на всём отрезке.
+    @Test
+    void monotoneSplineMatchesClosedForm() {
+        for (TabulatedFunction f : implementations(HAT, Interpolation.MONOTONE_CUBIC)) {
+            for (int k = 0; k <= 40; k++) {
+                double x = k / 20.0;
+                assertEquals(2 * x - x * x, f.getFunctionValue(x), 1e-14, f.getClass().getSimpleName());
+            }
+        }
+    }
+
+    // Оба сплайна точно воспроизводят линейную функцию на неравномерной сетке.
+    @Test
+    void splinesReproduceLinearData() {
+        double[] xs = {-3, -2.5, -0.25, 0, 1, 4, 4.5};
+        FunctionPoint[] points = new FunctionPoint[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            points[i] = new FunctionPoint(xs[i], 3 * xs[i] - 1);
+        }
+        for (Interpolation interpolation : new Interpolation[]{Interpolation.NATURAL_CUBIC, Interpolation.MONOTONE_CUBIC}) {
+            for (TabulatedFunction f : implementations(points, interpolation)) {
+                for (double x = -3; x <= 4.5; x += 0.05) {
+                    assertEquals(3 * x - 1, f.getFunctionValue(x), 1e-12, interpolation + " " + f.getClass().getSimpleName());
+                }
+            }
+        }
+    }
+
+    // На ступеньке монотонный сплайн не выходит за пределы данных и не убывает.
+    @Test
+    void monotoneSplineDoesNotOvershoot() {
+        FunctionPoint[] step = {
+                new FunctionPoint(0, 0), new FunctionPoint(1, 0), new FunctionPoint(2, 1),
+                new FunctionPoint(3, 1), new FunctionPoint(4, 1)};
+        for (TabulatedFunction f : implementations(step, Interpolation.MONOTONE_CUBIC)) {
+            double previous = 0;
+            for (double x = 0; x <= 4; x += 0.01) {
+                double y = f.getFunctionValue(x);
+                assertTrue(y >= previous - 1e-15 && y <= 1 + 1e-15, "x=" + x + " y=" + y);
+                previous = y;
+            }
+        }
+    }
+
+    // Наклоны, пересчитанные на месте после серии правок, совпадают с построенными заново.
+    @Test
+    void naturalSlopesAfterEditsMatchFreshSpline() {
+        Random random = new Random(42);
+        TabulatedFunction[] functions = {
+                new ArrayTabulatedFunction(0, 10, 11),
+                new LinkedListTabulatedFunction(0, 10, 11)
+        };
+        for (TabulatedFunction f : functions) {
+            f.setInterpolation(Interpolation.NATURAL_CUBIC);
+            f.setPointY(5, 1);
+            TabulatedFunction snapshot = f.snapshot();
+            double before = snapshot.getFunctionValue(4.5);
+            for (int step = 0; step < 200; step++) {
+                int n = f.getPointsCount();
+                switch (random.nextInt(4)) {
+                    case 0:
+                        f.setPointY(random.nextInt(n), random.nextDouble());
+                        break;
+                    case 1:
+                        f.addPoint(new FunctionPoint(f.getRightDomainBorder() + 0.5 + random.nextDouble(), random.nextDouble()));
+                        break;
+                    case 2:
+                        if (n > 3) {
+                            f.deletePoint(random.nextInt(n));
+                        }
+                        break;
+                    default:
+                        int i = random.nextInt(n - 1);
+                        double mid = (f.getPointX(i) + f.getPointX(i + 1)) / 2;
+                        f.addPoint(new FunctionPoint(mid, random.nextDouble()));
+                }
+                if (step % 20 == 0) {
+                    f.snapshot();
+                }
+            }
+            assertEquals(before, snapshot.getFunctionValue(4.5));
+
+            ArrayTabulatedFunction fresh = new ArrayTabulatedFunction(pointsOf(f));
+            fresh.setInterpolation(Interpolation.NATURAL_CUBIC);
+            double left = f.getLeftDomainBorder();
+            double right = f.getRightDomainBorder();
+            for (int k = 0; k <= 1000; k++) {
+                double x = left + (right - left) * k / 1000;
+                assertEquals(fresh.getFunctionValue(x), f.getFunctionValue(x), 1e-9, f.getClass().getSimpleName());
+            }
+        }
+    }
+
+    // Внешняя форма хранит вид интерполяции: после чтения функция совпадает с исходной, в том числе
+    // на равномерной сетке, абсциссы которой пишутся как leftX и step.
+    @Test
+    void interpolationSurvivesSerialization() throws Exception {
+        FunctionPoint[] irregular = {new FunctionPoint(-1, 2), new FunctionPoint(0, 0.5), new FunctionPoint(0.75, 1),
+                new FunctionPoint(2, -1), new FunctionPoint(3.5, 0)};
+        FunctionPoint[] uniform = pointsOf(new ArrayTabulatedFunction(0, 4, new double[]{0, 1, 4, 1, 0}));
+        for (FunctionPoint[] points : new FunctionPoint[][]{irregular, uniform}) {
+            for (Interpolation interpolation : Interpolation.values()) {
+                for (TabulatedFunction f : implementations(points, interpolation)) {
+                    TabulatedFunction copy = roundTrip(f);
+                    String name = f.getClass().getSimpleName() + " " + interpolation;
+                    assertEquals(interpolation, copy.getInterpolation(), name);
+                    assertEquals(f, copy, name);
+                    assertEquals(f.hashCode(), copy.hashCode(), name);
+                    for (double x = points[0].getX(); x <= points[points.length - 1].getX(); x += 0.0625) {
+                        assertEquals(f.getFunctionValue(x), copy.getFunctionValue(x), name + " x = " + x);
+                    }
+                }
+            }
+        }
+        UniformGridTabulatedFunction grid = new UniformGridTabulatedFunction(0, 4, new double[]{0, 1, 4, 1, 0});
+        grid.setInterpolation(Interpolation.MONOTONE_CUBIC);
+        assertEquals(Interpolation.MONOTONE_CUBIC, roundTrip(grid).getInterpolation());
+    }
+
+    // Функции с одинаковыми точками, но разной интерполяцией не равны.
+    @Test
+    void equalsComparesInterpolation() {
+        TabulatedFunction[] linear = implementations(HAT, Interpolation.LINEAR);
+        TabulatedFunction[] natural = implementations(HAT, Interpolation.NATURAL_CUBIC);
+        for (TabulatedFunction a : linear) {
+            for (TabulatedFunction b : natural) {
+                assertNotEquals(a, b);
+                assertNotEquals(b, a);
+                assertNotEquals(b.snapshot(), a);
+            }
+            assertEquals(new UnrolledLinkedListTabulatedFunction(HAT), a);
+            assertNotEquals(new UnrolledLinkedListTabulatedFunction(HAT), natural[0]);
+        }
+    }
+
+    private static TabulatedFunction roundTrip(TabulatedFunction f) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(f);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (TabulatedFunction) in.readObject();
+        }
+    }
+
+    private static FunctionPoint[] pointsOf(TabulatedFunction f) {
+        FunctionPoint[] points = new FunctionPoint[f.getPointsCount()];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = f.getPoint(i);
+        }
+        return points;
+    }
+}
@@ -0,0 +1,153 @@
+package functions;
+
+import functions.basic.Cos;
+import functions.basic.Exp;
+import functions.basic.Log;
+import functions.basic.Sin;
+import functions.basic.Tan;
+import functions.meta.Composition;
+import functions.meta.IntegerPower;
+import functions.meta.Mult;
+import functions.meta.Power;
+import functions.meta.Scale;
+import functions.meta.Shift;
+import functions.meta.Sum;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class FunctionCompilerTest {
+    private static final double[] SPECIAL = {
+            0.0, -0.0, 1.0, -1.0, 0.5, 2.0, Math.PI / 2, -Math.PI, 1e-300, Double.MIN_VALUE, -Double.MIN_NORMAL,
+            700, -700, 1e300, Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN};
+
+    // Непрозрачный лист: компилятор не знает этот класс и должен вызывать его как есть.
+    private static final Function CUBE = new Function() {
+        public double getLeftDomainBorder() {
+            return -10;
+        }
+
+        public double getRightDomainBorder() {
+            return 10;
+        }
+
+        public double getFunctionValue(double x) {
+            return x * x * x - x;
+        }
+    };
+
+    // Каждый вид узла отдельно и в сочетании с остальными.
+    private static Function[] trees() {
+        Function sin = new Sin();
+        return new Function[]{
+                sin,
+                new Cos(),
+                new Tan(),
+                new Exp(),
+                new Log(2),
+                new Log(0.3),
+                new Shift(sin, 0.25, -3),
+                new Scale(new Cos(), -2.5, 0.125),
+                new Power(new Exp(), 0.5),
+                new Power(sin, -1.5),
+                new IntegerPower(new Cos(), 3),
+                new IntegerPower(sin, -2),
+                new IntegerPower(new Exp(), 8),
+                new Sum(sin, new Cos()),
+                new Mult(new Tan(), new Exp()),
+                new Composition(new Log(10), new Exp()),
+                CUBE,
+                // Подкласс известного узла не разворачивается: у него может быть своё поведение.
+                new Sin() {
+                    @Override
+                    public double getFunctionValue(double x) {
+                        return -super.getFunctionValue(x);
+                    }
+
+                    @Override
+                    public void evaluate(double[] xs, double[] out, int from, int to) {
+                        for (int i = from; i < to; i++) {
+                            out[i] = getFunctionValue(xs[i]);
+                        }
+                    }
+                },
+                new ArrayTabulatedFunction(-5, 5, new double[]{1, -2, 3, 0.5, 4}),
+                new Sum(new Mult(new Shift(CUBE, 1, 2), new Scale(sin, 3, 0.5)),
+                        new Composition(new Power(new Cos(), 2), new IntegerPower(new Shift(new Exp(), 0, 1), -3))),
+                new Mult(sin, sin),
+                new Composition(new Sum(new Log(2), new Tan()), new Scale(new Shift(CUBE, -0.5, 0), 4, -1)),
+        };
+    }
+
+    private static double[] arguments() {
+        Random random = new Random(10);
+        double[] xs = new double[SPECIAL.length + 500];
+        System.arraycopy(SPECIAL, 0, xs, 0, SPECIAL.length);
+        for (int i = SPECIAL.length; i < xs.length; i++) {
+            xs[i] = (random.nextDouble() - 0.5) * (i % 3 == 0 ? 2000 : 20);
+        }
+        return xs;
+    }
+
+    @Test
+    void compiledTreesMatchSourceBitForBit() {
+        for (Function tree : trees()) {
+            assertSameFunction(tree, Functions.compile(tree));
+        }
+    }
+
+    // Без байткода шаблона компилятор возвращает обёртку над MethodHandle с теми же результатами.
+    @Test
+    void fallbackWithoutTemplateMatchesSource() throws Exception {
+        Field field = FunctionCompiler.class.getDeclaredField("templateBytes");
+        field.setAccessible(true);
+        Object saved = field.get(null);
+        field.set(null, new byte[0]);
+        try {
+            for (Function tree : trees()) {
+                Function compiled = Functions.compile(tree);
+                assertEquals("HandleFunction", compiled.getClass().getSimpleName());
+                assertSameFunction(tree, compiled);
+            }
+        } finally {
+            field.set(null, saved);
+        }
+        assertNotEquals("HandleFunction", Functions.compile(new Sin()).getClass().getSimpleName());
+    }
+
+    private static void assertSameFunction(Function source, Function compiled) {
+        String name = source.toString();
+        assertEquals(source.getLeftDomainBorder(), compiled.getLeftDomainBorder(), name);
+        assertEquals(source.getRightDomainBorder(), compiled.getRightDomainBorder(), name);
+
+        double[] xs = arguments();
+        for (double x : xs) {
+            assertEquals(source.getFunctionValue(x), compiled.getFunctionValue(x), name + " x = " + x);
+        }
+
+        int from = 3;
+        int to = xs.length - 2;
+        double[] expected = new double[xs.length];
+        double[] actual = new double[xs.length];
+        source.evaluate(xs, expected, from, to);
+        compiled.evaluate(xs, actual, from, to);
+        assertBits(expected, actual, name);
+
+        // Вычисление на месте.
+        double[] inPlace = xs.clone();
+        compiled.evaluate(inPlace, inPlace, from, to);
+        System.arraycopy(xs, 0, expected, 0, from);
+        System.arraycopy(xs, to, expected, to, xs.length - to);
+        assertBits(expected, inPlace, name);
+    }
+
+    private static void assertBits(double[] expected, double[] actual, String name) {
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(Double.doubleToLongBits(expected[i]), Double.doubleToLongBits(actual[i]), name + " [" + i + "]");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package functions;
+
+import functions.basic.Exp;
+import functions.basic.Sin;
+import functions.meta.IntegerPower;
+import functions.meta.Scale;
+import functions.meta.Shift;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class FunctionOptimizerTest {
+    // Произведение масштабов 1e-10 * 1e-10 Scale не принимает, поэтому узлы не сливаются.
+    @Test
+    void tinyScaleProductKeepsNestedNodes() {
+        Function f = Functions.scale(Functions.scale(new Exp(), 1e-10, 2), 1e-10, 3);
+        Function optimized = Functions.optimize(f);
+
+        Scale outer = assertInstanceOf(Scale.class, optimized);
+        assertInstanceOf(Scale.class, outer.getBase());
+        assertEquals(f.getFunctionValue(1e-21), optimized.getFunctionValue(1e-21));
+    }
+
+    @Test
+    void sharedSubtreeIsFolded() {
+        Function shared = Functions.shift(Functions.shift(new Sin(), 1, 0), 1, 0);
+
+        // Scale(Shift(...)) всплывает в Shift над Scale.
+        Shift doubled = assertInstanceOf(Shift.class, Functions.optimize(Functions.sum(shared, shared)));
+        assertEquals(2.0, assertInstanceOf(Scale.class, doubled.getBase()).getScaleY());
+        assertEquals(2 * Math.sin(0.5 - 2), doubled.getFunctionValue(0.5), 1e-15);
+
+        IntegerPower square = assertInstanceOf(IntegerPower.class, Functions.optimize(Functions.mult(shared, shared)));
+        assertEquals(2, square.getExponent());
+        assertInstanceOf(Shift.class, square.getBase());
+        assertEquals(Math.pow(Math.sin(0.5 - 2), 2), square.getFunctionValue(0.5), 1e-15);
+    }
+}
@@ -0,0 +1,94 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LinkedListTabulatedFunctionTest {
+    // После произвольной смеси вставок и удалений каждая ссылка индекса перескакивает ровно на span узлов.
+    @Test
+    void indexSpansStayConsistentAfterMixedEdits() throws Exception {
+        Random random = new Random(15);
+        LinkedListTabulatedFunction f = new LinkedListTabulatedFunction(0, 1000, 200);
+        List<Double> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            expected.add(f.getPointX(i));
+        }
+
+        for (int step = 0; step < 5000; step++) {
+            int n = f.getPointsCount();
+            if (random.nextInt(3) > 0 || n < 10) {
+                double x = random.nextDouble() * 1200 - 100;
+                int i = 0;
+                while (i < expected.size() && expected.get(i) < x) {
+                    i++;
+                }
+                if ((i < expected.size() && MathUtil.equals(expected.get(i), x))
+                        || (i > 0 && MathUtil.equals(expected.get(i - 1), x))) {
+                    continue;
+                }
+                f.addPoint(new FunctionPoint(x, step));
+                expected.add(i, x);
+            } else if (random.nextBoolean()) {
+                int index = random.nextInt(n);
+                f.deletePoint(index);
+                expected.remove(index);
+            } else {
+                int from = random.nextInt(n - 4);
+                int to = from + 1 + random.nextInt(3);
+                f.deleteRange(from, to);
+                expected.subList(from, to).clear();
+            }
+            if (step % 250 == 0) {
+                checkSpans(f);
+            }
+        }
+        checkSpans(f);
+
+        assertEquals(expected.size(), f.getPointsCount());
+        for (int k = 0; k < 2000; k++) {
+            int index = random.nextInt(expected.size());
+            assertEquals(expected.get(index), f.getPointX(index));
+        }
+    }
+
+    private static void checkSpans(LinkedListTabulatedFunction f) throws Exception {
+        Object head = field(LinkedListTabulatedFunction.class, "head").get(f);
+        Class<?> nodeClass = head.getClass();
+        Field next = field(nodeClass, "next");
+        Field links = field(nodeClass, "links");
+        Field spans = field(nodeClass, "spans");
+
+        Map<Object, Integer> positions = new IdentityHashMap<>();
+        positions.put(head, -1);
+        int position = 0;
+        for (Object node = next.get(head); node != head; node = next.get(node)) {
+            positions.put(node, position++);
+        }
+        assertEquals(f.getPointsCount(), position);
+
+        Object[] headLinks = (Object[]) links.get(head);
+        for (int level = 0; level < headLinks.length; level++) {
+            Object node = head;
+            while (((Object[]) links.get(node))[level] != null) {
+                Object target = ((Object[]) links.get(node))[level];
+                int span = ((int[]) spans.get(node))[level];
+                assertEquals(positions.get(node) + span, positions.get(target).intValue(), "уровень " + level);
+                node = target;
+            }
+        }
+    }
+
+    private static Field field(Class<?> type, String name) throws NoSuchFieldException {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+}
@@ -0,0 +1,80 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedTabulatedFunctionTest {
+    @TempDir
+    Path dir;
+
+    private Path written(TabulatedFunction function) throws IOException {
+        Path path = dir.resolve("f.tabf");
+        MappedTabulatedFunction.write(function, path);
+        return path;
+    }
+
+    @Test
+    void writeOpenRoundTrip() throws IOException {
+        FunctionPoint[] points = new FunctionPoint[20_000];
+        for (int i = 0; i < points.length; i++) {
+            double x = i * 0.5 + (i % 3) * 0.01;
+            points[i] = new FunctionPoint(x, i % 101 == 0 ? -0.0 : Math.cos(x));
+        }
+        TabulatedFunction source = new ArrayTabulatedFunction(points);
+        Path path = written(source);
+        assertEquals(MappedTabulatedFunction.HEADER_SIZE + 16L * points.length, Files.size(path));
+
+        MappedTabulatedFunction f = MappedTabulatedFunction.open(path);
+        assertEquals(points.length, f.getPointsCount());
+        for (int i = 0; i < points.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(source.getPointX(i)), Double.doubleToRawLongBits(f.getPointX(i)));
+            assertEquals(Double.doubleToRawLongBits(source.getPointY(i)), Double.doubleToRawLongBits(f.getPointY(i)));
+        }
+        for (double x = -1; x < 10_001; x += 0.37) {
+            assertEquals(source.getFunctionValue(x), f.getFunctionValue(x));
+        }
+
+        ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(path), 0, MappedTabulatedFunction.HEADER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(MappedTabulatedFunction.MAGIC, header.getInt());
+        assertEquals(MappedTabulatedFunction.VERSION, header.getInt());
+        assertEquals(points.length, header.getLong());
+    }
+
+    private void assertRejected(byte[] bytes) throws IOException {
+        Path path = dir.resolve("bad.tabf");
+        Files.write(path, bytes);
+        assertThrows(IOException.class, () -> MappedTabulatedFunction.open(path));
+    }
+
+    @Test
+    void malformedFilesAreRejected() throws IOException {
+        byte[] good = Files.readAllBytes(written(new ArrayTabulatedFunction(0, 1, new double[]{1, 2, 3})));
+
+        byte[] badMagic = good.clone();
+        badMagic[0] ^= 1;
+        assertRejected(badMagic);
+
+        byte[] badVersion = good.clone();
+        ByteBuffer.wrap(badVersion).order(ByteOrder.LITTLE_ENDIAN).putInt(4, MappedTabulatedFunction.VERSION + 1);
+        assertRejected(badVersion);
+
+        byte[] tooFewPoints = good.clone();
+        ByteBuffer.wrap(tooFewPoints).order(ByteOrder.LITTLE_ENDIAN).putLong(8, 1);
+        assertRejected(tooFewPoints);
+
+        assertRejected(Arrays.copyOf(good, good.length - 1));
+        assertRejected(Arrays.copyOf(good, MappedTabulatedFunction.HEADER_SIZE - 1));
+        assertRejected(new byte[0]);
+    }
+}
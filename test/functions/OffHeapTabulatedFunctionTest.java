@@ -0,0 +1,37 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OffHeapTabulatedFunctionTest {
+    @Test
+    void appendGrowsAndKeepsPoints() {
+        OffHeapTabulatedFunction f = new OffHeapTabulatedFunction(0, 1, new double[]{5, 6});
+        for (int i = 2; i < 1000; i++) {
+            f.appendPoint(i, 5 + i);
+        }
+        assertEquals(1000, f.getLongPointsCount());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, f.getPointX(i));
+            assertEquals(5 + i, f.getPointY(i));
+        }
+    }
+
+    @Test
+    void cloneIsIndependent() {
+        OffHeapTabulatedFunction f = new OffHeapTabulatedFunction(0, 10, new double[]{0, 1, 4, 9, 16, 25});
+        f.appendPoint(12, 36);
+        OffHeapTabulatedFunction copy = (OffHeapTabulatedFunction) f.clone();
+        assertNotSame(f, copy);
+        assertEquals(f, copy);
+
+        f.setPointY(3, -1);
+        f.close();
+        assertEquals(9, copy.getPointY(3));
+        assertEquals(7, copy.getPointsCount());
+        assertThrows(IllegalStateException.class, f::getPointsCount);
+    }
+}
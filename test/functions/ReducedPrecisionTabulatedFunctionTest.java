@@ -0,0 +1,103 @@
+package functions;
+
+import functions.ReducedPrecisionTabulatedFunction.Precision;
+import functions.basic.Sin;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReducedPrecisionTabulatedFunctionTest {
+    private static TabulatedFunction nonUniform() {
+        Random random = new Random(24);
+        FunctionPoint[] points = new FunctionPoint[500];
+        double x = -7;
+        for (int i = 0; i < points.length; i++) {
+            x += 0.001 + random.nextDouble() * 0.05;
+            points[i] = new FunctionPoint(x, 1000 * Math.sin(x) + random.nextGaussian());
+        }
+        return new ArrayTabulatedFunction(points);
+    }
+
+    // Погрешность в узлах совпадает с getMaxError(), а между узлами не превышает её.
+    private static void checkErrorBound(TabulatedFunction source, Precision precision) {
+        ReducedPrecisionTabulatedFunction f = new ReducedPrecisionTabulatedFunction(source, precision);
+        int n = source.getPointsCount();
+        assertEquals(n, f.getPointsCount());
+
+        double maxError = 0;
+        for (int i = 0; i < n; i++) {
+            assertEquals(source.getPointX(i), f.getPointX(i));
+            maxError = Math.max(maxError, Math.abs(f.getPointY(i) - source.getPointY(i)));
+        }
+        assertEquals(maxError, f.getMaxError());
+        assertTrue(maxError > 0);
+
+        double left = source.getLeftDomainBorder();
+        double right = source.getRightDomainBorder();
+        double[] xs = new double[10_000];
+        for (int k = 0; k < xs.length; k++) {
+            xs[k] = left + (right - left) * k / (xs.length - 1);
+        }
+        double[] values = new double[xs.length];
+        f.evaluate(xs, values, 0, xs.length);
+        for (int k = 0; k < xs.length; k++) {
+            double expected = source.getFunctionValue(xs[k]);
+            double slack = 1e-12 * Math.max(1, Math.abs(expected));
+            assertTrue(Math.abs(f.getFunctionValue(xs[k]) - expected) <= maxError + slack, "x=" + xs[k]);
+            assertEquals(f.getFunctionValue(xs[k]), values[k]);
+        }
+    }
+
+    @Test
+    void floatPrecisionBound() {
+        checkErrorBound(TabulatedFunctions.tabulate(new Sin(), 0, 10, 1001), Precision.FLOAT);
+        checkErrorBound(nonUniform(), Precision.FLOAT);
+    }
+
+    @Test
+    void int16PrecisionBound() {
+        checkErrorBound(TabulatedFunctions.tabulate(new Sin(), 0, 10, 1001), Precision.INT16);
+        TabulatedFunction source = nonUniform();
+        checkErrorBound(source, Precision.INT16);
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < source.getPointsCount(); i++) {
+            min = Math.min(min, source.getPointY(i));
+            max = Math.max(max, source.getPointY(i));
+        }
+        double halfLevel = (max - min) / 65535 / 2;
+        assertTrue(new ReducedPrecisionTabulatedFunction(source, Precision.INT16).getMaxError() <= halfLevel * (1 + 1e-9));
+    }
+
+    @Test
+    void constantTable() {
+        TabulatedFunction source = new ArrayTabulatedFunction(0, 1, new double[]{0.1, 0.1, 0.1});
+        ReducedPrecisionTabulatedFunction int16 = new ReducedPrecisionTabulatedFunction(source, Precision.INT16);
+        assertEquals(0.0, int16.getMaxError());
+        assertEquals(0.1, int16.getFunctionValue(0.3));
+
+        ReducedPrecisionTabulatedFunction single = new ReducedPrecisionTabulatedFunction(source, Precision.FLOAT);
+        assertEquals(Math.abs((double) 0.1f - 0.1), single.getMaxError());
+        assertEquals((double) 0.1f, single.getFunctionValue(0.7));
+    }
+
+    @Test
+    void unrepresentableValuesAreRejected() {
+        TabulatedFunction huge = new ArrayTabulatedFunction(0, 1, new double[]{0, 1e300});
+        assertThrows(IllegalArgumentException.class, () -> new ReducedPrecisionTabulatedFunction(huge, Precision.FLOAT));
+        assertEquals(0.0, new ReducedPrecisionTabulatedFunction(huge, Precision.INT16).getPointY(0));
+
+        TabulatedFunction infinite = new ArrayTabulatedFunction(0, 1, new double[]{0, Double.POSITIVE_INFINITY});
+        ReducedPrecisionTabulatedFunction single = new ReducedPrecisionTabulatedFunction(infinite, Precision.FLOAT);
+        assertEquals(Double.POSITIVE_INFINITY, single.getPointY(1));
+        assertEquals(0.0, single.getMaxError());
+        assertThrows(IllegalArgumentException.class, () -> new ReducedPrecisionTabulatedFunction(infinite, Precision.INT16));
+
+        assertThrows(UnsupportedOperationException.class, () -> single.setPointY(0, 1));
+    }
+}
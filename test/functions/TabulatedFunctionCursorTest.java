@@ -0,0 +1,142 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TabulatedFunctionCursorTest {
+    private static final int N = 400;
+    private static final double LEFT = -50;
+    private static final double RIGHT = 50;
+
+    private static FunctionPoint[] points(Random random) {
+        FunctionPoint[] points = new FunctionPoint[N];
+        for (int i = 0; i < N; i++) {
+            double x = LEFT + (RIGHT - LEFT) * i / (N - 1) + (i > 0 && i < N - 1 ? random.nextDouble() * 0.1 : 0);
+            points[i] = new FunctionPoint(x, Math.sin(x) * 10 + random.nextDouble());
+        }
+        return points;
+    }
+
+    // IndexCursor у массива, развёрнутого списка и потокобезопасной обёртки, NodeCursor у связного списка.
+    private static Supplier<TabulatedFunction>[] implementations(Random random) {
+        FunctionPoint[] points = points(random);
+        @SuppressWarnings("unchecked")
+        Supplier<TabulatedFunction>[] suppliers = new Supplier[] {
+                () -> new ArrayTabulatedFunction(points),
+                () -> new LinkedListTabulatedFunction(points),
+                () -> new UnrolledLinkedListTabulatedFunction(points),
+                () -> new ConcurrentArrayTabulatedFunction(points)};
+        return suppliers;
+    }
+
+    @Test
+    void ascendingSweepsMatchFunction() {
+        check((f, cursor, random) -> {
+            for (double x = LEFT - 1; x <= RIGHT + 1; x += 0.013) {
+                query(f, cursor, x);
+                mutateSometimes(f, random, 0.002);
+            }
+        });
+    }
+
+    @Test
+    void descendingSweepsMatchFunction() {
+        check((f, cursor, random) -> {
+            for (double x = RIGHT + 1; x >= LEFT - 1; x -= 0.013) {
+                query(f, cursor, x);
+                mutateSometimes(f, random, 0.002);
+            }
+        });
+    }
+
+    // Случайные скачки и запросы точно в узлах, в том числе сразу после изменения соседних точек.
+    @Test
+    void randomQueriesMatchFunction() {
+        check((f, cursor, random) -> {
+            for (int k = 0; k < 20_000; k++) {
+                int n = f.getPointsCount();
+                double x;
+                switch (random.nextInt(4)) {
+                    case 0: x = f.getPointX(random.nextInt(n)); break;
+                    case 1: x = LEFT - 2 + random.nextDouble() * (RIGHT - LEFT + 4); break;
+                    // Рядом со случайным узлом, по любую сторону от него.
+                    case 2: x = f.getPointX(random.nextInt(n)) + (random.nextDouble() - 0.5) * 0.5; break;
+                    default: x = k % 2 == 0 ? f.getLeftDomainBorder() : f.getRightDomainBorder();
+                }
+                query(f, cursor, x);
+                mutateSometimes(f, random, 0.05);
+            }
+        });
+    }
+
+    private interface Sweep {
+        void run(TabulatedFunction f, TabulatedFunctionCursor cursor, Random random);
+    }
+
+    private static void check(Sweep sweep) {
+        Random random = new Random(17);
+        for (Supplier<TabulatedFunction> supplier : implementations(random)) {
+            for (Interpolation interpolation : Interpolation.values()) {
+                TabulatedFunction f = supplier.get();
+                try {
+                    f.setInterpolation(interpolation);
+                } catch (UnsupportedOperationException e) {
+                    // Развёрнутый список поддерживает только линейную интерполяцию.
+                    continue;
+                }
+                TabulatedFunctionCursor cursor = f.cursor();
+                // Два прохода одним курсором: второй начинается с отрезка, запомненного в конце первого.
+                sweep.run(f, cursor, random);
+                sweep.run(f, cursor, random);
+            }
+        }
+    }
+
+    private static void query(TabulatedFunction f, TabulatedFunctionCursor cursor, double x) {
+        assertEquals(Double.doubleToLongBits(f.getFunctionValue(x)), Double.doubleToLongBits(cursor.getFunctionValue(x)),
+                () -> f.getClass().getSimpleName() + " " + f.getInterpolation() + " x = " + x);
+    }
+
+    // Изменения между запросами: сдвиг, вставка и удаление точек, в том числе крайних, и пакетные операции.
+    private static void mutateSometimes(TabulatedFunction f, Random random, double probability) {
+        if (random.nextDouble() >= probability) {
+            return;
+        }
+        int n = f.getPointsCount();
+        int i = random.nextInt(n);
+        switch (random.nextInt(6)) {
+            case 0:
+                f.setPointY(i, random.nextGaussian() * 10);
+                break;
+            case 1:
+                if (i > 0 && i < n - 1) {
+                    double left = f.getPointX(i - 1);
+                    double right = f.getPointX(i + 1);
+                    f.setPointX(i, left + (right - left) * (0.25 + random.nextDouble() * 0.5));
+                }
+                break;
+            case 2:
+                if (n > N / 2) {
+                    f.deletePoint(random.nextBoolean() ? i : random.nextBoolean() ? 0 : n - 1);
+                }
+                break;
+            case 3:
+                if (n > N / 2) {
+                    int from = random.nextInt(n - 10);
+                    f.deleteRange(from, from + 1 + random.nextInt(8));
+                }
+                break;
+            default:
+                double x = LEFT - 1 + random.nextDouble() * (RIGHT - LEFT + 2);
+                try {
+                    f.addPoint(new FunctionPoint(x, random.nextGaussian() * 10));
+                } catch (InappropriateFunctionPointException e) {
+                    // Совпала с имеющейся точкой — функция не изменилась.
+                }
+        }
+    }
+}
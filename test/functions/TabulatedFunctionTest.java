@@ -0,0 +1,224 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TabulatedFunctionTest {
+    private static final int N = 3000;
+
+    @TempDir
+    Path dir;
+
+    private static FunctionPoint[] points() {
+        FunctionPoint[] points = new FunctionPoint[N];
+        for (int i = 0; i < N; i++) {
+            double x = i * 0.5 + (i % 7) * 0.01;
+            points[i] = new FunctionPoint(x, i % 97 == 0 ? -0.0 : Math.sin(x) * 100);
+        }
+        return points;
+    }
+
+    // По функции каждой реализации; равномерная сетка — в обеих формах, снимки — с обоих видов массивов.
+    private List<TabulatedFunction> implementations() throws IOException {
+        FunctionPoint[] points = points();
+        double[] values = new double[N];
+        for (int i = 0; i < N; i++) {
+            values[i] = points[i].getY();
+        }
+        ArrayTabulatedFunction array = new ArrayTabulatedFunction(points);
+        UniformGridTabulatedFunction uniform = new UniformGridTabulatedFunction(-3, 7, values);
+        UniformGridTabulatedFunction general = new UniformGridTabulatedFunction(-3, 7, values);
+        general.addPoint(new FunctionPoint(7.5, 1));
+
+        List<TabulatedFunction> functions = new ArrayList<>();
+        functions.add(array);
+        functions.add(new LinkedListTabulatedFunction(points));
+        functions.add(new UnrolledLinkedListTabulatedFunction(points));
+        functions.add(new ConcurrentArrayTabulatedFunction(points));
+        functions.add(uniform);
+        functions.add(general);
+        functions.add(array.snapshot());
+        functions.add(uniform.snapshot());
+        functions.add(new ReducedPrecisionTabulatedFunction(array, ReducedPrecisionTabulatedFunction.Precision.FLOAT));
+        functions.add(new ReducedPrecisionTabulatedFunction(uniform, ReducedPrecisionTabulatedFunction.Precision.INT16));
+        functions.add(OffHeapTabulatedFunction.copyOf(array));
+        Path mapped = dir.resolve("f.tabf");
+        MappedTabulatedFunction.write(array, mapped);
+        functions.add(MappedTabulatedFunction.open(mapped));
+        Path compressed = dir.resolve("f.tabc");
+        BlockCompressedTabulatedFunction.write(array, compressed, 700);
+        functions.add(BlockCompressedTabulatedFunction.open(compressed));
+        return functions;
+    }
+
+    // Блочная выгрузка совпадает с поточечной для диапазонов внутри куска, через границы кусков и блоков и пустых.
+    @Test
+    void exportPointsMatchesPointwise() throws IOException {
+        int[][] ranges = {{0, N}, {1, N - 1}, {1000, 1100}, {1020, 2100}, {699, 701}, {N - 1, N}, {5, 5}, {N, N}};
+        for (TabulatedFunction f : implementations()) {
+            String name = f.getClass().getSimpleName();
+            try {
+                for (int[] range : ranges) {
+                    int from = range[0];
+                    int to = range[1];
+                    double[] xs = new double[to - from + 1];
+                    double[] ys = new double[to - from + 1];
+                    xs[to - from] = 42;
+                    ys[to - from] = 42;
+                    f.exportPoints(from, to, xs, ys);
+                    for (int i = from; i < to; i++) {
+                        assertEquals(Double.doubleToRawLongBits(f.getPointX(i)), Double.doubleToRawLongBits(xs[i - from]),
+                                name + " x[" + i + "]");
+                        assertEquals(Double.doubleToRawLongBits(f.getPointY(i)), Double.doubleToRawLongBits(ys[i - from]),
+                                name + " y[" + i + "]");
+                    }
+                    assertEquals(42, xs[to - from], name);
+                    assertEquals(42, ys[to - from], name);
+                }
+                int n = f.getPointsCount();
+                double[] buffer = new double[n + 1];
+                assertThrows(FunctionPointIndexOutOfBoundsException.class, () -> f.exportPoints(-1, 2, buffer, buffer), name);
+                assertThrows(FunctionPointIndexOutOfBoundsException.class, () -> f.exportPoints(0, n + 1, buffer, buffer), name);
+                assertThrows(FunctionPointIndexOutOfBoundsException.class, () -> f.exportPoints(3, 2, buffer, buffer), name);
+            } finally {
+                if (f instanceof AutoCloseable) {
+                    try {
+                        ((AutoCloseable) f).close();
+                    } catch (Exception e) {
+                        throw new IOException(e);
+                    }
+                }
+            }
+        }
+    }
+
+    // Изменяемые реализации с точками (i, i²), i = 0..9; где поддерживается, со сплайном,
+    // чтобы отказ пакетной операции проверялся и по наклонам.
+    private static void forEachMutable(Consumer<TabulatedFunction> test) throws IOException {
+        double[] values = new double[10];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * i;
+        }
+        TabulatedFunction[] functions = {
+                new ArrayTabulatedFunction(0, 9, values),
+                new LinkedListTabulatedFunction(0, 9, values),
+                new UnrolledLinkedListTabulatedFunction(0, 9, values),
+                new ConcurrentArrayTabulatedFunction(0, 9, values),
+                new UniformGridTabulatedFunction(0, 9, values),
+                new OffHeapTabulatedFunction(0, 9, values)};
+        for (TabulatedFunction f : functions) {
+            try {
+                f.setInterpolation(Interpolation.NATURAL_CUBIC);
+            } catch (UnsupportedOperationException e) {
+                // Остальные реализации проверяются с линейной интерполяцией.
+            }
+            try {
+                test.accept(f);
+            } finally {
+                if (f instanceof Closeable) {
+                    ((Closeable) f).close();
+                }
+            }
+        }
+    }
+
+    private static void assertPoints(double[] xs, double[] ys, TabulatedFunction f) {
+        String name = f.getClass().getSimpleName();
+        assertArrayEquals(xs, f.copyXs(null), name);
+        assertArrayEquals(ys, f.copyYs(null), name);
+    }
+
+    // Операция (с исключением expected, если оно задано) не меняет ни точки, ни значения между ними.
+    private static void assertUnchanged(Class<? extends Throwable> expected, TabulatedFunction f, Runnable operation) {
+        String name = f.getClass().getSimpleName();
+        double[] xs = f.copyXs(null);
+        double[] ys = f.copyYs(null);
+        double[] values = new double[40];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = f.getFunctionValue(i * 0.23);
+        }
+        if (expected != null) {
+            assertThrows(expected, operation::run, name);
+        } else {
+            operation.run();
+        }
+        assertPoints(xs, ys, f);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], f.getFunctionValue(i * 0.23), name + " x = " + i * 0.23);
+        }
+    }
+
+    private static FunctionPoint[] batch(double... xs) {
+        FunctionPoint[] points = new FunctionPoint[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            points[i] = new FunctionPoint(xs[i], -xs[i]);
+        }
+        return points;
+    }
+
+    @Test
+    void addPointsAcceptsAnyOrder() throws IOException {
+        forEachMutable(f -> {
+            f.addPoints(batch(7.5, 12, -1, 3.5));
+            assertPoints(new double[] {-1, 0, 1, 2, 3, 3.5, 4, 5, 6, 7, 7.5, 8, 9, 12},
+                    new double[] {1, 0, 1, 4, 9, -3.5, 16, 25, 36, 49, -7.5, 64, 81, -12}, f);
+        });
+    }
+
+    @Test
+    void addPointsWithDuplicatesLeavesFunctionUnchanged() throws IOException {
+        forEachMutable(f -> {
+            assertUnchanged(InappropriateFunctionPointException.class, f, () -> f.addPoints(batch(2.5, 4.5, 2.5)));
+            assertUnchanged(InappropriateFunctionPointException.class, f, () -> f.addPoints(batch(-1, 3)));
+            assertUnchanged(InappropriateFunctionPointException.class, f, () -> f.addPoints(batch(10, 0)));
+            assertUnchanged(InappropriateFunctionPointException.class, f, () -> f.addPoints(batch(9, 10)));
+            assertUnchanged(null, f, () -> f.addPoints(batch()));
+        });
+    }
+
+    @Test
+    void deleteRangeChecksBoundsAndRemaining() throws IOException {
+        forEachMutable(f -> {
+            assertUnchanged(null, f, () -> f.deleteRange(0, 0));
+            assertUnchanged(null, f, () -> f.deleteRange(4, 4));
+            assertUnchanged(null, f, () -> f.deleteRange(10, 10));
+            assertUnchanged(FunctionPointIndexOutOfBoundsException.class, f, () -> f.deleteRange(-1, 2));
+            assertUnchanged(FunctionPointIndexOutOfBoundsException.class, f, () -> f.deleteRange(0, 11));
+            assertUnchanged(FunctionPointIndexOutOfBoundsException.class, f, () -> f.deleteRange(5, 4));
+            assertUnchanged(IllegalStateException.class, f, () -> f.deleteRange(0, 9));
+            assertUnchanged(IllegalStateException.class, f, () -> f.deleteRange(1, 10));
+
+            f.deleteRange(2, 5);
+            assertPoints(new double[] {0, 1, 5, 6, 7, 8, 9}, new double[] {0, 1, 25, 36, 49, 64, 81}, f);
+            f.deleteRange(1, 6);
+            assertPoints(new double[] {0, 9}, new double[] {0, 81}, f);
+        });
+    }
+
+    @Test
+    void removeIfKeepsAtLeastTwoPoints() throws IOException {
+        forEachMutable(f -> {
+            assertUnchanged(null, f, () -> assertFalse(f.removeIf((x, y) -> x > 100)));
+            assertUnchanged(IllegalStateException.class, f, () -> f.removeIf((x, y) -> x != 4));
+            assertUnchanged(IllegalStateException.class, f, () -> f.removeIf((x, y) -> true));
+
+            assertTrue(f.removeIf((x, y) -> x % 2 == 1));
+            assertPoints(new double[] {0, 2, 4, 6, 8}, new double[] {0, 4, 16, 36, 64}, f);
+            assertTrue(f.removeIf((x, y) -> y > 0 && y < 50));
+            assertPoints(new double[] {0, 8}, new double[] {0, 64}, f);
+        });
+    }
+}
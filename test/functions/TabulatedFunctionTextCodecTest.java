@@ -0,0 +1,203 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TabulatedFunctionTextCodecTest {
+    private static double parse(String s) {
+        return TabulatedFunctionTextCodec.parseDouble(s.toCharArray(), 0, s.length());
+    }
+
+    private static void assertBits(double expected, double actual, String message) {
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual), message);
+    }
+
+    // Границы быстрого пути: мантисса до 2^53, порядок до 22; дальше — Double.parseDouble.
+    @Test
+    void parserMatchesParseDoubleAtFastPathBoundaries() {
+        String[] inputs = {
+                "1e22", "1e23", "1E-22", "1e-23", "9007199254740992e22", "9007199254740992e23",
+                "9007199254740992", "9007199254740993", "9007199254740995", "-9007199254740993",
+                "1234567890123456789", "12345678901234567890", "0.0000000000000000000001234567890123456789e30",
+                "4.9e-324", "2.4e-324", "2.5e-324", "2.2250738585072011e-308", "2.2250738585072014E-308",
+                "1.7976931348623157e308", "1.7976931348623159e308", "1e309", "1e-400",
+                "0.1", "0.3", "123.456", "+5", "5.", ".5", "-.5", "00000.0001000", "1e0", "1e+1", "1e-0",
+                "-0.0", "-0", "+0", "0e300", "-0e-300", "Infinity", "-Infinity"};
+        for (String input : inputs) {
+            assertBits(Double.parseDouble(input), parse(input), input);
+        }
+        assertBits(-0.0, parse("-0.0"), "-0.0");
+    }
+
+    @Test
+    void parserRejectsMalformedNumbers() {
+        for (String input : new String[] {"", "-", "+", ".", "e5", "1e", "1e+", "1.2.3", "1-2", "abc", "1x", "--1"}) {
+            assertTrue(Double.isNaN(parse(input)), input);
+        }
+    }
+
+    @Test
+    void formatterMatchesKnownValues() {
+        Object[][] cases = {
+                {0.0, "0.0"}, {-0.0, "-0.0"}, {1.0, "1.0"}, {-1.5, "-1.5"}, {100.0, "100.0"},
+                {9999999.0, "9999999.0"}, {1e7, "1.0E7"}, {1.25e7, "1.25E7"}, {0.001, "0.001"}, {1e-4, "1.0E-4"},
+                {2e-3, "0.002"}, {123.456, "123.456"}, {0.1 + 0.2, "0.30000000000000004"},
+                {1e22, "1.0E22"}, {1e23, "1.0E23"}, {2e23, "2.0E23"}, {9007199254740992.0, "9.007199254740992E15"},
+                {2.82879384806159E17, "2.82879384806159E17"}, {1.0E-5, "1.0E-5"},
+                {Double.MIN_VALUE, "4.9E-324"}, {2 * Double.MIN_VALUE, "9.9E-324"},
+                {Double.MIN_NORMAL, "2.2250738585072014E-308"}, {Math.nextDown(Double.MIN_NORMAL), "2.225073858507201E-308"},
+                {Double.MAX_VALUE, "1.7976931348623157E308"},
+                {Double.NaN, "NaN"}, {Double.POSITIVE_INFINITY, "Infinity"}, {Double.NEGATIVE_INFINITY, "-Infinity"}};
+        for (Object[] c : cases) {
+            assertEquals(c[1], DoubleFormatter.toString((Double) c[0]));
+        }
+    }
+
+    // Запись точная и кратчайшая: на одну цифру короче число не восстанавливается ни округлением вниз, ни вверх.
+    // Записи из двух цифр не проверяются: вместо одной цифры выбирается ближайшая двузначная.
+    @Test
+    void formatterIsExactAndShortest() {
+        Random random = new Random(8);
+        for (int i = 0; i < 200_000; i++) {
+            double v = i % 2 == 0
+                    ? Double.longBitsToDouble(random.nextLong())
+                    : Math.round(random.nextDouble() * 1e6) / Math.pow(10, random.nextInt(12));
+            if (!Double.isFinite(v)) {
+                continue;
+            }
+            String s = DoubleFormatter.toString(v);
+            assertBits(v, Double.parseDouble(s), s);
+            int digits = significantDigits(s);
+            assertTrue(digits <= significantDigits(Double.toString(v)), s + " длиннее " + Double.toString(v));
+            if (i % 10 == 0 && digits > 2) {
+                BigDecimal exact = new BigDecimal(v);
+                for (RoundingMode mode : new RoundingMode[] {RoundingMode.FLOOR, RoundingMode.CEILING}) {
+                    double shorter = exact.round(new MathContext(digits - 1, mode)).doubleValue();
+                    assertTrue(shorter != v, s + " можно записать короче");
+                }
+            }
+        }
+        for (double v = Double.MIN_VALUE; v < 1e-320; v += Double.MIN_VALUE) {
+            assertBits(v, Double.parseDouble(DoubleFormatter.toString(v)), "субнормальное " + v);
+        }
+    }
+
+    private static int significantDigits(String s) {
+        int end = s.indexOf('E');
+        String mantissa = (end < 0 ? s : s.substring(0, end)).replace("-", "").replace(".", "");
+        mantissa = mantissa.replaceFirst("^0+", "").replaceFirst("0+$", "");
+        return Math.max(1, mantissa.length());
+    }
+
+    @Test
+    void writesWhitespaceAndCsvFormats() throws IOException {
+        TabulatedFunction f = new ArrayTabulatedFunction(new FunctionPoint[] {
+                new FunctionPoint(-0.5, -0.0), new FunctionPoint(2e-3, 1e23), new FunctionPoint(1e7, Double.NaN)});
+
+        StringWriter plain = new StringWriter();
+        TabulatedFunctions.writeTabulatedFunction(f, plain);
+        assertEquals("3 -0.5 -0.0 0.002 1.0E23 1.0E7 NaN" + System.lineSeparator(), plain.toString());
+
+        StringWriter csv = new StringWriter();
+        TabulatedFunctions.writeTabulatedFunctionCsv(f, csv);
+        assertEquals("-0.5,-0.0\n0.002,1.0E23\n1.0E7,NaN\n", csv.toString());
+    }
+
+    @Test
+    void readsWhitespaceVariants() throws IOException {
+        String[] texts = {
+                "3 0 1 1 2 2.5 -3",
+                "  3\n0 1\n1 2\n2.5 -3\n\n",
+                "3\r\n0\t1\r\n1  2\r\n\t2.5   -3",
+                "3 0 1 1 2 2.5 -3 5 6"};
+        for (String text : texts) {
+            assertSimple(TabulatedFunctions.readTabulatedFunction(new StringReader(text)), text);
+        }
+    }
+
+    @Test
+    void readsCsvVariants() throws IOException {
+        String[] texts = {
+                "0,1\n1,2\n2.5,-3",
+                "x,y\n0,1\n1,2\n2.5,-3\n",
+                "\"x\",\"y\"\r\n0,1\r\n1,2\r\n2.5,-3\r\n",
+                "0;1\n1; 2\n\n 2.5 , -3\n"};
+        for (String text : texts) {
+            assertSimple(TabulatedFunctions.readTabulatedFunctionCsv(new StringReader(text)), text);
+        }
+    }
+
+    private static void assertSimple(TabulatedFunction f, String text) {
+        assertEquals(3, f.getPointsCount(), text);
+        assertEquals(0, f.getPointX(0), text);
+        assertEquals(1, f.getPointY(0), text);
+        assertEquals(1, f.getPointX(1), text);
+        assertEquals(2, f.getPointY(1), text);
+        assertEquals(2.5, f.getPointX(2), text);
+        assertEquals(-3, f.getPointY(2), text);
+    }
+
+    @Test
+    void rejectsMalformedText() {
+        for (String text : new String[] {"", "   ", "x 0 1 1 2", "-1", "2.5 0 1 1 2", "3 0 1 1 2", "2 0 1 1", "2 0 1 1 y",
+                "2 0 1e 1 2"}) {
+            assertThrows(IOException.class, () -> TabulatedFunctions.readTabulatedFunction(new StringReader(text)), text);
+        }
+        for (String text : new String[] {"0\n1,2", "0,1\n1", "0,1\nx,y\n1,2", "0,1\n1,2e"}) {
+            assertThrows(IOException.class, () -> TabulatedFunctions.readTabulatedFunctionCsv(new StringReader(text)), text);
+        }
+        // Числа разобраны, но точки не образуют функцию.
+        assertThrows(IllegalArgumentException.class,
+                () -> TabulatedFunctions.readTabulatedFunction(new StringReader("2 1 0 0 1")));
+        assertThrows(IllegalArgumentException.class,
+                () -> TabulatedFunctions.readTabulatedFunctionCsv(new StringReader("x,y\n0,1\n")));
+    }
+
+    // Запись идёт блоками по 1024 точки: сверяются таблицы по обе стороны границы блока.
+    @Test
+    void roundTripAcrossBlockBoundary() throws IOException {
+        Random random = new Random(1024);
+        for (int n : new int[] {2, 1023, 1024, 1025, 3000}) {
+            FunctionPoint[] points = new FunctionPoint[n];
+            for (int i = 0; i < n; i++) {
+                double y;
+                switch (i % 6) {
+                    case 0: y = -0.0; break;
+                    case 1: y = Double.longBitsToDouble(random.nextLong() & 0x000F_FFFF_FFFF_FFFFL); break;
+                    case 2: y = random.nextGaussian() * 1e300; break;
+                    case 3: y = i % 12 == 3 ? Double.NaN : Double.NEGATIVE_INFINITY; break;
+                    default: y = random.nextDouble();
+                }
+                points[i] = new FunctionPoint(i * 0.1 + random.nextDouble() * 0.01, y);
+            }
+            TabulatedFunction f = new ArrayTabulatedFunction(points);
+
+            StringWriter plain = new StringWriter();
+            TabulatedFunctions.writeTabulatedFunction(f, plain);
+            assertSamePoints(f, TabulatedFunctions.readTabulatedFunction(new StringReader(plain.toString())));
+
+            StringWriter csv = new StringWriter();
+            TabulatedFunctions.writeTabulatedFunctionCsv(f, csv);
+            assertSamePoints(f, TabulatedFunctions.readTabulatedFunctionCsv(new StringReader(csv.toString())));
+        }
+    }
+
+    private static void assertSamePoints(TabulatedFunction expected, TabulatedFunction actual) {
+        assertEquals(expected.getPointsCount(), actual.getPointsCount());
+        for (int i = 0; i < expected.getPointsCount(); i++) {
+            assertBits(expected.getPointX(i), actual.getPointX(i), "x[" + i + "]");
+            assertBits(expected.getPointY(i), actual.getPointY(i), "y[" + i + "]");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package functions;
+
+import functions.basic.Sin;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TabulatedFunctionsAdaptiveTest {
+    @Test
+    void approximatesSmoothFunctionWithinError() {
+        Function sin = new Sin();
+        TabulatedFunction f = TabulatedFunctions.tabulateAdaptive(sin, 0, 2 * Math.PI, 1e-6);
+        for (int i = 0; i <= 1000; i++) {
+            double x = i * 2 * Math.PI / 1000;
+            assertEquals(Math.sin(x), f.getFunctionValue(x), 1e-5);
+        }
+    }
+
+    // sqrt(sin) не определён на (π, 2π): такой отрезок не делится, а не дробится до предела точности.
+    @Test
+    @Timeout(10)
+    void doesNotRefineUndefinedIntervals() {
+        Function root = Functions.power(new Sin(), 0.5);
+        TabulatedFunction f = TabulatedFunctions.tabulateAdaptive(root, 0, 2 * Math.PI, 1e-4);
+        assertTrue(f.getPointsCount() < 100_000, "точек: " + f.getPointsCount());
+        assertEquals(Math.sqrt(Math.sin(1)), f.getFunctionValue(1), 1e-3);
+    }
+
+    @Test
+    @Timeout(10)
+    void failsWhenPointLimitIsExceeded() {
+        Function noise = new Function() {
+            public double getLeftDomainBorder() {
+                return 0;
+            }
+
+            public double getRightDomainBorder() {
+                return 1;
+            }
+
+            public double getFunctionValue(double x) {
+                long bits = Double.doubleToLongBits(x) * 0x9E3779B97F4A7C15L;
+                return (bits >>> 11) * 0x1.0p-53;
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> TabulatedFunctions.tabulateAdaptive(noise, 0, 1, 1e-3, 10_000));
+    }
+
+    @Test
+    void rejectsTooSmallLimit() {
+        assertThrows(IllegalArgumentException.class, () -> TabulatedFunctions.tabulateAdaptive(new Sin(), 0, 1, 1e-3, 1));
+    }
+}
@@ -0,0 +1,115 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TabulatedFunctionsTest {
+    // Размеры вокруг границы блока в 4096 точек.
+    private static final int[] SIZES = {2, 3, 4095, 4096, 4097, 10_000};
+
+    @TempDir
+    Path dir;
+
+    private static TabulatedFunction function(int n) {
+        FunctionPoint[] points = new FunctionPoint[n];
+        for (int i = 0; i < n; i++) {
+            double x = i * 0.25 - 100 + (i % 5) * 1e-3;
+            points[i] = new FunctionPoint(x, i % 11 == 0 ? -0.0 : Math.exp(-x * x / 1e4) * (i % 2 == 0 ? 1 : -1e300));
+        }
+        return new ArrayTabulatedFunction(points);
+    }
+
+    // Формат DataOutputStream, с которым двоичный вывод должен совпадать байт в байт.
+    private static byte[] reference(TabulatedFunction function) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(function.getPointsCount());
+        for (int i = 0; i < function.getPointsCount(); i++) {
+            out.writeDouble(function.getPointX(i));
+            out.writeDouble(function.getPointY(i));
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void binaryOutputMatchesDataOutputStream() throws IOException {
+        for (int n : SIZES) {
+            TabulatedFunction f = function(n);
+            byte[] expected = reference(f);
+
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            TabulatedFunctions.outputTabulatedFunction(f, stream);
+            assertArrayEquals(expected, stream.toByteArray(), "поток, n = " + n);
+
+            ByteArrayOutputStream channel = new ByteArrayOutputStream();
+            TabulatedFunctions.outputTabulatedFunction(f, Channels.newChannel(channel));
+            assertArrayEquals(expected, channel.toByteArray(), "канал, n = " + n);
+
+            // FileChannel поддерживает запись из нескольких буферов сразу.
+            Path path = dir.resolve("f.bin");
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                TabulatedFunctions.outputTabulatedFunction(f, file);
+            }
+            assertArrayEquals(expected, Files.readAllBytes(path), "файловый канал, n = " + n);
+        }
+    }
+
+    @Test
+    void binaryInputReadsDataOutputStream() throws IOException {
+        for (int n : SIZES) {
+            TabulatedFunction f = function(n);
+            byte[] bytes = reference(f);
+            assertSamePoints(f, TabulatedFunctions.inputTabulatedFunction(new ByteArrayInputStream(bytes)));
+            assertSamePoints(f, TabulatedFunctions.inputTabulatedFunction(trickle(bytes)));
+        }
+    }
+
+    // Канал, отдающий не больше 7 байт за вызов: числа разрезаются между чтениями.
+    private static ReadableByteChannel trickle(byte[] bytes) {
+        ReadableByteChannel source = Channels.newChannel(new ByteArrayInputStream(bytes));
+        return new ReadableByteChannel() {
+            public int read(ByteBuffer dst) throws IOException {
+                ByteBuffer part = dst.slice();
+                part.limit(Math.min(part.limit(), 7));
+                int read = source.read(part);
+                if (read > 0) {
+                    dst.position(dst.position() + read);
+                }
+                return read;
+            }
+
+            public boolean isOpen() {
+                return source.isOpen();
+            }
+
+            public void close() throws IOException {
+                source.close();
+            }
+        };
+    }
+
+    private static void assertSamePoints(TabulatedFunction expected, TabulatedFunction actual) {
+        assertEquals(expected.getPointsCount(), actual.getPointsCount());
+        for (int i = 0; i < expected.getPointsCount(); i++) {
+            assertEquals(Double.doubleToRawLongBits(expected.getPointX(i)), Double.doubleToRawLongBits(actual.getPointX(i)));
+            assertEquals(Double.doubleToRawLongBits(expected.getPointY(i)), Double.doubleToRawLongBits(actual.getPointY(i)));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import functions.basic.Exp;
+
+import java.lang.reflect.Field;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UniformGridTabulatedFunctionTest {
+    private static UniformGridTabulatedFunction grid() {
+        return new UniformGridTabulatedFunction(0, 4, new double[]{0, 1, 4, 9, 16});
+    }
+
+    // Отклонённое изменение не должно переводить сетку в общее представление.
+    @Test
+    void rejectedMutationsKeepUniformGrid() {
+        UniformGridTabulatedFunction f = grid();
+
+        assertThrows(InappropriateFunctionPointException.class, () -> f.setPoint(2, new FunctionPoint(3.5, 0)));
+        assertThrows(InappropriateFunctionPointException.class, () -> f.setPointX(2, 0.5));
+        assertThrows(FunctionPointIndexOutOfBoundsException.class, () -> f.setPointX(7, 0.5));
+        assertThrows(FunctionPointIndexOutOfBoundsException.class, () -> f.deletePoint(-1));
+        assertThrows(InappropriateFunctionPointException.class, () -> f.addPoint(new FunctionPoint(3, 0)));
+        assertThrows(InappropriateFunctionPointException.class,
+                () -> f.addPoints(new FunctionPoint[]{new FunctionPoint(2.5, 0), new FunctionPoint(1, 0)}));
+        assertThrows(FunctionPointIndexOutOfBoundsException.class, () -> f.deleteRange(3, 9));
+        assertThrows(IllegalStateException.class, () -> f.deleteRange(0, 4));
+
+        UniformGridTabulatedFunction pair = new UniformGridTabulatedFunction(0, 1, 2);
+        assertThrows(IllegalStateException.class, () -> pair.deletePoint(0));
+
+        assertTrue(f.isUniform());
+        assertTrue(pair.isUniform());
+        assertEquals(grid(), f);
+    }
+
+    @Test
+    void acceptedMutationsStillWork() {
+        UniformGridTabulatedFunction f = grid();
+        f.deleteRange(1, 1);
+        f.deletePoint(4);
+        assertTrue(f.isUniform());
+
+        f.setPointX(1, 1.5);
+        assertEquals(1.5, f.getPointX(1));
+        assertEquals(4, f.getPointsCount());
+    }
+
+    @Test
+    void cubicInterpolationSwitchesToGeneralForm() {
+        TabulatedFunction f = TabulatedFunctions.tabulate(new Exp(), 0, 2, 9);
+        ArrayTabulatedFunction expected = new ArrayTabulatedFunction(0, 2, f.copyYs(null));
+
+        f.setInterpolation(Interpolation.LINEAR);
+        assertTrue(((UniformGridTabulatedFunction) f).isUniform());
+
+        f.setInterpolation(Interpolation.NATURAL_CUBIC);
+        expected.setInterpolation(Interpolation.NATURAL_CUBIC);
+        assertFalse(((UniformGridTabulatedFunction) f).isUniform());
+        assertEquals(Interpolation.NATURAL_CUBIC, f.getInterpolation());
+        for (double x = 0; x <= 2; x += 0.1) {
+            assertEquals(expected.getFunctionValue(x), f.getFunctionValue(x), 1e-12);
+        }
+    }
+
+    // Реализации без сплайнов отклоняют кубические режимы и остаются линейными.
+    @Test
+    void linearOnlyImplementationsRejectCubic() {
+        TabulatedFunction[] functions = {
+                new UnrolledLinkedListTabulatedFunction(0, 1, 5),
+                new OffHeapTabulatedFunction(0, 1, 5)
+        };
+        for (TabulatedFunction f : functions) {
+            f.setInterpolation(Interpolation.LINEAR);
+            assertThrows(UnsupportedOperationException.class, () -> f.setInterpolation(Interpolation.MONOTONE_CUBIC));
+            assertEquals(Interpolation.LINEAR, f.getInterpolation());
+        }
+    }
+
+    // Снимок делит массив значений с сеткой, поэтому проверяются все пути записи в него.
+    @Test
+    void snapshotIsIsolatedFromLaterWrites() {
+        UniformGridTabulatedFunction f = grid();
+        TabulatedFunction first = f.snapshot();
+        assertTrue(f.isUniform());
+        assertEquals(4.0, first.getRightDomainBorder());
+        assertEquals(2.5, first.getFunctionValue(1.5));
+
+        f.setPointY(1, -1);
+        f.deleteRange(3, 5);
+        TabulatedFunction second = f.snapshot();
+        f.addPoint(new FunctionPoint(3, 100));
+        f.setPoint(0, new FunctionPoint(0, 7));
+        f.setPointX(1, 0.5);
+
+        assertEquals(grid(), first);
+        assertEquals(new ArrayTabulatedFunction(0, 2, new double[]{0, -1, 4}), second);
+        assertEquals(3, second.getPointsCount());
+        assertEquals(new ArrayTabulatedFunction(new FunctionPoint[]{
+                new FunctionPoint(0, 7), new FunctionPoint(0.5, -1), new FunctionPoint(2, 4), new FunctionPoint(3, 100)}), f);
+        assertEquals(first.hashCode(), grid().hashCode());
+        assertEquals(1.0, first.copyXs(null)[1]);
+    }
+
+    // Запись после снимка копирует один кусок значений, остальные остаются общими со снимком.
+    @Test
+    void writeAfterSnapshotCopiesOnlyTouchedChunk() throws Exception {
+        int n = 3 * ChunkedDoubleArray.CHUNK_SIZE;
+        UniformGridTabulatedFunction f = new UniformGridTabulatedFunction(0, n - 1, n);
+        TabulatedFunction snapshot = f.snapshot();
+
+        f.setPointY(n / 2, 1);
+
+        assertEquals(0.0, snapshot.getPointY(n / 2));
+        double[][] own = chunks(f);
+        double[][] shared = chunks(snapshot);
+        assertSame(shared[0], own[0]);
+        assertNotSame(shared[1], own[1]);
+        assertSame(shared[2], own[2]);
+    }
+
+    private static double[][] chunks(Object owner) throws Exception {
+        Field ys = owner.getClass().getDeclaredField("ys");
+        ys.setAccessible(true);
+        Field chunks = ChunkedDoubleArray.class.getDeclaredField("chunks");
+        chunks.setAccessible(true);
+        return (double[][]) chunks.get(ys.get(owner));
+    }
+}
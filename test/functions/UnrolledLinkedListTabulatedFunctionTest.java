@@ -0,0 +1,140 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnrolledLinkedListTabulatedFunctionTest {
+    private static final int B = UnrolledLinkedListTabulatedFunction.BLOCK_SIZE;
+
+    // Два полных узла по B точек с абсциссами 0, 1, ..., 2B - 1.
+    private static UnrolledLinkedListTabulatedFunction twoFullBlocks() {
+        return new UnrolledLinkedListTabulatedFunction(0, 2 * B - 1, 2 * B);
+    }
+
+    @Test
+    void insertIntoFullBlockSplitsItInHalves() throws Exception {
+        UnrolledLinkedListTabulatedFunction f = twoFullBlocks();
+        assertEquals(List.of(B, B), blockSizes(f));
+
+        f.addPoint(new FunctionPoint(B / 2 - 0.5, -1));
+        assertEquals(List.of(B / 2 + 1, B / 2, B), blockSizes(f));
+
+        f = twoFullBlocks();
+        f.addPoint(new FunctionPoint(B / 2 + 0.5, -1));
+        assertEquals(List.of(B / 2, B / 2 + 1, B), blockSizes(f));
+        assertEquals(B / 2 + 0.5, f.getPointX(B / 2 + 1));
+        assertEquals(-1, f.getPointY(B / 2 + 1));
+        assertEquals(B / 2 + 1.0, f.getPointX(B / 2 + 2));
+        checkStructure(f);
+    }
+
+    @Test
+    void underfullBlockMergesWithNeighbour() throws Exception {
+        UnrolledLinkedListTabulatedFunction f = twoFullBlocks();
+        f.addPoint(new FunctionPoint(B / 2 + 0.5, -1));
+        // Первый узел из B / 2 точек худеет до B / 4 - 1 и сливается со следующим.
+        while (blockSizes(f).size() == 3) {
+            assertTrue(blockSizes(f).get(0) >= B / 4);
+            f.deletePoint(0);
+        }
+        assertEquals(List.of(B / 4 - 1 + B / 2 + 1, B), blockSizes(f));
+        assertEquals(B / 2 - B / 4 + 1.0, f.getPointX(0));
+        checkStructure(f);
+
+        // Последний узел опустошается полностью и удаляется.
+        f.deleteRange(blockSizes(f).get(0), f.getPointsCount());
+        assertEquals(1, blockSizes(f).size());
+        checkStructure(f);
+    }
+
+    @Test
+    void randomEditsKeepBlocksConsistent() throws Exception {
+        Random random = new Random(16);
+        UnrolledLinkedListTabulatedFunction f = new UnrolledLinkedListTabulatedFunction(0, 1000, 500);
+        List<Double> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            expected.add(f.getPointX(i));
+        }
+        for (int step = 0; step < 5000; step++) {
+            if (random.nextBoolean() || expected.size() < 10) {
+                double x = random.nextDouble() * 1000;
+                int i = 0;
+                while (i < expected.size() && expected.get(i) < x) {
+                    i++;
+                }
+                if ((i < expected.size() && MathUtil.equals(expected.get(i), x))
+                        || (i > 0 && MathUtil.equals(expected.get(i - 1), x))) {
+                    continue;
+                }
+                f.addPoint(new FunctionPoint(x, x));
+                expected.add(i, x);
+            } else {
+                int index = random.nextInt(expected.size());
+                f.deletePoint(index);
+                expected.remove(index);
+            }
+            if (step % 100 == 0) {
+                checkStructure(f);
+            }
+        }
+        checkStructure(f);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), f.getPointX(i));
+        }
+    }
+
+    private static List<Integer> blockSizes(UnrolledLinkedListTabulatedFunction f) throws Exception {
+        Object head = field(UnrolledLinkedListTabulatedFunction.class, "head").get(f);
+        Field next = field(head.getClass(), "next");
+        Field size = field(head.getClass(), "size");
+        List<Integer> sizes = new ArrayList<>();
+        for (Object block = next.get(head); block != head; block = next.get(block)) {
+            sizes.add(size.getInt(block));
+        }
+        return sizes;
+    }
+
+    // Узлы непусты и не переполнены, оглавление перечисляет их по порядку, абсциссы возрастают.
+    private static void checkStructure(UnrolledLinkedListTabulatedFunction f) throws Exception {
+        Object head = field(UnrolledLinkedListTabulatedFunction.class, "head").get(f);
+        Object[] blocks = (Object[]) field(UnrolledLinkedListTabulatedFunction.class, "blocks").get(f);
+        int blockCount = field(UnrolledLinkedListTabulatedFunction.class, "blockCount").getInt(f);
+        Class<?> blockClass = head.getClass();
+        Field next = field(blockClass, "next");
+        Field size = field(blockClass, "size");
+        Field ordinal = field(blockClass, "ordinal");
+        Field xs = field(blockClass, "xs");
+
+        int k = 0;
+        int total = 0;
+        double previous = Double.NEGATIVE_INFINITY;
+        for (Object block = next.get(head); block != head; block = next.get(block), k++) {
+            int n = size.getInt(block);
+            assertTrue(n >= 1 && n <= B, "размер узла " + n);
+            assertSame(blocks[k], block);
+            assertEquals(k, ordinal.getInt(block));
+            double[] x = (double[]) xs.get(block);
+            for (int i = 0; i < n; i++) {
+                assertTrue(x[i] > previous);
+                previous = x[i];
+            }
+            total += n;
+        }
+        assertEquals(blockCount, k);
+        assertEquals(f.getPointsCount(), total);
+    }
+
+    private static Field field(Class<?> type, String name) throws NoSuchFieldException {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+}
@@ -0,0 +1,40 @@
+package functions.meta;
+
+import functions.Function;
+import functions.basic.Cos;
+import functions.basic.Exp;
+import functions.basic.Sin;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SumMultEvaluateTest {
+    // Вложенные Sum и Mult берут рабочие массивы одного потока; пакет длиннее части и вычисление на месте
+    // должны давать те же значения, что и поточечное вычисление.
+    @Test
+    void nestedBatchesMatchPointwise() {
+        Function f = new Sum(
+                new Mult(new Sum(new Sin(), new Cos()), new Exp()),
+                new Mult(new Sin(), new Sum(new Cos(), new Mult(new Sin(), new Sin()))));
+        int n = 3 * EvaluationScratch.CHUNK + 17;
+        double[] xs = new double[n + 10];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = -3 + 6.0 * i / xs.length;
+        }
+        double[] expected = new double[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            expected[i] = f.getFunctionValue(xs[i]);
+        }
+
+        double[] out = new double[xs.length];
+        f.evaluate(xs, out, 5, 5 + n);
+        double[] inPlace = xs.clone();
+        f.evaluate(inPlace, inPlace, 5, 5 + n);
+        for (int i = 5; i < 5 + n; i++) {
+            assertEquals(expected[i], out[i], 0);
+            assertEquals(expected[i], inPlace[i], 0);
+        }
+        assertEquals(0.0, out[4]);
+        assertEquals(xs[5 + n], inPlace[5 + n]);
+    }
+}